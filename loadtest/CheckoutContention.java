@@ -0,0 +1,143 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Test de contention sur la circulation : des centaines d'emprunts simultanés
+ * du même titre populaire.
+ *
+ * Le programme crée un livre avec "stock" exemplaires, libère "clients"
+ * requêtes POST /api/loans en même temps, puis vérifie qu'exactement "stock"
+ * emprunts ont réussi (201), que les autres ont été refusés (409) et que la
+ * quantité finale est 0. Code de sortie 1 en cas de survente ou d'erreur.
+ *
+ * Utilisation (application démarrée, Java 17+) :
+ *   java -Dfile.encoding=UTF-8 loadtest/CheckoutContention.java [baseUrl] [clients] [stock] [user:password]
+ */
+public class CheckoutContention {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern QUANTITY = Pattern.compile("\"quantity\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int stock = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        String credentials = args.length > 3 ? args[3] : "admin:adminpass";
+        String authorization = "Basic " + Base64.getEncoder()
+                .encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(32))
+                .build();
+
+        String isbn = isbn13("979" + String.format("%09d", System.currentTimeMillis() % 1_000_000_000L));
+        String created = send(client, post(baseUrl + "/api/books", authorization,
+                "{\"title\":\"Titre populaire\",\"author\":\"Contention\",\"isbn\":\"" + isbn
+                        + "\",\"quantity\":" + stock + ",\"available\":true}")).body();
+        long bookId = Long.parseLong(match(ID, created));
+        System.out.printf("Book %d created with %d copies, %d concurrent checkouts...%n", bookId, stock, clients);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<Long> latencies = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        long began = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            String body = "{\"borrower\":\"reader-" + i + "\",\"bookIds\":[" + bookId + "]}";
+            workers.submit(() -> {
+                try {
+                    start.await();
+                    long sent = System.nanoTime();
+                    int status = send(client, post(baseUrl + "/api/loans", authorization, body)).statusCode();
+                    synchronized (latencies) {
+                        latencies.add(System.nanoTime() - sent);
+                    }
+                    if (status == 201) {
+                        succeeded.incrementAndGet();
+                    } else if (status == 409) {
+                        refused.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        workers.shutdown();
+        workers.awaitTermination(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - began;
+
+        HttpRequest get = HttpRequest.newBuilder(URI.create(baseUrl + "/api/books/" + bookId))
+                .header("Authorization", authorization).GET().build();
+        int remaining = Integer.parseInt(match(QUANTITY, send(client, get).body()));
+        latencies.sort(null);
+        System.out.printf("checkouts: %d succeeded, %d refused (409), %d errors in %.0f ms%n",
+                succeeded.get(), refused.get(), failed.get(), elapsed / 1e6);
+        System.out.printf("latency p50 %.2f ms, p99 %.2f ms; remaining quantity %d%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.99), remaining);
+
+        boolean consistent = succeeded.get() == Math.min(stock, clients)
+                && remaining == stock - succeeded.get()
+                && failed.get() == 0;
+        System.out.println(consistent ? "OK: no oversell" : "FAILED: inconsistent stock");
+        System.exit(consistent ? 0 : 1);
+    }
+
+    /** Ajoute le chiffre de contrôle à un préfixe de 12 chiffres */
+    private static String isbn13(String body) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (body.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+
+    private static HttpRequest post(String url, String authorization, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static HttpResponse<String> send(HttpClient client, HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String match(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected response: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1);
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+}
@@ -0,0 +1,161 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Banc de charge HTTP en boucle fermée pour comparer les modes d'exécution
+ * (threads de plateforme / threads virtuels) sur les endpoints existants.
+ *
+ * Chaque client envoie une requête, attend la réponse puis recommence, pendant
+ * la durée demandée après une phase de chauffe. Le programme affiche le débit,
+ * les percentiles de latence (p50, p99, p99.9) et le nombre d'erreurs par endpoint,
+ * ainsi qu'une ligne CSV récapitulative.
+ *
+ * Utilisation (aucune compilation nécessaire, Java 17+) :
+ *   java -Dfile.encoding=UTF-8 loadtest/LoadTest.java [baseUrl] [clients] [durationSeconds] [user:password] [label]
+ *
+ * Comparaison des deux modes : voir loadtest/compare-threading.sh
+ */
+public class LoadTest {
+
+    private static final List<String> ENDPOINTS = List.of(
+            "/api/books/page?size=50",
+            "/api/books/available",
+            "/api/books/1",
+            "/api/books/isbn/9780000000001",
+            "/api/books/search?title=the");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String credentials = args.length > 3 ? args[3] : "user:userpass";
+        String label = args.length > 4 ? args[4] : "run";
+        String authorization = "Basic " + Base64.getEncoder()
+                .encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, clients / 8)))
+                .build();
+
+        System.out.printf("Warming up %s with %d clients...%n", baseUrl, clients);
+        run(client, baseUrl, authorization, clients, Math.min(10, durationSeconds), null);
+
+        List<Stats> stats = new ArrayList<>();
+        ENDPOINTS.forEach(endpoint -> stats.add(new Stats(endpoint)));
+        long elapsed = run(client, baseUrl, authorization, clients, durationSeconds, stats);
+
+        System.out.printf("%-35s %10s %10s %10s %10s %8s%n", "endpoint", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors");
+        long total = 0;
+        long[] all = new long[0];
+        long errors = 0;
+        for (Stats s : stats) {
+            long[] latencies = s.latencies();
+            total += latencies.length;
+            errors += s.errors.get();
+            all = concat(all, latencies);
+            System.out.printf("%-35s %10.1f %10.2f %10.2f %10.2f %8d%n", s.endpoint,
+                    latencies.length * 1e9 / elapsed, percentile(latencies, 0.50),
+                    percentile(latencies, 0.99), percentile(latencies, 0.999), s.errors.get());
+        }
+        Arrays.sort(all);
+        double throughput = total * 1e9 / elapsed;
+        System.out.printf("%-35s %10.1f %10.2f %10.2f %10.2f %8d%n", "TOTAL", throughput,
+                percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999), errors);
+        System.out.printf("CSV,%s,%d,%.1f,%.2f,%.2f,%d%n", label, clients, throughput,
+                percentile(all, 0.50), percentile(all, 0.99), errors);
+        System.exit(0);
+    }
+
+    /**
+     * Lance les clients pendant la durée donnée
+     * @return La durée réelle de la mesure en nanosecondes
+     */
+    private static long run(HttpClient client, String baseUrl, String authorization, int clients,
+                            int durationSeconds, List<Stats> stats) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        for (int i = 0; i < clients; i++) {
+            int offset = i;
+            workers.submit(() -> {
+                int n = offset;
+                while (System.nanoTime() < deadline) {
+                    int index = n++ % ENDPOINTS.size();
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + ENDPOINTS.get(index)))
+                            .header("Authorization", authorization)
+                            .timeout(Duration.ofSeconds(30))
+                            .GET()
+                            .build();
+                    long sent = System.nanoTime();
+                    boolean ok;
+                    try {
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        ok = status < 500;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    if (stats != null) {
+                        stats.get(index).record(System.nanoTime() - sent, ok);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(durationSeconds + 60L, TimeUnit.SECONDS);
+        return System.nanoTime() - start;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static final class Stats {
+        private final String endpoint;
+        private final AtomicLong errors = new AtomicLong();
+        private long[] samples = new long[1 << 16];
+        private int count;
+
+        Stats(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized void record(long nanos, boolean ok) {
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+        }
+
+        synchronized long[] latencies() {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
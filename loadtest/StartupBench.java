@@ -0,0 +1,103 @@
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure le temps jusqu'à la première requête servie (time-to-first-request)
+ * en démarrage classique et en démarrage rapide (AOT + archive CDS).
+ *
+ * Chaque mode est lancé plusieurs fois ; le temps est compté du lancement de la JVM
+ * à la première réponse HTTP 200 de /api/books/page?size=1. Le programme affiche
+ * le minimum, la médiane et le maximum par mode, ainsi qu'une ligne CSV par mode.
+ *
+ * Prérequis : PostgreSQL démarré, mvn package (mode classique) puis
+ * loadtest/fast-startup.sh (mode rapide).
+ *
+ * Utilisation (Java 17+) :
+ *   java -Dfile.encoding=UTF-8 loadtest/StartupBench.java [runs] [port]
+ */
+public class StartupBench {
+
+    private static final String DEFAULT_JAR = "target/library-management-system-0.0.1-SNAPSHOT.jar";
+    private static final String FAST_JAR = "target/library-management-system-fast-startup.jar";
+    private static final String ARCHIVE = "target/application.jsa";
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+
+        List<String> java = List.of(ProcessHandle.current().info().command().orElse("java"));
+        List<String> defaultMode = concat(java, List.of("-jar", DEFAULT_JAR, "--server.port=" + port));
+        List<String> fastMode = concat(java, List.of("-XX:SharedArchiveFile=" + ARCHIVE, "-Dspring.aot.enabled=true",
+                "-jar", FAST_JAR, "--server.port=" + port));
+
+        System.out.printf("%-10s %10s %10s %10s%n", "mode", "min ms", "median ms", "max ms");
+        List<String> csv = new ArrayList<>();
+        csv.add(report("default", measure(defaultMode, port, runs)));
+        if (new File(FAST_JAR).exists() && new File(ARCHIVE).exists()) {
+            csv.add(report("fast", measure(fastMode, port, runs)));
+        } else {
+            System.out.println("fast       skipped: run loadtest/fast-startup.sh first");
+        }
+        csv.forEach(System.out::println);
+    }
+
+    private static long[] measure(List<String> command, int port, int runs) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/books/page?size=1"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        long[] millis = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File("target/startup-bench.log"))
+                    .start();
+            try {
+                while (!ready(client, request)) {
+                    if (!process.isAlive()) {
+                        throw new IllegalStateException("Application exited, see target/startup-bench.log");
+                    }
+                    Thread.sleep(10);
+                }
+                millis[run] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private static boolean ready(HttpClient client, HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static String report(String mode, long[] millis) {
+        long median = millis[millis.length / 2];
+        System.out.printf("%-10s %10d %10d %10d%n", mode, millis[0], median, millis[millis.length - 1]);
+        return String.format("CSV,%s,%d,%d,%d", mode, millis[0], median, millis[millis.length - 1]);
+    }
+
+    private static List<String> concat(List<String> a, List<String> b) {
+        List<String> result = new ArrayList<>(a);
+        result.addAll(b);
+        return result;
+    }
+}
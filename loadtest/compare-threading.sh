@@ -0,0 +1,30 @@
+#!/usr/bin/env bash
+# Compare le débit et la latence p99 entre threads de plateforme et threads virtuels.
+# Prérequis : Java 21 pour le mode virtuel, PostgreSQL démarré, jar construit (mvn package).
+#
+# Utilisation : loadtest/compare-threading.sh [clients] [durationSeconds]
+set -euo pipefail
+
+CLIENTS=${1:-200}
+DURATION=${2:-30}
+JAR=$(ls target/library-management-system-*.jar | head -n 1)
+PORT=8080
+
+run_mode() {
+  local label=$1
+  shift
+  java -jar "$JAR" --server.port=$PORT "$@" > "target/loadtest-$label.log" 2>&1 &
+  local pid=$!
+  until curl -s -o /dev/null "http://localhost:$PORT/api/books/page?size=1"; do sleep 1; done
+  java -Dfile.encoding=UTF-8 loadtest/LoadTest.java "http://localhost:$PORT" "$CLIENTS" "$DURATION" user:userpass "$label" \
+    | tee "target/loadtest-$label.txt"
+  kill $pid
+  wait $pid || true
+}
+
+run_mode platform
+run_mode virtual --spring.profiles.active=virtual-threads
+
+echo
+echo "label,clients,req/s,p50 ms,p99 ms,errors"
+grep -h '^CSV,' target/loadtest-platform.txt target/loadtest-virtual.txt | cut -d, -f2-
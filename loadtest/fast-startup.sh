@@ -0,0 +1,20 @@
+#!/usr/bin/env bash
+# Construit le mode démarrage rapide : jar avec traitement AOT (profil Maven fast-startup)
+# puis archive CDS des classes chargées au démarrage.
+# Prérequis : PostgreSQL démarré (le démarrage d'entraînement applique et valide le schéma).
+#
+# Utilisation : loadtest/fast-startup.sh
+# Comparaison avec le démarrage classique : java -Dfile.encoding=UTF-8 loadtest/StartupBench.java
+set -euo pipefail
+
+mvn -B -q -Pfast-startup -DskipTests package
+JAR=target/library-management-system-fast-startup.jar
+ARCHIVE=target/application.jsa
+
+# Démarrage d'entraînement : le contexte est entièrement créé puis l'application s'arrête,
+# les classes chargées sont écrites dans l'archive
+java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+  -jar "$JAR" > target/cds-training.log 2>&1
+
+echo "Archive CDS : $ARCHIVE"
+echo "Lancement : java -XX:SharedArchiveFile=$ARCHIVE -Dspring.aot.enabled=true -jar $JAR"
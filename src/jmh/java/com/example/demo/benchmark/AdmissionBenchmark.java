@@ -0,0 +1,115 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.admission.AdmissionControl;
+import com.example.demo.admission.AdmissionProperties;
+import com.example.demo.admission.PoolWaitMonitor;
+import com.example.demo.admission.RateLimiter;
+import com.example.demo.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coût du contrôle d'admission par requête, sur 8 threads concurrents :
+ * requête sans règle applicable (unmatched), tous les threads sur le même
+ * client (sameClient, contention sur un seul AtomicLong) ou un client par
+ * thread (distinctClients). Les limites sont assez hautes pour que toutes
+ * les requêtes soient admises ; limiterOnly isole le RateLimiter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AdmissionBenchmark {
+
+    private static final AtomicInteger CLIENTS = new AtomicInteger();
+
+    private AdmissionControl admissionControl;
+    private RateLimiter limiter;
+    private MockHttpServletRequest unmatched;
+    private MockHttpServletRequest shared;
+    private Authentication sharedUser;
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        MockHttpServletRequest request;
+        String key;
+
+        @Setup
+        public void setUp() {
+            int id = CLIENTS.incrementAndGet();
+            request = new MockHttpServletRequest("GET", "/api/books/search");
+            request.setRemoteAddr("10.0." + (id / 256) + "." + (id % 256));
+            key = "search|ip:" + request.getRemoteAddr();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        AdmissionProperties.Rule search = new AdmissionProperties.Rule();
+        search.setName("search");
+        search.setPath("/api/books/search");
+        search.setMethods(List.of("GET"));
+        search.setPermits(1_000_000_000);
+        search.setBurst(1_000_000);
+        AdmissionProperties.Rule writes = new AdmissionProperties.Rule();
+        writes.setName("writes");
+        writes.setPath("/api/**");
+        writes.setMethods(List.of("POST", "PUT", "PATCH", "DELETE"));
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRules(List.of(search, writes));
+        admissionControl = new AdmissionControl(properties, new PoolWaitMonitor(Duration.ofSeconds(1)), new MetricsRegistry());
+        limiter = new RateLimiter();
+        unmatched = new MockHttpServletRequest("GET", "/api/books/page");
+        shared = new MockHttpServletRequest("GET", "/api/books/search");
+        sharedUser = UsernamePasswordAuthenticationToken.authenticated("user", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        admissionControl.shutdown();
+    }
+
+    @Benchmark
+    public Object unmatched() {
+        return admissionControl.admit(unmatched, sharedUser);
+    }
+
+    @Benchmark
+    public Object sameClient() {
+        return admissionControl.admit(shared, sharedUser);
+    }
+
+    @Benchmark
+    public Object distinctClients(Client client) {
+        return admissionControl.admit(client.request, null);
+    }
+
+    @Benchmark
+    public long limiterOnly(Client client) {
+        return limiter.acquire(client.key, 1, 1_000_000);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.audit.AuditLog;
+import com.example.demo.dto.AuditEntry;
+import com.example.demo.metrics.MetricsRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Surcoût du journal d'audit pour la requête qui modifie le catalogue, sur 8
+ * threads : dépôt dans la file (record, utilisateur lu dans le SecurityContext,
+ * écriture sur disque par le thread de fond) contre ajout synchrone d'une ligne
+ * JSON au fichier sous verrou (synchronousAppend), sans fsync dans les deux cas.
+ *
+ * Avec overflow=BLOCK le débit mesuré est borné par celui de l'écrivain dès que
+ * la file est pleine ; avec DROP les entrées en trop sont perdues. Le nombre
+ * d'entrées écrites et perdues est affiché à la fin de chaque essai.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuditBenchmark {
+
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    @Param({"BLOCK", "DROP"})
+    public AuditLog.Overflow overflow;
+
+    private Path directory;
+    private MetricsRegistry metrics;
+    private AuditLog auditLog;
+    private ObjectWriter writer;
+    private FileChannel synchronousLog;
+
+    @State(Scope.Thread)
+    public static class User {
+
+        @Setup
+        public void setUp() {
+            SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                    "user" + USERS.incrementAndGet(), null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("audit-bench");
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        metrics = new MetricsRegistry();
+        auditLog = new AuditLog(true, directory.resolve("async"), 65536, 1000, Duration.ofMillis(100), overflow,
+                Duration.ofMillis(50), DataSize.ofMegabytes(64), 4, false, false, objectMapper, null, metrics);
+        writer = objectMapper.writerFor(AuditEntry.class);
+        synchronousLog = FileChannel.open(directory.resolve("sync.jsonl"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        auditLog.shutdown();
+        synchronousLog.close();
+        System.out.printf("%naudit written: %d, dropped: %d%n", metrics.counter("audit_written_total").sum(),
+                metrics.counter("audit_dropped_total").sum());
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public boolean record(User user) {
+        int quantity = ThreadLocalRandom.current().nextInt(100);
+        return auditLog.record(AuditEntry.Action.QUANTITY_CHANGED, (long) quantity, quantity, quantity + 1);
+    }
+
+    @Benchmark
+    public int synchronousAppend(User user) throws IOException {
+        int quantity = ThreadLocalRandom.current().nextInt(100);
+        AuditEntry entry = new AuditEntry(0, Instant.now(),
+                SecurityContextHolder.getContext().getAuthentication().getName(),
+                AuditEntry.Action.QUANTITY_CHANGED, (long) quantity, quantity, quantity + 1);
+        byte[] line = writer.writeValueAsBytes(entry);
+        ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+        synchronized (this) {
+            return synchronousLog.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.security.CachingAuthenticationProvider;
+import com.example.demo.security.NotifyingUserDetailsManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentifications HTTP Basic par seconde et par cœur (un seul thread),
+ * avec la configuration de SecurityConfig : BCrypt à chaque requête
+ * (bcryptEveryRequest) contre le cache des authentifications réussies (cached).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuthenticationBenchmark {
+
+    private ProviderManager uncached;
+    private ProviderManager cached;
+
+    @Setup
+    public void setUp() {
+        PasswordEncoder encoder = new BCryptPasswordEncoder();
+        NotifyingUserDetailsManager users = new NotifyingUserDetailsManager(User.builder()
+                .username("user")
+                .password(encoder.encode("userpass"))
+                .roles("USER")
+                .build());
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider(encoder);
+        dao.setUserDetailsService(users);
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(dao, 10000, Duration.ofMinutes(5));
+        users.addListener(provider::invalidate);
+        uncached = new ProviderManager(dao);
+        cached = new ProviderManager(provider);
+    }
+
+    @Benchmark
+    public Authentication bcryptEveryRequest() {
+        return uncached.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "userpass"));
+    }
+
+    @Benchmark
+    public Authentication cached() {
+        return cached.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "userpass"));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.author.AuthorService;
+import com.example.demo.dto.AuthorSummary;
+import com.example.demo.dto.BookBatch;
+import com.example.demo.dto.BookPage;
+import com.example.demo.dto.BookRows;
+import com.example.demo.dto.CatalogStats;
+import com.example.demo.model.Book;
+import com.example.demo.repository.BookRepository;
+import com.example.demo.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chemins critiques du service et du repository sur un catalogue synthétique.
+ *
+ * findByIsbnDatabase contourne le cache pour mesurer la requête indexée seule
+ * (la recherche plein texte est mesurée par SearchBenchmark). findAvailableBooksScan
+ * et catalogStatsDatabase mesurent les lectures en base remplacées par l'index
+ * des disponibilités. findShelfOneByOne
+ * et findShelfBatch résolvent la même étagère de 200 livres. findByAuthorScan
+ * est la recherche historique par égalité exacte sur la colonne non indexée.
+ * findBooksRows lit la même page que findBooksPage réduite à id,title,isbn.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogBenchmark {
+
+    private static final int SHELF_SIZE = 200;
+    private static final List<String> PROJECTION = BookService.parseFields("title,isbn");
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Book> findAllBooks(CatalogState state) {
+        return state.bean(BookService.class).findAllBooks();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void streamAllBooks(CatalogState state, Blackhole blackhole) {
+        state.bean(BookService.class).streamAllBooks(blackhole::consume);
+    }
+
+    @Benchmark
+    public BookPage findBooksPage(CatalogState state) {
+        long after = state.idOf(state.randomIndex());
+        return state.bean(BookService.class).findBooksPage(after, BookService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public BookRows findBooksRows(CatalogState state) {
+        long after = state.idOf(state.randomIndex());
+        return state.bean(BookService.class).findBooksRows(PROJECTION, after, BookService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Book> findAvailableBooksScan(CatalogState state) {
+        return state.bean(BookRepository.class).findByAvailableTrue();
+    }
+
+    @Benchmark
+    public BookPage findAvailableBooksPage(CatalogState state) {
+        long after = state.idOf(state.randomIndex());
+        return state.bean(BookService.class).findAvailableBooksPage(after, BookService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CatalogStats catalogStats(CatalogState state) {
+        return state.bean(BookService.class).getCatalogStats();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CatalogStats catalogStatsDatabase(CatalogState state) {
+        return state.bean(BookRepository.class).computeCatalogStats();
+    }
+
+    @Benchmark
+    public Book findByIsbn(CatalogState state) {
+        return state.bean(BookService.class).findByIsbn(SyntheticCatalog.isbn(state.randomIndex()));
+    }
+
+    @Benchmark
+    public void findShelfOneByOne(CatalogState state, Blackhole blackhole) {
+        BookService service = state.bean(BookService.class);
+        for (long id : shelf(state)) {
+            blackhole.consume(service.findById(id));
+        }
+    }
+
+    @Benchmark
+    public BookBatch<Long> findShelfBatch(CatalogState state) {
+        return state.bean(BookService.class).findByIds(shelf(state));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Book> findByAuthorScan(CatalogState state) {
+        return state.bean(BookRepository.class).findByAuthor(SyntheticCatalog.author(state.randomIndex()));
+    }
+
+    @Benchmark
+    public BookPage findByAuthorIndexed(CatalogState state) {
+        return state.bean(BookService.class).findByAuthor(
+                SyntheticCatalog.author(state.randomIndex()), null, BookService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<AuthorSummary> autocompleteAuthor(CatalogState state) {
+        String author = SyntheticCatalog.author(state.randomIndex());
+        return state.bean(AuthorService.class).complete(author.substring(0, 3), AuthorService.DEFAULT_SUGGESTIONS);
+    }
+
+    @Benchmark
+    public Book findByIsbnDatabase(CatalogState state) {
+        return state.bean(BookRepository.class).findByIsbn(SyntheticCatalog.isbn(state.randomIndex()));
+    }
+
+    @Benchmark
+    public Book updateBookQuantity(CatalogState state) {
+        long id = state.idOf(state.randomIndex());
+        return state.bean(BookService.class).updateBookQuantity(id, ThreadLocalRandom.current().nextInt(10));
+    }
+
+    @Benchmark
+    public Book incrementQuantity(CatalogState state) {
+        return state.bean(BookService.class).incrementQuantity(state.idOf(state.randomIndex()), 1);
+    }
+
+    /** Étagère de SHELF_SIZE livres tirés au hasard */
+    private static List<Long> shelf(CatalogState state) {
+        List<Long> ids = new ArrayList<>(SHELF_SIZE);
+        for (int i = 0; i < SHELF_SIZE; i++) {
+            ids.add(state.idOf(state.randomIndex()));
+        }
+        return ids;
+    }
+}
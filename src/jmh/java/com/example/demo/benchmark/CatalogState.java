@@ -0,0 +1,82 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.dto.ImportReport;
+import com.example.demo.importer.BookImportService;
+import com.example.demo.repository.BookRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Application complète démarrée sur une base H2 en mémoire et alimentée
+ * par l'import en masse avec un catalogue synthétique de catalogSize livres.
+ * Partagée par tous les threads d'un même benchmark.
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    /** Propriétés de l'application pendant les benchmarks (application.properties est ignoré) */
+    static final String[] PROPERTIES = {
+        "spring.config.location=optional:classpath:/benchmark/",
+        "spring.main.banner-mode=off",
+        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create",
+        "library.migrations.enabled=false",
+        "spring.jpa.open-in-view=false",
+        "logging.level.root=WARN"
+    };
+
+    @Param({"10000", "100000", "1000000"})
+    public int catalogSize;
+
+    public ConfigurableApplicationContext context;
+
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(PROPERTIES)
+                .run();
+        ImportReport report = bean(BookImportService.class)
+                .importBooks(SyntheticCatalog.ndjson(catalogSize), BookImportService.Format.NDJSON, 5000);
+        if (report.imported() != catalogSize) {
+            throw new IllegalStateException("Catalog seeding failed: " + report);
+        }
+        firstId = bean(BookRepository.class).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(1)).get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /** Indice aléatoire d'un livre du catalogue */
+    public int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(catalogSize);
+    }
+
+    /** Identifiant en base du livre d'indice donné (les identifiants sont contigus après l'import) */
+    public long idOf(int index) {
+        return firstId + index;
+    }
+}
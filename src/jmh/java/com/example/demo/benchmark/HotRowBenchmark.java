@@ -0,0 +1,95 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.inventory.QuantityCoalescer;
+import com.example.demo.model.Book;
+import com.example.demo.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mises à jour de stock par seconde sur un seul livre très sollicité, 8 threads :
+ * une transaction SELECT + UPDATE par appel (coalescing=false) contre le
+ * regroupement des mises à jour par QuantityCoalescer (coalescing=true),
+ * appliquées par lot toutes les 200 ms. Le tampon est vidé à la fin de chaque
+ * itération pour que le coût des lots soit compté dans la mesure. Sans
+ * regroupement, les PUT concurrents échouent en partie sur la version du livre.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HotRowBenchmark {
+
+    @Param({"false", "true"})
+    public boolean coalescing;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private long hotId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(CatalogState.PROPERTIES)
+                .properties("library.quantity-coalescing.enabled=" + coalescing,
+                        "library.quantity-coalescing.flush-interval=200ms")
+                .run();
+        bookService = context.getBean(BookService.class);
+        hotId = bookService.saveBook(SyntheticCatalog.book(0)).getId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() {
+        context.getBean(QuantityCoalescer.class).flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Book updateQuantity() {
+        int quantity = ThreadLocalRandom.current().nextInt(10);
+        if (coalescing) {
+            return bookService.bufferQuantity(hotId, quantity);
+        }
+        try {
+            return bookService.updateBookQuantity(hotId, quantity);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Écriture concurrente sur la même version : l'appel a quand même coûté une transaction
+            return null;
+        }
+    }
+
+    @Benchmark
+    public Book incrementQuantity() {
+        return coalescing
+                ? bookService.bufferIncrement(hotId, 1)
+                : bookService.incrementQuantity(hotId, 1);
+    }
+}
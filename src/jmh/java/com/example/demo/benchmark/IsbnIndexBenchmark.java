@@ -0,0 +1,115 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.isbn.Isbn;
+import com.example.demo.isbn.LongLongHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Index ISBN → identifiant : HashMap<String, Long> (hashMap) contre
+ * LongLongHashMap sur l'ISBN-13 canonique (primitive, analyse de l'ISBN comprise).
+ * primitiveHyphenated cherche l'écriture avec tirets, que seule la forme
+ * canonique retrouve ; parseOnly isole le coût de l'analyse.
+ *
+ * L'empreinte mémoire de chaque index (octets retenus par entrée, mesurés par
+ * différence de tas après GC) est affichée à la préparation de chaque essai.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class IsbnIndexBenchmark {
+
+    @Param({"100000", "1000000", "5000000"})
+    public int size;
+
+    private Map<String, Long> hashMap;
+    private LongLongHashMap primitive;
+    private String[] queries;
+    private String[] hyphenated;
+
+    @Setup
+    public void setUp() {
+        queries = new String[size];
+        hyphenated = new String[size];
+        for (int i = 0; i < size; i++) {
+            queries[i] = SyntheticCatalog.isbn(i);
+            hyphenated[i] = hyphenate(queries[i]);
+        }
+        hashMap = measure("HashMap<String, Long>", () -> {
+            Map<String, Long> map = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                // Chaînes distinctes des requêtes, comme des ISBN lus en base
+                map.put(new String(queries[i].toCharArray()), (long) i + 1);
+            }
+            return map;
+        });
+        primitive = measure("LongLongHashMap", () -> {
+            LongLongHashMap map = new LongLongHashMap(16);
+            for (int i = 0; i < size; i++) {
+                map.put(Isbn.parse(queries[i]), i + 1);
+            }
+            return map;
+        });
+    }
+
+    @Benchmark
+    public Long hashMap() {
+        return hashMap.get(queries[ThreadLocalRandom.current().nextInt(size)]);
+    }
+
+    @Benchmark
+    public long primitive() {
+        return primitive.get(Isbn.parse(queries[ThreadLocalRandom.current().nextInt(size)]));
+    }
+
+    @Benchmark
+    public long primitiveHyphenated() {
+        return primitive.get(Isbn.parse(hyphenated[ThreadLocalRandom.current().nextInt(size)]));
+    }
+
+    @Benchmark
+    public long parseOnly() {
+        return Isbn.parse(queries[ThreadLocalRandom.current().nextInt(size)]);
+    }
+
+    private <T> T measure(String name, Supplier<T> build) {
+        long before = usedHeap();
+        T index = build.get();
+        long retained = usedHeap() - before;
+        System.out.printf("%n%s: %d entries, %d MB retained, %.1f bytes/entry%n",
+                name, size, retained >> 20, (double) retained / size);
+        return index;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** 978-0-306-40615-7 : préfixe, groupe, éditeur et titre de longueurs fixes, clé */
+    private static String hyphenate(String isbn) {
+        return isbn.substring(0, 3) + "-" + isbn.charAt(3) + "-" + isbn.substring(4, 8)
+                + "-" + isbn.substring(8, 12) + "-" + isbn.charAt(12);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.Book;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation et désérialisation Jackson d'une List<Book> de la taille du catalogue
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    private static final TypeReference<List<Book>> BOOK_LIST = new TypeReference<>() {
+    };
+
+    @Param({"10000", "100000", "1000000"})
+    public int catalogSize;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private List<Book> books;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        books = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            Book book = SyntheticCatalog.book(i);
+            book.setId((long) i + 1);
+            books.add(book);
+        }
+        json = objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public List<Book> deserialize() throws IOException {
+        return objectMapper.readValue(json, BOOK_LIST);
+    }
+}
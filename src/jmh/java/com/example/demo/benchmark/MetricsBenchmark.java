@@ -0,0 +1,76 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.metrics.EndpointMetricsInterceptor;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Surcoût de l'instrumentation par requête : enregistrement dans un histogramme
+ * (seul et sous contention) et passage complet dans l'intercepteur d'endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private LatencyHistogram histogram;
+    private EndpointMetricsInterceptor interceptor;
+
+    @State(Scope.Thread)
+    public static class Exchange {
+        MockHttpServletRequest request;
+        MockHttpServletResponse response;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            request = new MockHttpServletRequest("GET", "/api/books/42");
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/books/{id}");
+            response = new MockHttpServletResponse();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MetricsRegistry registry = new MetricsRegistry();
+        histogram = registry.histogram("benchmark_seconds");
+        interceptor = new EndpointMetricsInterceptor(registry);
+    }
+
+    @Benchmark
+    public void recordHistogram() {
+        histogram.record(ThreadLocalRandom.current().nextLong(50_000_000));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordHistogramContended() {
+        histogram.record(ThreadLocalRandom.current().nextLong(50_000_000));
+    }
+
+    @Benchmark
+    public void interceptorRoundTrip(Exchange exchange) {
+        interceptor.preHandle(exchange.request, exchange.response, this);
+        interceptor.afterCompletion(exchange.request, exchange.response, this, null);
+    }
+}
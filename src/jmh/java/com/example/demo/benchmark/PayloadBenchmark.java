@@ -0,0 +1,108 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.BookFieldsPage;
+import com.example.demo.dto.BookPage;
+import com.example.demo.dto.BookRows;
+import com.example.demo.model.Book;
+import com.example.demo.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Taille et coût d'écriture d'une page de MAX_PAGE_SIZE livres selon le format :
+ * entités complètes (fullPage), projection id,title,isbn,quantity en objets
+ * (fieldsPage) ou en lignes (rowsPage), chacun brut ou compressé en gzip.
+ * Les tailles en octets sont affichées au démarrage de chaque fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadBenchmark {
+
+    private static final List<String> FIELDS = BookService.parseFields("title,isbn,quantity");
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private BookPage fullPage;
+    private BookFieldsPage fieldsPage;
+    private BookRows rowsPage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Book> books = new ArrayList<>(BookService.MAX_PAGE_SIZE);
+        List<Object[]> rows = new ArrayList<>(BookService.MAX_PAGE_SIZE);
+        for (int i = 0; i < BookService.MAX_PAGE_SIZE; i++) {
+            Book book = SyntheticCatalog.book(i);
+            book.setId((long) i + 1);
+            books.add(book);
+            rows.add(new Object[] {book.getId(), book.getTitle(), book.getIsbn(), book.getQuantity()});
+        }
+        fullPage = new BookPage(books, (long) BookService.MAX_PAGE_SIZE);
+        rowsPage = new BookRows(FIELDS, rows, (long) BookService.MAX_PAGE_SIZE);
+        fieldsPage = BookFieldsPage.of(rowsPage);
+
+        System.out.printf("%nPayload of %d books (bytes): full %d / %d gzip, fields %d / %d gzip, rows %d / %d gzip%n",
+                BookService.MAX_PAGE_SIZE,
+                fullPage().length, fullPageGzip().length,
+                fieldsPage().length, fieldsPageGzip().length,
+                rowsPage().length, rowsPageGzip().length);
+    }
+
+    @Benchmark
+    public byte[] fullPage() throws IOException {
+        return objectMapper.writeValueAsBytes(fullPage);
+    }
+
+    @Benchmark
+    public byte[] fullPageGzip() throws IOException {
+        return gzip(fullPage);
+    }
+
+    @Benchmark
+    public byte[] fieldsPage() throws IOException {
+        return objectMapper.writeValueAsBytes(fieldsPage);
+    }
+
+    @Benchmark
+    public byte[] fieldsPageGzip() throws IOException {
+        return gzip(fieldsPage);
+    }
+
+    @Benchmark
+    public byte[] rowsPage() throws IOException {
+        return objectMapper.writeValueAsBytes(rowsPage);
+    }
+
+    @Benchmark
+    public byte[] rowsPageGzip() throws IOException {
+        return gzip(rowsPage);
+    }
+
+    private byte[] gzip(Object page) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, page);
+        }
+        return bytes.toByteArray();
+    }
+}
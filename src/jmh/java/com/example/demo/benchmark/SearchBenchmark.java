@@ -0,0 +1,71 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.Book;
+import com.example.demo.search.BookSearchIndex;
+import com.example.demo.search.BookSearchService;
+import com.example.demo.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche plein texte sur un catalogue synthétique de 10 000 à 1 000 000 livres.
+ *
+ * searchByTitle est la requête historique (LIKE '%x%', parcours complet de la
+ * table), searchIndex la recherche par l'index inversé suivie de la lecture des
+ * livres trouvés, searchIndexOnly l'index seul. Les trois cherchent le même mot
+ * tiré au hasard. La mémoire de l'index (BookSearchIndex.memoryBytes) est
+ * affichée au début de chaque essai.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    /** Affiche la taille de l'index une fois le catalogue chargé */
+    @State(Scope.Benchmark)
+    public static class IndexFootprint {
+
+        @Setup(Level.Trial)
+        public void report(CatalogState state) {
+            BookSearchIndex index = state.bean(BookSearchIndex.class);
+            long bytes = index.memoryBytes();
+            System.out.printf("%nSearch index: %d books, %d MB, %.1f bytes/book%n",
+                    index.size(), bytes >> 20, (double) bytes / index.size());
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Book> searchByTitle(CatalogState state) {
+        return state.bean(BookService.class).searchByTitle(randomWord());
+    }
+
+    @Benchmark
+    public List<Book> searchIndex(CatalogState state, IndexFootprint footprint) {
+        return state.bean(BookSearchService.class).search(randomWord(), BookSearchService.DEFAULT_LIMIT, false);
+    }
+
+    @Benchmark
+    public List<BookSearchIndex.Hit> searchIndexOnly(CatalogState state, IndexFootprint footprint) {
+        return state.bean(BookSearchIndex.class).search(randomWord(), BookSearchService.DEFAULT_LIMIT, false);
+    }
+
+    private static String randomWord() {
+        return SyntheticCatalog.WORDS[ThreadLocalRandom.current().nextInt(SyntheticCatalog.WORDS.length)];
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.Book;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Générateur déterministe de catalogues synthétiques pour les benchmarks.
+ * Le livre d'indice i a toujours le même titre, le même auteur et un ISBN-13
+ * valide dérivé de i, ce qui permet de retrouver n'importe quel livre sans
+ * garder le catalogue en mémoire.
+ */
+public final class SyntheticCatalog {
+
+    static final String[] WORDS = {
+        "histoire", "nuit", "mer", "voyage", "jardin", "ombre", "lumiere", "guerre", "paix", "ville",
+        "montagne", "secret", "memoire", "hiver", "ete", "roi", "reine", "enfant", "maison", "chemin",
+        "silence", "etoile", "foret", "riviere", "temps", "coeur", "feu", "vent", "pierre", "miroir",
+        "dragon", "empire", "science", "algorithme", "donnees", "reseau", "systeme", "java", "printemps", "automne"
+    };
+
+    private static final String[] FIRST_NAMES = {
+        "Victor", "Marguerite", "Albert", "Simone", "Emile", "George", "Marcel", "Colette", "Jules", "Anne",
+        "Honore", "Annie", "Gustave", "Nathalie", "Romain", "Marie", "Alexandre", "Amelie", "Louis", "Claire"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "Hugo", "Duras", "Camus", "Beauvoir", "Zola", "Sand", "Proust", "Ernaux", "Verne", "Hebert",
+        "Balzac", "Leclerc", "Flaubert", "Sarraute", "Gary", "NDiaye", "Dumas", "Nothomb", "Aragon", "Gallay"
+    };
+
+    private SyntheticCatalog() {
+    }
+
+    /**
+     * @param index Indice du livre, entre 0 et 999 999 999
+     * @return Un ISBN-13 valide (préfixe 978)
+     */
+    public static String isbn(long index) {
+        String body = "978" + String.format("%09d", index);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (body.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+
+    public static String title(long index) {
+        return capitalize(word(index, 1)) + " " + word(index, 2) + " " + word(index, 3);
+    }
+
+    public static String author(long index) {
+        int h = (int) (mix(index, 7) % 400);
+        return FIRST_NAMES[h % FIRST_NAMES.length] + " " + LAST_NAMES[h / FIRST_NAMES.length % LAST_NAMES.length];
+    }
+
+    public static String word(long index, int salt) {
+        return WORDS[(int) (mix(index, salt) % WORDS.length)];
+    }
+
+    public static Book book(long index) {
+        Book book = new Book();
+        book.setTitle(title(index));
+        book.setAuthor(author(index));
+        book.setIsbn(isbn(index));
+        book.setDescription("Un livre sur " + word(index, 4) + " et " + word(index, 5));
+        book.setQuantity((int) (mix(index, 6) % 6));
+        book.setAvailable(book.getQuantity() > 0);
+        return book;
+    }
+
+    /**
+     * @param size Nombre de livres
+     * @return Un flux NDJSON généré à la volée, sans matérialiser le catalogue
+     */
+    public static InputStream ndjson(int size) {
+        return new InputStream() {
+            private long next;
+            private byte[] line = new byte[0];
+            private int position;
+
+            @Override
+            public int read() {
+                if (position == line.length) {
+                    if (next == size) {
+                        return -1;
+                    }
+                    line = toJson(next++).getBytes(StandardCharsets.UTF_8);
+                    position = 0;
+                }
+                return line[position++] & 0xFF;
+            }
+        };
+    }
+
+    private static String toJson(long index) {
+        Book book = book(index);
+        return "{\"title\":\"" + book.getTitle() + "\",\"author\":\"" + book.getAuthor()
+                + "\",\"isbn\":\"" + book.getIsbn() + "\",\"description\":\"" + book.getDescription()
+                + "\",\"quantity\":" + book.getQuantity() + "}\n";
+    }
+
+    private static long mix(long index, int salt) {
+        long z = index * 0x9E3779B97F4A7C15L + salt;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (z ^ (z >>> 31)) & Long.MAX_VALUE;
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filtre placé dans la chaîne de Spring Security avant l'authentification HTTP Basic :
+ * limite par adresse IP (AdmissionControl.admitAddress), pour qu'un client qui envoie
+ * des identifiants erronés soit arrêté avant de déclencher une vérification BCrypt.
+ * Les limites par utilisateur restent après l'autorisation (AdmissionControlFilter).
+ * Volontairement pas un bean, pour ne pas être enregistré une seconde fois comme filtre de servlet.
+ */
+public class AddressAdmissionFilter extends OncePerRequestFilter {
+
+    private final AdmissionControl admissionControl;
+
+    public AddressAdmissionFilter(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdmissionControl.Rejection rejection = admissionControl.admitAddress(request);
+        if (rejection != null) {
+            AdmissionControlFilter.reject(response, rejection);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
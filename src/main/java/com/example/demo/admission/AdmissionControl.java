@@ -0,0 +1,171 @@
+package com.example.demo.admission;
+
+import com.example.demo.metrics.MetricsRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contrôle d'admission des requêtes : limite de débit par client (utilisateur
+ * authentifié, sinon adresse IP) pour chaque règle configurée, et délestage des
+ * requêtes limitées quand l'attente au pool de connexions dépasse le seuil.
+ * Les requêtes qui ne correspondent à aucune règle ne sont pas refusées par ces règles.
+ *
+ * Avant l'authentification, une limite par adresse IP s'applique à toutes les
+ * requêtes (admitAddress) : des identifiants erronés, ou différents à chaque
+ * requête, ne sont jamais dans le cache d'authentification et coûtent chacun
+ * une vérification BCrypt.
+ */
+@Component
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionControl {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+
+    /** Nom de la limite par adresse IP dans les refus et les métriques */
+    public static final String ADDRESS_RULE = "address";
+
+    /**
+     * Refus d'une requête
+     * @param status 429 (débit dépassé) ou 503 (délestage)
+     * @param retryAfterSeconds Valeur de l'en-tête Retry-After
+     * @param rule Règle appliquée
+     */
+    public record Rejection(int status, long retryAfterSeconds, String rule) {
+    }
+
+    private record CompiledRule(String name, String path, List<String> methods, long intervalNanos, int burst,
+                                LongAdder limited, LongAdder shed) {
+    }
+
+    private final AdmissionProperties properties;
+    private final PoolWaitMonitor poolWaitMonitor;
+    private final List<CompiledRule> rules;
+    private final long addressIntervalNanos;
+    private final int addressBurst;
+    private final LongAdder addressLimited;
+    private final RateLimiter limiter = new RateLimiter();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ScheduledExecutorService purger;
+
+    @Autowired
+    public AdmissionControl(AdmissionProperties properties, PoolWaitMonitor poolWaitMonitor, MetricsRegistry metrics) {
+        this.properties = properties;
+        this.poolWaitMonitor = poolWaitMonitor;
+        this.rules = properties.getRules().stream()
+                .map(rule -> new CompiledRule(rule.getName(), rule.getPath(),
+                        rule.getMethods().stream().map(method -> method.toUpperCase(Locale.ROOT)).toList(),
+                        rule.getPeriod().toNanos() / Math.max(1, rule.getPermits()),
+                        Math.max(1, rule.getBurst()),
+                        metrics.counter("admission_rejected_total", "rule", rule.getName(), "reason", "rate_limit"),
+                        metrics.counter("admission_rejected_total", "rule", rule.getName(), "reason", "shed")))
+                .toList();
+        AdmissionProperties.AddressLimit address = properties.getAddress();
+        this.addressIntervalNanos = address.getPermits() <= 0 ? 0 : address.getPeriod().toNanos() / address.getPermits();
+        this.addressBurst = Math.max(1, address.getBurst());
+        this.addressLimited = metrics.counter("admission_rejected_total", "rule", ADDRESS_RULE, "reason", "rate_limit");
+        metrics.gauge("admission_tracked_clients", limiter::size);
+        metrics.gauge("admission_pool_wait_seconds", () -> poolWaitMonitor.averageNanos() / 1e9);
+        this.purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "admission-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(limiter::purge, 10, 10, TimeUnit.SECONDS);
+        log.info("Admission control {} with {} rule(s), per-address limit {}", properties.isEnabled() ? "enabled" : "disabled",
+                rules.size(), addressIntervalNanos == 0 ? "off" : address.getPermits() + " per " + address.getPeriod());
+    }
+
+    /**
+     * Limite par adresse IP, à vérifier avant l'authentification
+     * @param request Requête entrante, pas encore authentifiée
+     * @return null si la requête est admise, sinon la raison du refus
+     */
+    public Rejection admitAddress(HttpServletRequest request) {
+        if (!properties.isEnabled() || addressIntervalNanos == 0) {
+            return null;
+        }
+        // Les clés des règles contiennent toujours "ip:" ou "user:" : pas de collision avec une règle nommée address
+        long wait = acquire(ADDRESS_RULE + '|' + request.getRemoteAddr(), addressIntervalNanos, addressBurst);
+        if (wait == 0) {
+            return null;
+        }
+        addressLimited.increment();
+        return new Rejection(429, retryAfterSeconds(wait), ADDRESS_RULE);
+    }
+
+    /**
+     * @param request Requête entrante
+     * @param authentication Authentification établie par la chaîne de sécurité, éventuellement anonyme
+     * @return null si la requête est admise, sinon la raison du refus
+     */
+    public Rejection admit(HttpServletRequest request, Authentication authentication) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        CompiledRule rule = match(request);
+        if (rule == null) {
+            return null;
+        }
+        if (poolWaitMonitor.averageNanos() > properties.getShedPoolWait().toNanos()) {
+            rule.shed().increment();
+            return new Rejection(503, 1, rule.name());
+        }
+        long wait = acquire(rule.name() + '|' + client(request, authentication), rule.intervalNanos(), rule.burst());
+        if (wait == 0) {
+            return null;
+        }
+        rule.limited().increment();
+        return new Rejection(429, retryAfterSeconds(wait), rule.name());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+    }
+
+    private long acquire(String key, long intervalNanos, int burst) {
+        long wait = limiter.acquire(key, intervalNanos, burst);
+        if (limiter.size() > properties.getMaxClients()) {
+            limiter.purge();
+        }
+        return wait;
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+    }
+
+    private CompiledRule match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (CompiledRule rule : rules) {
+            if ((rule.methods().isEmpty() || rule.methods().contains(request.getMethod()))
+                    && pathMatcher.match(rule.path(), path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static String client(HttpServletRequest request, Authentication authentication) {
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filtre placé dans la chaîne de Spring Security après l'autorisation :
+ * le client est déjà identifié et les requêtes refusées (401, 403) ne consomment pas de jeton.
+ * La limite par adresse IP, elle, s'applique avant l'authentification (AddressAdmissionFilter).
+ * Volontairement pas un bean, pour ne pas être enregistré une seconde fois comme filtre de servlet.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionControlFilter(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdmissionControl.Rejection rejection =
+                admissionControl.admit(request, SecurityContextHolder.getContext().getAuthentication());
+        if (rejection != null) {
+            reject(response, rejection);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    static void reject(HttpServletResponse response, AdmissionControl.Rejection rejection) {
+        response.setStatus(rejection.status());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(rejection.retryAfterSeconds()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réglages du contrôle d'admission (préfixe library.admission), par exemple :
+ * library.admission.rules[0].name=search
+ * library.admission.rules[0].path=/api/books/search
+ * library.admission.rules[0].methods=GET
+ * library.admission.rules[0].permits=10
+ * library.admission.rules[0].period=1s
+ * library.admission.rules[0].burst=20
+ * library.admission.address.permits=50
+ */
+@Data
+@ConfigurationProperties("library.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /** Attente moyenne au pool de connexions au-delà de laquelle les requêtes limitées sont refusées (503) */
+    private Duration shedPoolWait = Duration.ofMillis(250);
+
+    /** Nombre de clients suivis au-delà duquel les seaux pleins sont purgés immédiatement */
+    private int maxClients = 100_000;
+
+    /** Règles évaluées dans l'ordre, la première qui correspond s'applique */
+    private List<Rule> rules = new ArrayList<>();
+
+    /** Limite par adresse IP, vérifiée avant l'authentification sur toutes les requêtes */
+    private AddressLimit address = new AddressLimit();
+
+    @Data
+    public static class Rule {
+
+        private String name;
+
+        /** Motif de chemin, par exemple /api/books/search ou /api/** */
+        private String path;
+
+        /** Méthodes HTTP concernées, toutes si vide */
+        private List<String> methods = new ArrayList<>();
+
+        /** Requêtes admises par période et par client */
+        private int permits = 10;
+
+        private Duration period = Duration.ofSeconds(1);
+
+        /** Requêtes acceptées d'affilée après une période d'inactivité */
+        private int burst = 10;
+    }
+
+    @Data
+    public static class AddressLimit {
+
+        /** Requêtes admises par période et par adresse, 0 pour ne pas limiter */
+        private int permits = 0;
+
+        private Duration period = Duration.ofSeconds(1);
+
+        /** Requêtes acceptées d'affilée après une période d'inactivité */
+        private int burst = 100;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Moyenne mobile exponentielle du temps d'attente d'une connexion au pool,
+ * alimentée par PoolMetricsTrackerFactory. Sans nouvelle mesure, la moyenne
+ * décroît avec le temps : un pool redevenu calme n'est pas considéré saturé
+ * simplement parce que plus aucune requête ne l'a sollicité.
+ */
+@Component
+public class PoolWaitMonitor {
+
+    /** Poids maximal d'une mesure dans la moyenne */
+    private static final double MAX_SAMPLE_WEIGHT = 0.2;
+
+    private final double decayNanos;
+    private double average;
+    private long lastSample = System.nanoTime();
+
+    public PoolWaitMonitor(@Value("${library.admission.pool-wait-decay:1s}") Duration decay) {
+        this.decayNanos = decay.toNanos();
+    }
+
+    /**
+     * @param waitNanos Temps d'obtention d'une connexion
+     */
+    public synchronized void record(long waitNanos) {
+        long now = System.nanoTime();
+        double decay = Math.exp(-(now - lastSample) / decayNanos);
+        if (1 - decay <= MAX_SAMPLE_WEIGHT) {
+            average = average * decay + waitNanos * (1 - decay);
+        } else {
+            // Après un long silence, une attente isolée ne suffit pas à déclencher le délestage
+            average = average * decay * (1 - MAX_SAMPLE_WEIGHT) + waitNanos * MAX_SAMPLE_WEIGHT;
+        }
+        lastSample = now;
+    }
+
+    /**
+     * @return L'attente moyenne récente, en nanosecondes
+     */
+    public synchronized long averageNanos() {
+        return (long) (average * Math.exp(-(System.nanoTime() - lastSample) / decayNanos));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limiteur de débit par clé, sans verrou : algorithme GCRA, équivalent à un seau
+ * à jetons mais représenté par un seul AtomicLong par clé (l'instant théorique
+ * d'arrivée de la prochaine requête), mis à jour par compareAndSet.
+ *
+ * Un seau plein n'a pas besoin d'être mémorisé : purge() retire les clés dont
+ * l'instant théorique est dépassé, ce qui borne la mémoire au nombre de clients actifs.
+ */
+public class RateLimiter {
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Consomme un jeton pour la clé
+     * @param key Client et règle concernés
+     * @param intervalNanos Intervalle entre deux requêtes au débit nominal
+     * @param burst Nombre de requêtes acceptées d'affilée sur un seau plein
+     * @return 0 si la requête est admise, sinon le délai en nanosecondes avant qu'elle le soit
+     */
+    public long acquire(String key, long intervalNanos, int burst) {
+        long now = System.nanoTime();
+        AtomicLong theoreticalArrival = buckets.get(key);
+        if (theoreticalArrival == null) {
+            theoreticalArrival = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        long tolerance = intervalNanos * burst;
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /** Oublie les clés dont le seau est de nouveau plein */
+    public void purge() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(theoreticalArrival -> theoreticalArrival.get() - now <= 0);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.demo.audit;
+
+import com.example.demo.dto.AuditEntry;
+import com.example.demo.dto.AuditPage;
+import com.example.demo.event.BookChangedEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.model.Book;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Journal d'audit des modifications du catalogue : qui, quand, quel livre,
+ * quantité avant et après.
+ *
+ * Les écritures ne touchent ni la base ni le disque : chaque modification validée
+ * (BookChangedEvent, après commit) est déposée dans une file sans verrou
+ * (AuditRingBuffer) de capacity entrées. Un thread unique la vide par lots de
+ * batchSize, numérote les entrées et les ajoute au journal segmenté
+ * (AuditSegmentLog), puis, si library.audit.jdbc.enabled, les insère dans la
+ * table audit_event en un lot JDBC.
+ *
+ * File pleine (écrivain en retard ou disque bloqué) : avec Overflow.BLOCK, la
+ * requête attend au plus blockTimeout qu'une place se libère ; avec Overflow.DROP,
+ * ou passé ce délai, l'entrée est perdue et comptée dans audit_dropped_total.
+ * Un arrêt normal écrit toutes les entrées en attente ; un arrêt brutal perd au
+ * plus le contenu de la file.
+ */
+@Component
+public class AuditLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    /** Utilisateur des modifications faites hors requête (tâches de fond) */
+    public static final String SYSTEM = "system";
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO audit_event "
+            + "(sequence, at, principal, action, book_id, quantity_before, quantity_after) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final long BLOCK_PAUSE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long DROP_WARNING_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /** Politique appliquée quand la file est pleine */
+    public enum Overflow {
+        BLOCK,
+        DROP
+    }
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Overflow overflow;
+    private final long blockTimeoutNanos;
+    private final boolean jdbcEnabled;
+    private final Path directory;
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditRingBuffer<AuditEntry> queue;
+    private final AuditSegmentLog segmentLog;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private long sequence;
+
+    private final LongAdder enqueued;
+    private final LongAdder dropped;
+    private final LongAdder written;
+    private final LongAdder failures;
+    private final LatencyHistogram batchLatency;
+    private final AtomicLong lastDropWarning = new AtomicLong(System.nanoTime() - DROP_WARNING_INTERVAL_NANOS);
+
+    public AuditLog(@Value("${library.audit.enabled:true}") boolean enabled,
+                    @Value("${library.audit.directory:audit}") Path directory,
+                    @Value("${library.audit.capacity:65536}") int capacity,
+                    @Value("${library.audit.batch-size:1000}") int batchSize,
+                    @Value("${library.audit.flush-interval:100ms}") Duration flushInterval,
+                    @Value("${library.audit.overflow:BLOCK}") Overflow overflow,
+                    @Value("${library.audit.block-timeout:50ms}") Duration blockTimeout,
+                    @Value("${library.audit.segment-size:64MB}") DataSize segmentSize,
+                    @Value("${library.audit.max-segments:100}") int maxSegments,
+                    @Value("${library.audit.fsync:false}") boolean fsync,
+                    @Value("${library.audit.jdbc.enabled:false}") boolean jdbcEnabled,
+                    ObjectMapper objectMapper,
+                    JdbcTemplate jdbcTemplate,
+                    MetricsRegistry metrics) throws IOException {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflow = overflow;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.jdbcEnabled = jdbcEnabled;
+        this.directory = directory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new AuditRingBuffer<>(capacity);
+        this.enqueued = metrics.counter("audit_enqueued_total");
+        this.dropped = metrics.counter("audit_dropped_total");
+        this.written = metrics.counter("audit_written_total");
+        this.failures = metrics.counter("audit_write_failures_total");
+        this.batchLatency = metrics.histogram("audit_batch_seconds");
+        metrics.gauge("audit_queue_depth", queue::size);
+        if (!enabled) {
+            this.segmentLog = null;
+            this.writer = null;
+            return;
+        }
+        this.segmentLog = new AuditSegmentLog(directory, segmentSize.toBytes(), maxSegments, fsync, objectMapper);
+        this.sequence = segmentLog.lastSequence();
+        this.writer = new Thread(this::run, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        AuditEntry.Action action = switch (event.type()) {
+            case SAVED -> AuditEntry.Action.SAVED;
+            case DELETED -> AuditEntry.Action.DELETED;
+            case QUANTITY_CHANGED -> AuditEntry.Action.QUANTITY_CHANGED;
+        };
+        Integer after = event.book() != null ? event.book().getQuantity() : null;
+        record(action, event.bookId(), event.previousQuantity(), after);
+    }
+
+    /** Une entrée par livre importé : l'audit d'un livre doit montrer sa création */
+    @TransactionalEventListener
+    public void onBooksImported(BooksImportedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        String principal = currentPrincipal();
+        for (Book book : event.books()) {
+            enqueue(new AuditEntry(0, now, principal, AuditEntry.Action.SAVED, book.getId(), null, book.getQuantity()));
+        }
+    }
+
+    /**
+     * Consigne une modification faite par l'utilisateur courant
+     * @return false si l'entrée a été perdue (file pleine)
+     */
+    public boolean record(AuditEntry.Action action, Long bookId, Integer quantityBefore, Integer quantityAfter) {
+        if (!enabled) {
+            return true;
+        }
+        return enqueue(new AuditEntry(0, Instant.now(), currentPrincipal(), action, bookId, quantityBefore,
+                quantityAfter));
+    }
+
+    /**
+     * Entrées du journal par curseur sur le numéro d'ordre
+     * @param bookId Livre recherché, null pour tous
+     * @param principal Utilisateur recherché, null pour tous
+     * @param after Dernier numéro d'ordre déjà reçu, null pour commencer au début
+     * @param size Taille de page, ramenée entre 1 et MAX_PAGE_SIZE
+     */
+    public AuditPage find(Long bookId, String principal, Long after, int size) {
+        if (!enabled) {
+            return new AuditPage(List.of(), null);
+        }
+        try {
+            return segmentLog.read(after != null ? after : 0, bookId, principal,
+                    Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** @return Le nombre d'entrées en attente d'écriture */
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        segmentLog.close();
+    }
+
+    private boolean enqueue(AuditEntry entry) {
+        if (queue.offer(entry)) {
+            enqueued.increment();
+            return true;
+        }
+        if (overflow == Overflow.BLOCK) {
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            do {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(BLOCK_PAUSE_NANOS);
+                if (queue.offer(entry)) {
+                    enqueued.increment();
+                    return true;
+                }
+            } while (System.nanoTime() - deadline < 0);
+        }
+        dropped.increment();
+        long last = lastDropWarning.get();
+        long now = System.nanoTime();
+        if (now - last >= DROP_WARNING_INTERVAL_NANOS && lastDropWarning.compareAndSet(last, now)) {
+            log.warn("Audit queue full ({} entries), {} entries dropped so far", queue.capacity(), dropped.sum());
+        }
+        return false;
+    }
+
+    private void run() {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        while (true) {
+            queue.drain(entry -> batch.add(entry.withSequence(++sequence)), batchSize);
+            if (batch.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(flushIntervalNanos);
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<AuditEntry> batch) {
+        long start = System.nanoTime();
+        try {
+            segmentLog.append(batch);
+            written.add(batch.size());
+        } catch (IOException | RuntimeException e) {
+            failures.add(batch.size());
+            log.error("Cannot write {} audit entries to {}: {}", batch.size(), directory, e.toString());
+        }
+        if (jdbcEnabled) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, entry) -> {
+                    statement.setLong(1, entry.sequence());
+                    statement.setTimestamp(2, Timestamp.from(entry.at()));
+                    statement.setString(3, entry.principal());
+                    statement.setString(4, entry.action().name());
+                    statement.setLong(5, entry.bookId());
+                    statement.setObject(6, entry.quantityBefore(), Types.INTEGER);
+                    statement.setObject(7, entry.quantityAfter(), Types.INTEGER);
+                });
+            } catch (RuntimeException e) {
+                failures.add(batch.size());
+                log.warn("Cannot insert {} audit entries into audit_event: {}", batch.size(), e.toString());
+            }
+        }
+        batchLatency.record(System.nanoTime() - start);
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : SYSTEM;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * File bornée sans verrou, plusieurs producteurs et plusieurs consommateurs
+ * (algorithme de D. Vyukov). Chaque case porte un numéro de séquence qui indique
+ * si elle est libre pour le tour courant des producteurs ou pleine pour celui des
+ * consommateurs : un dépôt coûte un compareAndSet sur tail et une écriture
+ * ordonnée (setRelease), sans allocation.
+ * @param <E> Type des éléments
+ */
+final class AuditRingBuffer<E> {
+
+    private final int mask;
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity Capacité, arrondie à la puissance de 2 supérieure
+     */
+    AuditRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.items = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false si la file est pleine
+     */
+    boolean offer(E item) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long available = sequences.getAcquire(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items[index] = item;
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+            } else if (available < 0) {
+                return false;
+            }
+            // available > 0 : un autre producteur a pris cette case, relire tail
+        }
+    }
+
+    /**
+     * @return Le plus ancien élément, null si la file est vide
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long filled = sequences.getAcquire(index) - (position + 1);
+            if (filled == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E item = (E) items[index];
+                    items[index] = null;
+                    sequences.setRelease(index, position + mask + 1);
+                    return item;
+                }
+            } else if (filled < 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Retire au plus max éléments, dans l'ordre de dépôt
+     * @return Le nombre d'éléments transmis
+     */
+    int drain(Consumer<? super E> consumer, int max) {
+        int count = 0;
+        E item;
+        while (count < max && (item = poll()) != null) {
+            consumer.accept(item);
+            count++;
+        }
+        return count;
+    }
+
+    /** @return Le nombre approximatif d'éléments en attente */
+    int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head.get(), mask + 1));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.demo.audit;
+
+import com.example.demo.dto.AuditEntry;
+import com.example.demo.dto.AuditPage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Journal d'audit sur disque : fichiers JSON Lines en ajout seul, découpés en
+ * segments. Un segment est nommé d'après le numéro d'ordre de sa première entrée
+ * (audit-00000000000000000001.jsonl) et fermé dès qu'il dépasse segmentBytes ;
+ * seuls les maxSegments plus récents sont conservés.
+ *
+ * Un seul thread écrit (AuditLog). Les lectures parcourent les segments sans
+ * verrou : une dernière ligne incomplète, en cours d'écriture, est ignorée.
+ */
+final class AuditSegmentLog implements AutoCloseable {
+
+    static final String PREFIX = "audit-";
+    static final String SUFFIX = ".jsonl";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxSegments;
+    private final boolean fsync;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final ByteArrayOutputStream encoded = new ByteArrayOutputStream(64 * 1024);
+
+    private FileChannel current;
+    private long lastSequence;
+
+    AuditSegmentLog(Path directory, long segmentBytes, int maxSegments, boolean fsync, ObjectMapper objectMapper)
+            throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.fsync = fsync;
+        this.writer = objectMapper.writerFor(AuditEntry.class);
+        this.reader = objectMapper.readerFor(AuditEntry.class);
+        Files.createDirectories(directory);
+        List<Path> segments = segments();
+        if (!segments.isEmpty()) {
+            Path last = segments.get(segments.size() - 1);
+            lastSequence = Math.max(firstSequence(last) - 1, lastSequence(last));
+            current = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            current.position(current.size());
+            terminateLastLine();
+        }
+    }
+
+    /** @return Le numéro d'ordre de la dernière entrée écrite, 0 pour un journal vide */
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Ajoute des entrées en une seule écriture
+     * @param entries Entrées numérotées, à la suite de lastSequence
+     */
+    void append(List<AuditEntry> entries) throws IOException {
+        if (current == null || current.size() >= segmentBytes) {
+            rotate(entries.get(0).sequence());
+        }
+        encoded.reset();
+        for (AuditEntry entry : entries) {
+            writer.writeValue(encoded, entry);
+            encoded.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(encoded.toByteArray());
+        while (buffer.hasRemaining()) {
+            current.write(buffer);
+        }
+        if (fsync) {
+            current.force(false);
+        }
+        lastSequence = entries.get(entries.size() - 1).sequence();
+    }
+
+    /**
+     * Entrées suivant un numéro d'ordre, filtrées
+     * @param after Dernier numéro d'ordre déjà reçu
+     * @param bookId Livre recherché, null pour tous
+     * @param principal Utilisateur recherché, null pour tous
+     * @param size Nombre maximal d'entrées
+     */
+    AuditPage read(long after, Long bookId, String principal, int size) throws IOException {
+        List<Path> segments = segments();
+        // Premier segment à lire : le dernier qui commence au plus à after + 1
+        int first = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            if (firstSequence(segments.get(i)) <= after + 1) {
+                first = i;
+            }
+        }
+        List<AuditEntry> content = new ArrayList<>(size + 1);
+        for (Path segment : segments.subList(first, segments.size())) {
+            if (!Files.exists(segment)) {
+                continue;
+            }
+            try (BufferedReader lines = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    AuditEntry entry = parse(line);
+                    if (entry == null || entry.sequence() <= after
+                            || (bookId != null && !bookId.equals(entry.bookId()))
+                            || (principal != null && !principal.equals(entry.principal()))) {
+                        continue;
+                    }
+                    content.add(entry);
+                    if (content.size() > size) {
+                        List<AuditEntry> page = content.subList(0, size);
+                        return new AuditPage(List.copyOf(page), page.get(size - 1).sequence());
+                    }
+                }
+            }
+        }
+        return new AuditPage(content, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (current != null) {
+            current.force(false);
+            current.close();
+        }
+    }
+
+    private void rotate(long firstSequence) throws IOException {
+        if (current != null) {
+            current.force(false);
+            current.close();
+        }
+        Path segment = directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        current = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        if (maxSegments > 0) {
+            List<Path> segments = segments();
+            for (Path old : segments.subList(0, Math.max(0, segments.size() - maxSegments))) {
+                Files.deleteIfExists(old);
+            }
+        }
+    }
+
+    /** Après un arrêt brutal, isole la ligne tronquée de celles qui vont suivre */
+    private void terminateLastLine() throws IOException {
+        long size = current.size();
+        ByteBuffer last = ByteBuffer.allocate(1);
+        if (size > 0 && current.read(last, size - 1) == 1 && last.get(0) != '\n') {
+            current.write(ByteBuffer.wrap(new byte[] {'\n'}));
+        }
+    }
+
+    private AuditEntry parse(String line) {
+        if (line.isEmpty()) {
+            return null;
+        }
+        try {
+            return reader.readValue(line);
+        } catch (JsonProcessingException e) {
+            // Ligne en cours d'écriture, ou tronquée par un arrêt brutal
+            return null;
+        }
+    }
+
+    /** @return Les segments, du plus ancien au plus récent */
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /** Numéro d'ordre de la dernière ligne complète, lue depuis la fin du fichier */
+    private long lastSequence(Path segment) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "r")) {
+            long end = file.length();
+            int window = 4096;
+            while (end > 0) {
+                long start = Math.max(0, end - window);
+                byte[] bytes = new byte[(int) (end - start)];
+                file.seek(start);
+                file.readFully(bytes);
+                String text = new String(bytes, StandardCharsets.UTF_8);
+                String[] lines = text.split("\n");
+                // La première ligne de la fenêtre peut être coupée, sauf en début de fichier
+                for (int i = lines.length - 1; i >= (start == 0 ? 0 : 1); i--) {
+                    AuditEntry entry = parse(lines[i]);
+                    if (entry != null) {
+                        return entry.sequence();
+                    }
+                }
+                if (start == 0) {
+                    break;
+                }
+                window *= 2;
+            }
+            return 0;
+        }
+    }
+}
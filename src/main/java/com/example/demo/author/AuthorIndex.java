@@ -0,0 +1,173 @@
+package com.example.demo.author;
+
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.dto.AuthorPage;
+import com.example.demo.dto.AuthorSummary;
+import com.example.demo.event.BookChangedEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.model.Book;
+import com.example.demo.service.CatalogProjection;
+import com.example.demo.service.ProjectionVersions;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index trié des auteurs du catalogue, par clé normalisée.
+ *
+ * L'autocomplétion lit la plage [préfixe, préfixe + Character.MAX_VALUE) du
+ * dictionnaire trié et la liste paginée des auteurs lit la suite d'une clé :
+ * les deux sont servies sans verrou et sans requête. Le nombre de livres par
+ * auteur est tenu à jour à partir des BookChangedEvent, dans l'ordre des
+ * versions de chaque livre (voir ProjectionVersions).
+ */
+@Component
+public class AuthorIndex implements CatalogProjection {
+
+    private record Entry(String name, long books) {
+    }
+
+    private final NavigableMap<String, Entry> authors = new ConcurrentSkipListMap<>();
+    /** Clé d'auteur de chaque livre, pour retirer l'ancien auteur lors d'une modification */
+    private final Map<Long, String> bookAuthors = new HashMap<>();
+
+    /** Dernière version appliquée par livre : les états reçus en retard sont ignorés */
+    private final ProjectionVersions versions = new ProjectionVersions();
+    private volatile boolean ready;
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized void update(Book book) {
+        if (!versions.advance(book)) {
+            return;
+        }
+        removeLocked(book.getId());
+        addLocked(book);
+    }
+
+    /**
+     * Enregistre un lot de livres importés, sous un seul verrou
+     * @param books Les livres créés
+     */
+    public synchronized void updateAll(List<Book> books) {
+        books.forEach(this::update);
+    }
+
+    public synchronized void remove(Long bookId) {
+        versions.delete(bookId);
+        removeLocked(bookId);
+    }
+
+    @Override
+    public synchronized void beginRebuild() {
+        authors.clear();
+        bookAuthors.clear();
+        versions.clear();
+        ready = false;
+    }
+
+    @Override
+    public synchronized void load(Book book) {
+        update(book);
+    }
+
+    @Override
+    public synchronized void endRebuild() {
+        ready = true;
+    }
+
+    /**
+     * Autocomplétion sur le nom d'auteur, insensible à la casse et aux accents
+     * @param prefix Début du nom saisi
+     * @param limit Nombre maximal de suggestions
+     * @return Les auteurs dont le nom commence par le préfixe, par ordre alphabétique
+     */
+    public List<AuthorSummary> complete(String prefix, int limit) {
+        String key = AuthorNames.key(prefix);
+        List<AuthorSummary> result = new ArrayList<>(limit);
+        if (key == null || key.isEmpty()) {
+            return result;
+        }
+        for (Map.Entry<String, Entry> entry : authors.subMap(key, true, key + Character.MAX_VALUE, false).entrySet()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(new AuthorSummary(entry.getValue().name(), entry.getKey(), entry.getValue().books()));
+        }
+        return result;
+    }
+
+    /**
+     * @param afterKey Clé du dernier auteur reçu (null pour la première page)
+     * @param size Nombre maximal d'auteurs
+     * @return La page d'auteurs suivante, triée par clé
+     */
+    public AuthorPage page(String afterKey, int size) {
+        NavigableMap<String, Entry> tail = afterKey == null ? authors : authors.tailMap(afterKey, false);
+        List<AuthorSummary> content = new ArrayList<>(size);
+        String lastKey = null;
+        for (Map.Entry<String, Entry> entry : tail.entrySet()) {
+            if (content.size() == size) {
+                return new AuthorPage(content, lastKey);
+            }
+            content.add(new AuthorSummary(entry.getValue().name(), entry.getKey(), entry.getValue().books()));
+            lastKey = entry.getKey();
+        }
+        return new AuthorPage(content, null);
+    }
+
+    public int size() {
+        return authors.size();
+    }
+
+    @Order(CatalogVersion.BEFORE_VERSION_BUMP)
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.type() == BookChangedEvent.Type.DELETED) {
+            remove(event.bookId());
+        } else {
+            update(event.book());
+        }
+    }
+
+    @Order(CatalogVersion.BEFORE_VERSION_BUMP)
+    @TransactionalEventListener
+    public void onBooksImported(BooksImportedEvent event) {
+        updateAll(event.books());
+    }
+
+    private void addLocked(Book book) {
+        String key = AuthorNames.key(book.getAuthor());
+        if (key == null) {
+            return;
+        }
+        bookAuthors.put(book.getId(), key);
+        Entry entry = authors.get(key);
+        authors.put(key, entry == null
+                ? new Entry(AuthorNames.clean(book.getAuthor()), 1)
+                : new Entry(entry.name(), entry.books() + 1));
+    }
+
+    private void removeLocked(Long bookId) {
+        String key = bookAuthors.remove(bookId);
+        if (key == null) {
+            return;
+        }
+        Entry entry = authors.get(key);
+        if (entry.books() <= 1) {
+            authors.remove(key);
+        } else {
+            authors.put(key, new Entry(entry.name(), entry.books() - 1));
+        }
+    }
+}
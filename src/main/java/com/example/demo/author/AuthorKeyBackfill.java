@@ -0,0 +1,58 @@
+package com.example.demo.author;
+
+import com.example.demo.model.Book;
+import com.example.demo.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Complète au démarrage la colonne author_key des livres créés avant son
+ * introduction, par lots de BATCH_SIZE lignes (un lot JDBC par transaction).
+ * La version des livres n'est pas modifiée.
+ */
+@Component
+public class AuthorKeyBackfill {
+
+    static final int BATCH_SIZE = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(AuthorKeyBackfill.class);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long updated = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<Book> books = bookRepository.findByAuthorKeyIsNullOrderByIdAsc(Limit.of(BATCH_SIZE));
+                jdbcTemplate.batchUpdate("UPDATE book SET author_key = ? WHERE id = ?", books, books.size(),
+                        (statement, book) -> {
+                            statement.setString(1, AuthorNames.key(book.getAuthor()));
+                            statement.setLong(2, book.getId());
+                        });
+                return books.size();
+            });
+            updated += batch;
+        } while (batch == BATCH_SIZE);
+        if (updated > 0) {
+            log.info("Backfilled author_key for {} books", updated);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.author;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalisation des noms d'auteurs.
+ *
+ * clean() produit la forme affichée (espaces superflus retirés) ; key() la
+ * forme de comparaison (sans accents, en minuscules) : "Victor Hugo",
+ * "victor  hugo " et "Víctor Hugo" ont la même clé "victor hugo".
+ */
+public final class AuthorNames {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private AuthorNames() {
+    }
+
+    /**
+     * @param author Nom saisi, peut être null
+     * @return Le nom sans espaces en début, en fin ni en double
+     */
+    public static String clean(String author) {
+        if (author == null) {
+            return null;
+        }
+        return WHITESPACE.matcher(author.strip()).replaceAll(" ");
+    }
+
+    /**
+     * @param author Nom saisi, peut être null
+     * @return La clé de comparaison du nom, indexée en base (colonne author_key)
+     */
+    public static String key(String author) {
+        if (author == null) {
+            return null;
+        }
+        return DIACRITICS.matcher(Normalizer.normalize(clean(author), Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+}
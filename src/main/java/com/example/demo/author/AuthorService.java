@@ -0,0 +1,71 @@
+package com.example.demo.author;
+
+import com.example.demo.dto.AuthorPage;
+import com.example.demo.dto.AuthorSummary;
+import com.example.demo.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Liste et autocomplétion des auteurs, servies par l'index en mémoire.
+ * Tant que l'index n'est pas chargé, les mêmes lectures sont faites en base
+ * sur la colonne indexée author_key.
+ */
+@Service
+public class AuthorService {
+
+    public static final int DEFAULT_SUGGESTIONS = 10;
+    public static final int MAX_SUGGESTIONS = 50;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private AuthorIndex authorIndex;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    /**
+     * @param prefix Début du nom saisi, insensible à la casse et aux accents
+     * @param limit Nombre maximal de suggestions, borné à MAX_SUGGESTIONS
+     * @return Les auteurs correspondants, par ordre alphabétique
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<AuthorSummary> complete(String prefix, int limit) {
+        int maxResults = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        if (authorIndex.isReady()) {
+            return authorIndex.complete(prefix, maxResults);
+        }
+        String key = AuthorNames.key(prefix);
+        if (key == null || key.isEmpty()) {
+            return List.of();
+        }
+        String escaped = key.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return bookRepository.findAuthorsByPrefix(escaped, Limit.of(maxResults));
+    }
+
+    /**
+     * @param afterKey Curseur de la page précédente (null pour la première page)
+     * @param size Taille demandée, bornée à MAX_PAGE_SIZE
+     * @return La page d'auteurs suivante
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public AuthorPage listAuthors(String afterKey, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if (authorIndex.isReady()) {
+            return authorIndex.page(afterKey, pageSize);
+        }
+        List<AuthorSummary> authors = bookRepository.findAuthorsAfter(afterKey == null ? "" : afterKey,
+                Limit.of(pageSize + 1));
+        if (authors.size() <= pageSize) {
+            return new AuthorPage(authors, null);
+        }
+        List<AuthorSummary> content = authors.subList(0, pageSize);
+        return new AuthorPage(content, content.get(pageSize - 1).key());
+    }
+}
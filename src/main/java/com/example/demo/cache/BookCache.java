@@ -0,0 +1,155 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.BookChangedEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.model.Book;
+import com.example.demo.replica.PrimaryReads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cache des lectures de livres par identifiant et par ISBN.
+ *
+ * Le cache ISBN ne mémorise que l'identifiant du livre : la valeur elle-même
+ * vient toujours du cache par identifiant, si bien qu'une seule invalidation
+ * par id suffit après une écriture. Les entrées sont invalidées après commit.
+ * Les absences sont chargées depuis la base principale (PrimaryReads) : une
+ * réplique en retard ferait conserver une ligne périmée pendant tout le ttl.
+ */
+@Component
+public class BookCache {
+
+    private final BoundedCache<Long, Book> byId;
+    private final BoundedCache<String, Long> byIsbn;
+    private final PrimaryReads primaryReads;
+
+    public BookCache(@Value("${library.cache.max-entries:10000}") int maxEntries,
+                     @Value("${library.cache.ttl:10m}") Duration ttl,
+                     PrimaryReads primaryReads) {
+        this.byId = new BoundedCache<>(maxEntries, ttl);
+        this.byIsbn = new BoundedCache<>(maxEntries, ttl);
+        this.primaryReads = primaryReads;
+    }
+
+    /**
+     * Lecture par identifiant
+     * @param id Identifiant du livre
+     * @param loader Chargement depuis la base en cas d'absence
+     * @return Le livre, ou vide s'il n'existe pas
+     */
+    public Optional<Book> getById(Long id, Function<Long, Optional<Book>> loader) {
+        return byId.get(id, fromPrimary(loader));
+    }
+
+    /**
+     * Lecture par ISBN
+     * @param isbn ISBN du livre
+     * @param isbnLoader Chargement par ISBN depuis la base en cas d'absence
+     * @param idLoader Chargement par identifiant depuis la base en cas d'absence
+     * @return Le livre, ou vide s'il n'existe pas
+     */
+    public Optional<Book> getByIsbn(String isbn,
+                                    Function<String, Optional<Book>> isbnLoader,
+                                    Function<Long, Optional<Book>> idLoader) {
+        Optional<Long> id = byIsbn.get(isbn, fromPrimary(key -> isbnLoader.apply(key).map(Book::getId)));
+        if (id.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<Book> book = byId.get(id.get(), fromPrimary(idLoader));
+        if (book.isPresent() && isbn.equals(book.get().getIsbn())) {
+            return book;
+        }
+        // L'ISBN du livre a changé ou le livre a été supprimé : on relit par ISBN
+        byIsbn.invalidate(isbn);
+        return isbnLoader.apply(isbn);
+    }
+
+    /**
+     * Lecture groupée par identifiant
+     * @param ids Identifiants des livres
+     * @param loader Chargement groupé depuis la base des identifiants absents du cache
+     * @return Pour chaque identifiant distinct, le livre ou vide s'il n'existe pas
+     */
+    public Map<Long, Optional<Book>> getAllById(Collection<Long> ids,
+                                                Function<Collection<Long>, Map<Long, Book>> loader) {
+        return byId.getAll(ids, fromPrimary(loader));
+    }
+
+    /**
+     * Lecture groupée par ISBN
+     * @param isbns ISBN des livres
+     * @param isbnLoader Chargement groupé par ISBN depuis la base
+     * @param idLoader Chargement groupé par identifiant depuis la base
+     * @return Pour chaque ISBN distinct, le livre ou vide s'il n'existe pas
+     */
+    public Map<String, Optional<Book>> getAllByIsbn(Collection<String> isbns,
+                                                    Function<Collection<String>, Map<String, Book>> isbnLoader,
+                                                    Function<Collection<Long>, Map<Long, Book>> idLoader) {
+        Map<String, Optional<Long>> ids = byIsbn.getAll(isbns, fromPrimary(keys -> isbnLoader.apply(keys).entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getId()))));
+        Map<Long, Optional<Book>> books = byId.getAll(
+                ids.values().stream().flatMap(Optional::stream).toList(), fromPrimary(idLoader));
+        Map<String, Optional<Book>> result = new HashMap<>();
+        List<String> stale = new ArrayList<>();
+        ids.forEach((isbn, id) -> {
+            Optional<Book> book = id.flatMap(books::get);
+            if (id.isEmpty() || book.isPresent() && isbn.equals(book.get().getIsbn())) {
+                result.put(isbn, book);
+            } else {
+                // L'ISBN du livre a changé ou le livre a été supprimé : on relit par ISBN
+                byIsbn.invalidate(isbn);
+                stale.add(isbn);
+            }
+        });
+        if (!stale.isEmpty()) {
+            Map<String, Book> reloaded = isbnLoader.apply(stale);
+            stale.forEach(isbn -> result.put(isbn, Optional.ofNullable(reloaded.get(isbn))));
+        }
+        return result;
+    }
+
+    @Order(CatalogVersion.BEFORE_VERSION_BUMP)
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        byId.invalidate(event.bookId());
+        if (event.book() != null && event.book().getIsbn() != null) {
+            byIsbn.invalidate(event.book().getIsbn());
+        }
+    }
+
+    /** Les livres importés étaient absents : on retire les absences mémorisées */
+    @Order(CatalogVersion.BEFORE_VERSION_BUMP)
+    @TransactionalEventListener
+    public void onBooksImported(BooksImportedEvent event) {
+        for (Book book : event.books()) {
+            byId.invalidate(book.getId());
+            byIsbn.invalidate(book.getIsbn());
+        }
+    }
+
+    public void invalidateAll() {
+        byId.invalidateAll();
+        byIsbn.invalidateAll();
+    }
+
+    public Map<String, CacheStats> stats() {
+        return Map.of("byId", byId.stats(), "byIsbn", byIsbn.stats());
+    }
+
+    private <K, V> Function<K, V> fromPrimary(Function<K, V> loader) {
+        return key -> primaryReads.call(() -> loader.apply(key));
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache LRU borné en nombre d'entrées, avec durée de vie et mémorisation
+ * des absences (cache négatif).
+ *
+ * Les entrées sont réparties par hachage entre plusieurs segments, chacun
+ * avec son propre verrou et sa propre part de la capacité : deux lectures
+ * de clés différentes ne se bloquent en général pas, et l'ordre LRU est
+ * tenu par segment.
+ *
+ * Le chargement se fait hors verrou. Au début d'un chargement, un jeton
+ * est placé sous la clé ; le résultat n'est mis en cache que si ce jeton y
+ * est encore. Une invalidation retire la clé et son jeton : un chargement
+ * commencé avant elle ne réintroduit pas de valeur périmée, sans empêcher
+ * la mise en cache des autres clés.
+ * @param <K> Type de la clé
+ * @param <V> Type de la valeur
+ */
+public class BoundedCache<K, V> {
+
+    /** Nombre maximal de segments */
+    private static final int MAX_SEGMENTS = 16;
+
+    /** Capacité minimale d'un segment, pour garder un ordre LRU significatif */
+    private static final int MIN_SEGMENT_ENTRIES = 64;
+
+    /**
+     * Valeur en cache, ou jeton de chargement en cours quand loading est vrai.
+     * Pas de record : les jetons doivent être comparés par identité.
+     */
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expiresAt;
+        private final boolean loading;
+
+        Entry(V value, long expiresAt, boolean loading) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.loading = loading;
+        }
+
+        static <V> Entry<V> pending() {
+            return new Entry<>(null, 0, true);
+        }
+
+        V value() {
+            return value;
+        }
+
+        long expiresAt() {
+            return expiresAt;
+        }
+
+        boolean loading() {
+            return loading;
+        }
+    }
+
+    private final long ttlNanos;
+    private final Segment<K, V>[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int maxEntries, Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxEntries / MIN_SEGMENT_ENTRIES)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Le reste de la division va aux premiers segments : la somme vaut maxEntries
+            segments[i] = new Segment<>(maxEntries / count + (i < maxEntries % count ? 1 : 0), evictions);
+        }
+    }
+
+    /**
+     * Lit une valeur en la chargeant si nécessaire
+     * @param key La clé recherchée
+     * @param loader Chargement en cas d'absence, un Optional vide est aussi mis en cache
+     * @return La valeur, ou vide si elle n'existe pas
+     */
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        long now = System.nanoTime();
+        Segment<K, V> segment = segmentFor(key);
+        Entry<V> token;
+        synchronized (segment) {
+            Entry<V> entry = segment.map.get(key);
+            if (isFresh(entry, now)) {
+                hits.increment();
+                return Optional.ofNullable(entry.value());
+            }
+            token = segment.beginLoad(key, entry);
+        }
+        misses.increment();
+        Optional<V> loaded;
+        try {
+            loaded = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            synchronized (segment) {
+                segment.map.remove(key, token);
+            }
+            throw e;
+        }
+        synchronized (segment) {
+            segment.map.replace(key, token, new Entry<>(loaded.orElse(null), now + ttlNanos, false));
+        }
+        return loaded;
+    }
+
+    /**
+     * Lit plusieurs valeurs et charge toutes les absentes en un seul appel
+     * @param keys Les clés recherchées
+     * @param loader Chargement groupé des clés absentes ; une clé absente du résultat est mise en cache comme inexistante
+     * @return Pour chaque clé distincte, la valeur ou vide si elle n'existe pas
+     */
+    public Map<K, Optional<V>> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> loader) {
+        long now = System.nanoTime();
+        Map<K, Optional<V>> result = new HashMap<>();
+        Map<K, Entry<V>> tokens = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (result.containsKey(key)) {
+                continue;
+            }
+            Segment<K, V> segment = segmentFor(key);
+            synchronized (segment) {
+                Entry<V> entry = segment.map.get(key);
+                if (isFresh(entry, now)) {
+                    hits.increment();
+                    result.put(key, Optional.ofNullable(entry.value()));
+                    continue;
+                }
+                tokens.put(key, segment.beginLoad(key, entry));
+            }
+            // Marqueur provisoire pour ignorer les doublons
+            result.put(key, Optional.empty());
+        }
+        if (tokens.isEmpty()) {
+            return result;
+        }
+        misses.add(tokens.size());
+        List<K> missing = new ArrayList<>(tokens.keySet());
+        Map<K, V> loaded;
+        try {
+            loaded = loader.apply(missing);
+        } catch (RuntimeException | Error e) {
+            tokens.forEach((key, token) -> {
+                Segment<K, V> segment = segmentFor(key);
+                synchronized (segment) {
+                    segment.map.remove(key, token);
+                }
+            });
+            throw e;
+        }
+        tokens.forEach((key, token) -> {
+            V value = loaded.get(key);
+            result.put(key, Optional.ofNullable(value));
+            Segment<K, V> segment = segmentFor(key);
+            synchronized (segment) {
+                segment.map.replace(key, token, new Entry<>(value, now + ttlNanos, false));
+            }
+        });
+        return result;
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.map.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.map.clear();
+            }
+        }
+    }
+
+    public CacheStats stats() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+            }
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+    }
+
+    private static boolean isFresh(Entry<?> entry, long now) {
+        return entry != null && !entry.loading() && entry.expiresAt() - now > 0;
+    }
+
+    /** Part du cache protégée par son propre verrou (le segment lui-même) */
+    private static final class Segment<K, V> {
+
+        private final LinkedHashMap<K, Entry<V>> map;
+        private final LongAdder evictions;
+
+        Segment(int maxEntries, LongAdder evictions) {
+            this.evictions = evictions;
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > maxEntries) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * Place un jeton de chargement sous la clé, à appeler sous le verrou du segment
+         * @param current L'entrée actuelle : expirée, jeton d'un autre chargement ou null
+         * @return Le jeton, qui remplace celui d'un éventuel chargement concurrent
+         */
+        Entry<V> beginLoad(K key, Entry<V> current) {
+            if (current != null && !current.loading()) {
+                evictions.increment();
+            }
+            Entry<V> token = Entry.pending();
+            map.put(key, token);
+            return token;
+        }
+    }
+}
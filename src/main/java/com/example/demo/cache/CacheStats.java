@@ -0,0 +1,11 @@
+package com.example.demo.cache;
+
+/**
+ * Compteurs d'un cache à un instant donné
+ * @param hits Lectures servies par le cache (y compris les absences mémorisées)
+ * @param misses Lectures ayant nécessité un chargement
+ * @param evictions Entrées retirées faute de place ou expirées
+ * @param size Nombre d'entrées actuellement en cache
+ */
+public record CacheStats(long hits, long misses, long evictions, int size) {
+}
@@ -0,0 +1,66 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.BookChangedEvent;
+import com.example.demo.event.BooksImportedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compteur de modifications du catalogue, base des en-têtes ETag et
+ * Last-Modified des lectures globales (/api/books, /page, /available, /stats).
+ *
+ * Le compteur est incrémenté après commit, une fois que les caches et les
+ * projections en mémoire ont traité l'événement (ordre le plus bas) : un ETag
+ * n'est donc jamais associé à des données plus anciennes que lui. L'époque,
+ * tirée au démarrage, évite qu'un ETag d'avant un redémarrage reste valide.
+ * Last-Modified n'a qu'une précision d'une seconde : If-None-Match, prioritaire,
+ * distingue deux modifications dans la même seconde.
+ */
+@Component
+public class CatalogVersion {
+
+    /** Ordre des écouteurs qui doivent voir un changement avant que l'ETag n'évolue */
+    public static final int BEFORE_VERSION_BUMP = 0;
+
+    /**
+     * Validateurs HTTP d'un état du catalogue
+     * @param counter Nombre de modifications depuis le démarrage
+     * @param etag ETag faible de cet état
+     * @param lastModified Date de la modification, à la seconde
+     */
+    public record Snapshot(long counter, String etag, Instant lastModified) {
+    }
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private volatile Snapshot current = snapshot(0, Instant.now());
+
+    /**
+     * @return L'état courant, à lire avant d'exécuter la requête qu'il valide
+     */
+    public Snapshot current() {
+        return current;
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener
+    public synchronized void onBookChanged(BookChangedEvent event) {
+        current = snapshot(current.counter() + 1, Instant.now());
+    }
+
+    /** Un lot d'import ne compte que pour une modification */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener
+    public synchronized void onBooksImported(BooksImportedEvent event) {
+        current = snapshot(current.counter() + 1, Instant.now());
+    }
+
+    private Snapshot snapshot(long counter, Instant modified) {
+        return new Snapshot(counter, "W/\"" + epoch + "-" + counter + "\"", modified.truncatedTo(ChronoUnit.SECONDS));
+    }
+}
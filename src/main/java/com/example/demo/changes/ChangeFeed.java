@@ -0,0 +1,295 @@
+package com.example.demo.changes;
+
+import com.example.demo.dto.ChangeEvent;
+import com.example.demo.dto.ImportChangeEvent;
+import com.example.demo.event.BookChangedEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.model.Book;
+import com.example.demo.service.ProjectionVersions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Flux des modifications du catalogue, diffusé en Server-Sent Events.
+ *
+ * Chaque BookChangedEvent validé reçoit un numéro de séquence et est sérialisé
+ * une seule fois, puis conservé dans un tampon circulaire des replaySize
+ * dernières modifications. Un client qui se reconnecte avec Last-Event-ID
+ * reçoit les modifications manquées depuis ce tampon ; si elles n'y sont plus,
+ * il reçoit un événement "reset" et doit recharger le catalogue. Un lot
+ * d'import est diffusé en un seul événement "imported" (ImportChangeEvent).
+ *
+ * Les événements après commit de deux transactions sur le même livre arrivent
+ * dans l'ordre où leurs threads les livrent, pas forcément dans l'ordre des
+ * versions : un état plus ancien que le dernier diffusé pour ce livre est écarté
+ * avant d'être numéroté (ProjectionVersions), si bien que les séquences suivent
+ * les versions de chaque livre.
+ *
+ * Les séquences partent de l'horloge au démarrage (en microsecondes) : une
+ * séquence émise par une instance précédente est toujours inférieure et
+ * provoque un "reset" au lieu d'un rattrapage erroné.
+ *
+ * Chaque abonné a sa propre file bornée, vidée par un petit pool de threads :
+ * un client lent ne ralentit ni les écritures ni les autres abonnés. Quand sa
+ * file déborde, il est déconnecté et pourra reprendre depuis sa dernière séquence.
+ */
+@Component
+public class ChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+
+    /** Modification sérialisée, prête à être envoyée à tous les abonnés */
+    private record Change(long sequence, String name, String json) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int queueSize;
+    private final int maxSubscribers;
+
+    private final Object lock = new Object();
+    private final Change[] replay;
+    private final long firstSequence = System.currentTimeMillis() * 1000;
+    private long lastSequence = firstSequence;
+    /** Dernière version diffusée par livre, sous lock */
+    private final ProjectionVersions versions = new ProjectionVersions();
+    private final LongAdder stale = new LongAdder();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor;
+    private final LongAdder dropped = new LongAdder();
+
+    public ChangeFeed(ObjectMapper objectMapper,
+                      @Value("${library.changes.replay-size:10000}") int replaySize,
+                      @Value("${library.changes.subscriber-queue-size:1000}") int queueSize,
+                      @Value("${library.changes.max-subscribers:1000}") int maxSubscribers,
+                      @Value("${library.changes.heartbeat:15s}") Duration heartbeat,
+                      @Value("${library.changes.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.replay = new Change[replaySize];
+        this.queueSize = queueSize;
+        this.maxSubscribers = maxSubscribers;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ouvre un abonnement
+     * @param lastEventId Dernière séquence reçue par le client, null pour un nouvel abonnement
+     * @return Le flux SSE, ou null si le nombre maximal d'abonnés est atteint
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        // Sous le verrou : aucune modification ne peut être publiée entre le rattrapage et l'abonnement
+        synchronized (lock) {
+            long oldest = Math.max(firstSequence + 1, lastSequence - replay.length + 1);
+            if (lastEventId == null) {
+                subscriber.offer(control("sync", lastSequence));
+            } else if (lastEventId < oldest - 1 || lastEventId > lastSequence
+                    || lastSequence - lastEventId > queueSize) {
+                // Hors du tampon, d'une instance précédente ou trop de retard : rechargement complet
+                subscriber.offer(control("reset", lastSequence));
+            } else {
+                for (long sequence = lastEventId + 1; sequence <= lastSequence; sequence++) {
+                    subscriber.offer(replay[(int) (sequence % replay.length)]);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        synchronized (lock) {
+            if (event.type() == BookChangedEvent.Type.DELETED) {
+                versions.delete(event.bookId());
+            } else if (!versions.advance(event.book())) {
+                stale.increment();
+                return;
+            }
+            publish(event.type().name().toLowerCase(), "book " + event.bookId(),
+                    sequence -> new ChangeEvent(sequence, event.type(), event.bookId(), event.book()));
+        }
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onBooksImported(BooksImportedEvent event) {
+        synchronized (lock) {
+            event.books().forEach(versions::advance);
+        }
+        publish("imported", event.books().size() + " imported books",
+                sequence -> new ImportChangeEvent(sequence, event.books().stream().map(Book::getId).toList()));
+    }
+
+    public long lastSequence() {
+        synchronized (lock) {
+            return lastSequence;
+        }
+    }
+
+    /**
+     * Numérote, sérialise et diffuse une modification
+     * @param name Nom de l'événement SSE
+     * @param subject Objet de la modification, pour le journal en cas d'échec
+     * @param payload Corps de l'événement pour une séquence donnée
+     */
+    private void publish(String name, String subject, LongFunction<Object> payload) {
+        synchronized (lock) {
+            long sequence = lastSequence + 1;
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(payload.apply(sequence));
+            } catch (JsonProcessingException e) {
+                log.error("Cannot serialize change for {}", subject, e);
+                return;
+            }
+            Change change = new Change(sequence, name, json);
+            lastSequence = sequence;
+            replay[(int) (sequence % replay.length)] = change;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(change);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /** Nombre d'états écartés parce qu'une version plus récente du livre avait déjà été diffusée */
+    public long staleCount() {
+        return stale.sum();
+    }
+
+    /** Nombre d'abonnés déconnectés parce qu'ils ne suivaient pas le rythme */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+    }
+
+    private Change control(String name, long sequence) {
+        return new Change(sequence, name, "{\"sequence\":" + sequence + "}");
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(null);
+        }
+    }
+
+    /**
+     * Abonné : file bornée vidée par au plus une tâche à la fois, ce qui
+     * préserve l'ordre des envois. Une entrée null est un commentaire de maintien.
+     */
+    private final class Subscriber {
+
+        private static final Change HEARTBEAT = new Change(0, "", "");
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Change> queue = new ArrayBlockingQueue<>(queueSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Change change) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(change == null ? HEARTBEAT : change)) {
+                if (change != null) {
+                    dropped.increment();
+                    log.info("Dropping slow change feed subscriber ({} pending changes)", queue.size());
+                    close();
+                }
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Change change;
+                while (!closed && (change = queue.poll()) != null) {
+                    if (change == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(change.sequence()))
+                                .name(change.name())
+                                .data(change.json(), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client parti ou flux déjà terminé
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // Déjà terminé
+            }
+        }
+    }
+}
@@ -1,7 +1,16 @@
 package com.example.demo.config;
 
+import com.example.demo.admission.AddressAdmissionFilter;
+import com.example.demo.admission.AdmissionControl;
+import com.example.demo.admission.AdmissionControlFilter;
+import com.example.demo.security.CachingAuthenticationProvider;
+import com.example.demo.security.NotifyingUserDetailsManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -9,8 +18,11 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.time.Duration;
 
 
 @Configuration
@@ -20,20 +32,32 @@ public class SecurityConfig {
     /**
      * Configure les règles de sécurité HTTP
      * @param http L'objet HttpSecurity à configurer
+     * @param authenticationProvider Le fournisseur d'authentification avec cache
+     * @param admissionControl Les limites de débit par adresse IP et par client, et le délestage
      * @return La chaîne de filtres de sécurité configurée
      * @throws Exception Si une erreur survient pendant la configuration
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   CachingAuthenticationProvider authenticationProvider,
+                                                   AdmissionControl admissionControl) throws Exception {
         return http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/books").permitAll()
-                .requestMatchers("/api/books/*/quantity").hasRole("ADMIN")
-                .requestMatchers("/api/books/available").permitAll()
+                .requestMatchers("/api/books", "/api/books/page").permitAll()
+                .requestMatchers("/api/books/*/quantity", "/api/books/*/quantity/*").hasRole("ADMIN")
+                // Le remplacement complet d'un livre modifie aussi sa quantité
+                .requestMatchers(HttpMethod.PUT, "/api/books/*").hasRole("ADMIN")
+                .requestMatchers("/api/books/cache/**", "/api/books/import", "/api/books/snapshot").hasRole("ADMIN")
+                .requestMatchers("/api/audit/**", "/api/reports/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
+                .requestMatchers("/api/books/available", "/api/books/stats").permitAll()
                 .anyRequest().authenticated()
             )
             .httpBasic(basic -> {})
+            .addFilterBefore(new AddressAdmissionFilter(admissionControl), BasicAuthenticationFilter.class)
+            .addFilterAfter(new AdmissionControlFilter(admissionControl), AuthorizationFilter.class)
+            .authenticationManager(new ProviderManager(authenticationProvider))
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
@@ -45,7 +69,7 @@ public class SecurityConfig {
      * @return Le gestionnaire d'utilisateurs avec les comptes préconfigurés
      */
     @Bean
-    public InMemoryUserDetailsManager userDetailsService() {
+    public NotifyingUserDetailsManager userDetailsService() {
         UserDetails user = User.builder()
             .username("user")
             .password(passwordEncoder().encode("userpass"))
@@ -58,7 +82,25 @@ public class SecurityConfig {
             .roles("USER", "ADMIN")
             .build();
 
-        return new InMemoryUserDetailsManager(user, admin);
+        return new NotifyingUserDetailsManager(user, admin);
+    }
+
+    /**
+     * Évite une vérification BCrypt à chaque requête HTTP Basic en mémorisant
+     * brièvement les authentifications réussies
+     * @param maxEntries Nombre maximal d'authentifications mémorisées
+     * @param ttl Durée de validité d'une authentification mémorisée
+     * @return Le fournisseur d'authentification, invalidé à chaque modification d'utilisateur
+     */
+    @Bean
+    public CachingAuthenticationProvider authenticationProvider(
+            @Value("${library.security.auth-cache.max-entries:10000}") int maxEntries,
+            @Value("${library.security.auth-cache.ttl:5m}") Duration ttl) {
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider(passwordEncoder());
+        dao.setUserDetailsService(userDetailsService());
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(dao, maxEntries, ttl);
+        userDetailsService().addListener(provider::invalidate);
+        return provider;
     }
 
     /**
@@ -0,0 +1,99 @@
+package com.example.demo.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Vérifie au démarrage les réglages qui dégradent les performances en production :
+ * journalisation du SQL, session Hibernate ouverte pendant la vue, batching JDBC absent,
+ * schéma modifié par Hibernate au lieu des migrations.
+ *
+ * library.startup.self-check vaut "warn" (défaut, un avertissement par problème),
+ * "fail" (le démarrage échoue, profil prod) ou "off".
+ */
+@Component
+public class StartupSelfCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupSelfCheck.class);
+
+    /** Loggers dont le niveau DEBUG écrit une ligne par requête SQL ou par requête HTTP */
+    private static final List<String> VERBOSE_LOGGERS = List.of(
+            "org.hibernate.SQL", "org.hibernate.orm.jdbc.bind", "org.springframework.security");
+
+    public enum Mode { OFF, WARN, FAIL }
+
+    @Value("${library.startup.self-check:warn}")
+    private Mode mode;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        if (mode == Mode.OFF) {
+            return;
+        }
+        List<String> problems = findProblems();
+        if (problems.isEmpty()) {
+            log.info("Startup self-check passed");
+            return;
+        }
+        problems.forEach(problem -> log.warn("Startup self-check: {}", problem));
+        if (mode == Mode.FAIL) {
+            throw new IllegalStateException("Startup self-check failed: " + String.join("; ", problems));
+        }
+    }
+
+    /**
+     * @return Les réglages à corriger, vide si la configuration est adaptée à la production
+     */
+    public List<String> findProblems() {
+        List<String> problems = new ArrayList<>();
+        if (environment.getProperty("spring.jpa.show-sql", Boolean.class, false)) {
+            problems.add("spring.jpa.show-sql is enabled (every statement is written to stdout)");
+        }
+        if (environment.getProperty("spring.jpa.properties.hibernate.format_sql", Boolean.class, false)) {
+            problems.add("hibernate.format_sql is enabled");
+        }
+        for (String name : VERBOSE_LOGGERS) {
+            if (LoggerFactory.getLogger(name).isDebugEnabled()) {
+                problems.add("logger " + name + " is at DEBUG level");
+            }
+        }
+        String ddlAuto = environment.getProperty("spring.jpa.hibernate.ddl-auto", "none");
+        if (!ddlAuto.equals("none") && !ddlAuto.equals("validate")) {
+            problems.add("spring.jpa.hibernate.ddl-auto=" + ddlAuto + " (the schema is managed by versioned migrations)");
+        }
+        if (context.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class).length > 0) {
+            problems.add("spring.jpa.open-in-view is enabled (connections are held until the response is written)");
+        }
+        SessionFactoryOptions options = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getSessionFactoryOptions();
+        if (options.getJdbcBatchSize() <= 1) {
+            problems.add("hibernate.jdbc.batch_size is not set (one round trip per inserted or updated row)");
+        }
+        if (!options.isOrderInsertsEnabled() || !options.isOrderUpdatesEnabled()) {
+            problems.add("hibernate.order_inserts / order_updates are not both enabled (batches are split by entity type)");
+        }
+        return problems;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Journalise au démarrage le mode d'exécution des requêtes.
+ *
+ * Avec le profil "virtual-threads" (Java 21 requis), Tomcat traite chaque
+ * requête sur un thread virtuel : le nombre de requêtes en cours n'est plus
+ * borné par server.tomcat.threads.max mais uniquement par le pool Hikari,
+ * dont l'attente est elle-même bornée par connection-timeout.
+ */
+@Component
+@ConditionalOnWebApplication
+public class ThreadingModeReporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingModeReporter.class);
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private ServerProperties serverProperties;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        int poolSize = primaryPoolSize();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Request execution: virtual threads (Java {}), concurrency bounded by the {} connection pool",
+                    Runtime.version().feature(), poolSize);
+            return;
+        }
+        if (requested) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads (21+ required); "
+                    + "falling back to platform threads", Runtime.version().feature());
+        }
+        int maxThreads = serverProperties.getTomcat().getThreads().getMax();
+        log.info("Request execution: {} platform threads for a {} connection pool", maxThreads, poolSize);
+        if (poolSize > 0 && maxThreads > poolSize * 4) {
+            log.info("Most request threads will wait on the connection pool under load; "
+                    + "consider the virtual-threads profile on Java 21");
+        }
+    }
+
+    /** Taille du pool principal, y compris derrière le routage vers les réplicas */
+    private int primaryPoolSize() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()
+                    : -1;
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.controller;
+
+import com.example.demo.audit.AuditLog;
+import com.example.demo.dto.AuditPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/audit")
+public class AuditController {
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @GetMapping
+    public ResponseEntity<AuditPage> find(@RequestParam(required = false) Long bookId,
+                                          @RequestParam(required = false) String principal,
+                                          @RequestParam(required = false) Long after,
+                                          @RequestParam(defaultValue = "100") int size) {
+        return new ResponseEntity<>(auditLog.find(bookId, principal, after, size), HttpStatus.OK);
+    }
+}
+
+/*
+Explication détaillée du code :
+
+   find (GET /api/audit?bookId=&principal=&after=&size=) :
+   - Journal des modifications du catalogue de cette instance : date, utilisateur,
+     action, livre, quantité avant et après
+   - Pagination par curseur sur le numéro d'ordre : passer nextCursor en "after"
+   - Filtres facultatifs par livre et par utilisateur ; size est borné à AuditLog.MAX_PAGE_SIZE
+   - Les entrées apparaissent quelques dizaines de millisecondes après la modification
+     (écriture en arrière-plan par lots, voir AuditLog)
+
+   Réservé aux administrateurs (SecurityConfig).
+*/
@@ -0,0 +1,46 @@
+package com.example.demo.controller;
+
+import com.example.demo.author.AuthorService;
+import com.example.demo.dto.AuthorPage;
+import com.example.demo.dto.AuthorSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/authors")
+public class AuthorController {
+
+    @Autowired
+    private AuthorService authorService;
+
+    @GetMapping
+    public ResponseEntity<AuthorPage> getAuthors(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + AuthorService.DEFAULT_PAGE_SIZE) int size) {
+        return new ResponseEntity<>(authorService.listAuthors(after, size), HttpStatus.OK);
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AuthorSummary>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "" + AuthorService.DEFAULT_SUGGESTIONS) int limit) {
+        return new ResponseEntity<>(authorService.complete(prefix, limit), HttpStatus.OK);
+    }
+}
+
+/*
+Explication détaillée du code :
+
+   getAuthors (GET /api/authors?after=&size=) :
+   - Auteurs par ordre alphabétique (nom normalisé) avec leur nombre de livres
+   - Pagination par curseur : passer nextCursor en "after"
+
+   autocomplete (GET /api/authors/autocomplete?prefix=&limit=) :
+   - Suggestions d'auteurs dont le nom commence par le préfixe
+   - Insensible à la casse, aux accents et aux espaces superflus
+   - Servies par AuthorIndex (dictionnaire trié en mémoire), sans requête SQL
+*/
@@ -1,13 +1,44 @@
 package com.example.demo.controller;
 
+import com.example.demo.cache.BookCache;
+import com.example.demo.cache.CacheStats;
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.dto.BookBatch;
+import com.example.demo.dto.BookFieldsPage;
+import com.example.demo.dto.BookPage;
+import com.example.demo.dto.BookRows;
+import com.example.demo.dto.CatalogStats;
+import com.example.demo.dto.ImportReport;
+import com.example.demo.exception.BookNotFoundException;
+import com.example.demo.exception.DuplicateIsbnException;
+import com.example.demo.exception.InsufficientStockException;
+import com.example.demo.importer.BookImportService;
 import com.example.demo.model.Book;
+import com.example.demo.replica.PrimaryReads;
+import com.example.demo.search.BookSearchService;
 import com.example.demo.service.BookService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/books")
@@ -16,26 +47,165 @@ public class BookController {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private PrimaryReads primaryReads;
+
     @PostMapping
     public ResponseEntity<Book> createBook(@RequestBody Book book) {
-        return new ResponseEntity<>(bookService.saveBook(book), HttpStatus.CREATED);
+        try {
+            return new ResponseEntity<>(bookService.saveBook(book), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (DuplicateIsbnException | DataIntegrityViolationException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportReport> importCsv(
+            InputStream body,
+            @RequestParam(required = false) Integer batchSize) throws IOException {
+        return importBooks(body, BookImportService.Format.CSV, batchSize);
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ImportReport> importNdjson(
+            InputStream body,
+            @RequestParam(required = false) Integer batchSize) throws IOException {
+        return importBooks(body, BookImportService.Format.NDJSON, batchSize);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
-        return bookService.findById(id)
-                .map(book -> new ResponseEntity<>(book, HttpStatus.OK))
-                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    public ResponseEntity<Book> getBookById(@PathVariable Long id, WebRequest request) {
+        Optional<Book> found = bookService.findById(id);
+        if (found.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        Book book = found.get();
+        // Version de l'entité, lue dans le cache : aucune requête pour un 304.
+        // La quantité distingue les mises à jour regroupées pas encore appliquées.
+        String etag = "W/\"" + book.getId() + "-" + book.getVersion() + "-" + book.getQuantity() + "\"";
+        long lastModified = book.getUpdatedAt() == null ? -1 : book.getUpdatedAt().toEpochMilli();
+        if (request.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(book);
     }
 
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
-        return new ResponseEntity<>(bookService.findAllBooks(), HttpStatus.OK);
+    public ResponseEntity<StreamingResponseBody> getAllBooks(WebRequest request) {
+        CatalogVersion.Snapshot version = catalogVersion.current();
+        if (request.checkNotModified(version.etag(), version.lastModified().toEpochMilli())) {
+            return notModified(version);
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                primaryReads.run(() -> bookService.streamAllBooks(book -> writeBook(generator, book)));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(version.etag())
+                .lastModified(version.lastModified())
+                .body(body);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<BookPage> getBooksPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int size,
+            WebRequest request) {
+        return conditional(request, () -> bookService.findBooksPage(after, size));
+    }
+
+    @GetMapping(value = "/page", params = "fields")
+    public ResponseEntity<BookFieldsPage> getBooksPageFields(
+            @RequestParam String fields,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int size,
+            WebRequest request) {
+        return fieldsPage(request, fields, selected -> bookService.findBooksRows(selected, after, size));
+    }
+
+    @GetMapping(value = "/page", params = "fields", produces = BookRows.MEDIA_TYPE)
+    public ResponseEntity<BookRows> getBooksPageRows(
+            @RequestParam String fields,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int size,
+            WebRequest request) {
+        return rows(request, fields, selected -> bookService.findBooksRows(selected, after, size));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BookBatch<Long>> getBooksByIds(@RequestBody List<Long> ids) {
+        try {
+            return new ResponseEntity<>(bookService.findByIds(ids), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PostMapping("/isbn/batch")
+    public ResponseEntity<BookBatch<String>> getBooksByIsbns(@RequestBody List<String> isbns) {
+        try {
+            return new ResponseEntity<>(bookService.findByIsbns(isbns), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
 
     @GetMapping("/author/{author}")
-    public ResponseEntity<List<Book>> getBooksByAuthor(@PathVariable String author) {
-        return new ResponseEntity<>(bookService.findByAuthor(author), HttpStatus.OK);
+    public ResponseEntity<BookPage> getBooksByAuthor(
+            @PathVariable String author,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int size) {
+        return new ResponseEntity<>(bookService.findByAuthor(author, after, size), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/author/{author}", params = "fields")
+    public ResponseEntity<BookFieldsPage> getBooksByAuthorFields(
+            @PathVariable String author,
+            @RequestParam String fields,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            List<String> selected = BookService.parseFields(fields);
+            return new ResponseEntity<>(
+                    BookFieldsPage.of(bookService.findByAuthorRows(author, selected, after, size)), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(value = "/author/{author}", params = "fields", produces = BookRows.MEDIA_TYPE)
+    public ResponseEntity<BookRows> getBooksByAuthorRows(
+            @PathVariable String author,
+            @RequestParam String fields,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            List<String> selected = BookService.parseFields(fields);
+            return new ResponseEntity<>(bookService.findByAuthorRows(author, selected, after, size), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
 
     @GetMapping("/search")
@@ -43,6 +213,14 @@ public class BookController {
         return new ResponseEntity<>(bookService.searchByTitle(title), HttpStatus.OK);
     }
 
+    @GetMapping(value = "/search", params = "q")
+    public ResponseEntity<List<Book>> searchCatalog(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "" + BookSearchService.DEFAULT_LIMIT) int limit,
+            @RequestParam(defaultValue = "false") boolean availableOnly) {
+        return new ResponseEntity<>(bookSearchService.search(q, limit, availableOnly), HttpStatus.OK);
+    }
+
     @GetMapping("/isbn/{isbn}")
     public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn) {
         Book book = bookService.findByIsbn(isbn);
@@ -51,9 +229,40 @@ public class BookController {
             : new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, CacheStats>> getCacheStats() {
+        return new ResponseEntity<>(bookCache.stats(), HttpStatus.OK);
+    }
+
     @GetMapping("/available")
-    public ResponseEntity<List<Book>> getAvailableBooks() {
-        return new ResponseEntity<>(bookService.findAvailableBooks(), HttpStatus.OK);
+    public ResponseEntity<BookPage> getAvailableBooks(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int size,
+            WebRequest request) {
+        return conditional(request, () -> bookService.findAvailableBooksPage(after, size));
+    }
+
+    @GetMapping(value = "/available", params = "fields")
+    public ResponseEntity<BookFieldsPage> getAvailableBooksFields(
+            @RequestParam String fields,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int size,
+            WebRequest request) {
+        return fieldsPage(request, fields, selected -> bookService.findAvailableBooksRows(selected, after, size));
+    }
+
+    @GetMapping(value = "/available", params = "fields", produces = BookRows.MEDIA_TYPE)
+    public ResponseEntity<BookRows> getAvailableBooksRows(
+            @RequestParam String fields,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int size,
+            WebRequest request) {
+        return rows(request, fields, selected -> bookService.findAvailableBooksRows(selected, after, size));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<CatalogStats> getCatalogStats(WebRequest request) {
+        return conditional(request, bookService::getCatalogStats);
     }
 
     @PutMapping("/{id}/quantity")
@@ -61,10 +270,45 @@ public class BookController {
             @PathVariable Long id,
             @RequestParam int quantity) {
         try {
+            if (bookService.isCoalescingQuantities()) {
+                return new ResponseEntity<>(bookService.bufferQuantity(id, quantity), HttpStatus.ACCEPTED);
+            }
             Book updatedBook = bookService.updateBookQuantity(id, quantity);
             return new ResponseEntity<>(updatedBook, HttpStatus.OK);
-        } catch (RuntimeException e) {
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (BookNotFoundException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (ConcurrencyFailureException e) {
+            // Mise à jour regroupée de ce livre encore en cours d'application
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    @PatchMapping("/{id}/quantity/increment")
+    public ResponseEntity<Book> incrementBookQuantity(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1") int by) {
+        return adjustBookQuantity(id, by, true);
+    }
+
+    @PatchMapping("/{id}/quantity/decrement")
+    public ResponseEntity<Book> decrementBookQuantity(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1") int by) {
+        return adjustBookQuantity(id, by, false);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<Book> updateBook(@PathVariable Long id, @RequestBody Book book) {
+        try {
+            return new ResponseEntity<>(bookService.updateBook(id, book), HttpStatus.OK);
+        } catch (BookNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (ObjectOptimisticLockingFailureException | DuplicateIsbnException | DataIntegrityViolationException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
         }
     }
 
@@ -73,6 +317,87 @@ public class BookController {
         bookService.deleteBook(id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
+
+    private ResponseEntity<ImportReport> importBooks(
+            InputStream body, BookImportService.Format format, Integer batchSize) throws IOException {
+        int size = batchSize != null ? batchSize : bookImportService.getDefaultBatchSize();
+        return new ResponseEntity<>(bookImportService.importBooks(body, format, size), HttpStatus.OK);
+    }
+
+    private ResponseEntity<Book> adjustBookQuantity(Long id, int amount, boolean increment) {
+        try {
+            if (increment && bookService.isCoalescingQuantities()) {
+                return new ResponseEntity<>(bookService.bufferIncrement(id, amount), HttpStatus.ACCEPTED);
+            }
+            Book updatedBook = increment
+                    ? bookService.incrementQuantity(id, amount)
+                    : bookService.decrementQuantity(id, amount);
+            return new ResponseEntity<>(updatedBook, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (BookNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (InsufficientStockException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    /**
+     * Lecture globale conditionnelle : l'état du catalogue est lu avant la requête,
+     * qui n'est exécutée que si le client n'a pas déjà cette version (sinon 304).
+     * Elle l'est sur la base principale, jamais plus ancienne que l'ETag.
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<T> body) {
+        CatalogVersion.Snapshot version = catalogVersion.current();
+        if (request.checkNotModified(version.etag(), version.lastModified().toEpochMilli())) {
+            return notModified(version);
+        }
+        return ResponseEntity.ok()
+                .eTag(version.etag())
+                .lastModified(version.lastModified())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(primaryReads.call(body));
+    }
+
+    /**
+     * Lecture conditionnelle d'une page projetée, au format objet (une map par livre)
+     */
+    private ResponseEntity<BookFieldsPage> fieldsPage(
+            WebRequest request, String fields, Function<List<String>, BookRows> query) {
+        ResponseEntity<BookRows> rows = rows(request, fields, query);
+        return rows.getBody() == null
+                ? new ResponseEntity<>(rows.getHeaders(), rows.getStatusCode())
+                : new ResponseEntity<>(BookFieldsPage.of(rows.getBody()), rows.getHeaders(), rows.getStatusCode());
+    }
+
+    /**
+     * Lecture conditionnelle d'une page projetée ; 400 si un attribut demandé n'existe pas
+     */
+    private ResponseEntity<BookRows> rows(WebRequest request, String fields, Function<List<String>, BookRows> query) {
+        List<String> selected;
+        try {
+            selected = BookService.parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return conditional(request, () -> query.apply(selected));
+    }
+
+    private static <T> ResponseEntity<T> notModified(CatalogVersion.Snapshot version) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(version.etag())
+                .lastModified(version.lastModified())
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    private void writeBook(JsonGenerator generator, Book book) {
+        try {
+            generator.writeObject(book);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
 
 /*
@@ -99,34 +424,95 @@ Explication détaillée du code :
    - Crée un nouveau livre
    - Utilise @RequestBody pour désérialiser le JSON
    - Retourne HTTP 201 (CREATED)
+   - 400 si l'ISBN est invalide, 409 si un autre livre a le même ISBN (même sous une
+     autre forme : ISBN-10, ISBN-13, tirets)
+
+   importCsv / importNdjson (POST /import) :
+   - Import en masse selon le Content-Type (text/csv ou application/x-ndjson)
+   - Le corps est lu en flux et inséré par lots (paramètre batchSize)
+   - Retourne le bilan : lignes importées, rejetées et causes des rejets
 
    getBookById (GET /{id}) :
    - Récupère un livre par son ID
    - Utilise @PathVariable pour l'ID
    - Retourne 404 si non trouvé
+   - ETag "id-version-quantité" et Last-Modified (updatedAt) ; 304 si If-None-Match correspond,
+     la version venant du cache, sans requête ni sérialisation
 
    getAllBooks (GET /) :
    - Liste tous les livres
+   - Le tableau JSON est écrit en flux au fil du curseur JDBC
    - Retourne HTTP 200 (OK)
 
-   getBooksByAuthor (GET /author/{author}) :
+   Requêtes conditionnelles (GET /, /page, /available, /stats) :
+   - ETag et Last-Modified issus de CatalogVersion, compteur global des modifications
+   - L'état est lu avant la requête : si le client a déjà cette version (If-None-Match
+     ou If-Modified-Since), réponse 304 sans requête SQL ni sérialisation
+
+   getBooksPage (GET /page?after=...&size=...) :
+   - Pagination par curseur sur l'identifiant
+   - Retourne le curseur de la page suivante (nextCursor)
+
+   Projection (GET /page, /available, /author/{author} avec ?fields=id,title,isbn) :
+   - Seules les colonnes demandées sont lues en base, sans hydrater d'entité
+   - Réponse {"content": [{"id": .., "title": ..}], "nextCursor": ..} ; attribut inconnu : 400
+   - Avec Accept: application/vnd.library.rows+json, format tabulaire plus compact :
+     {"fields": ["id", "title"], "rows": [[1, ".."]], "nextCursor": ..}
+   - Vary: Accept, les deux représentations partageant la même URL
+   - Les réponses de plus de 2 Ko sont compressées en gzip (server.compression)
+
+   getBooksByAuthor (GET /author/{author}?after=&size=) :
    - Trouve les livres par auteur
    - Utilise @PathVariable pour l'auteur
+   - Insensible à la casse, aux accents et aux espaces ; paginé comme /page
 
    searchBooks (GET /search?title=...) :
    - Recherche par titre
    - Utilise @RequestParam pour le paramètre de recherche
 
+   searchCatalog (GET /search?q=...&limit=...) :
+   - Recherche plein texte classée (titre, auteur, description)
+   - Servie par l'index inversé en mémoire, avec recherche par préfixe
+
    getBookByIsbn (GET /isbn/{isbn}) :
-   - Trouve un livre par ISBN
+   - Trouve un livre par ISBN, sous n'importe quelle forme (0-306-40615-2 = 9780306406157)
    - Retourne 404 si non trouvé
 
-   getAvailableBooks (GET /available) :
-   - Liste les livres disponibles
+   getAvailableBooks (GET /available?after=&size=) :
+   - Page des livres disponibles (même format que /page)
+   - Servie par l'index des disponibilités, sans parcours de table
+
+   getBooksByIds (POST /batch) et getBooksByIsbns (POST /isbn/batch) :
+   - Corps : tableau JSON d'identifiants ou d'ISBN (1000 au plus, sinon 400)
+   - Réponse : {"books": [...], "missing": [...]}, livres dans l'ordre demandé
+   - Une ou deux requêtes SQL au lieu d'une requête HTTP et SQL par livre
+
+   getCatalogStats (GET /stats) :
+   - Nombre de titres, d'exemplaires et de titres disponibles
+
+   getCacheStats (GET /cache/stats) :
+   - Compteurs succès / échecs / évictions du cache de lecture
+   - Réservé aux administrateurs
 
    updateBookQuantity (PUT /{id}/quantity) :
    - Met à jour la quantité d'un livre
    - Combine @PathVariable et @RequestParam
+   - En mode regroupé (library.quantity-coalescing.enabled), retourne 202 (ACCEPTED)
+     et le livre tel qu'il sera une fois la mise à jour appliquée par lot
+   - 400 si la quantité est négative, 404 si le livre n'existe pas, 409 si une mise à
+     jour regroupée de ce livre est encore en cours d'application
+
+   incrementBookQuantity / decrementBookQuantity (PATCH /{id}/quantity/increment|decrement?by=...) :
+   - Variation atomique du stock, sans lecture préalable côté client
+   - Retourne 409 (CONFLICT) si le stock deviendrait négatif
+   - En mode regroupé, les incréments sont acceptés (202) comme PUT /{id}/quantity ;
+     les décréments restent synchrones car ils contrôlent le stock
+
+   updateBook (PUT /{id}) :
+   - Remplace un livre ; le champ version doit être celui lu précédemment
+   - Retourne 409 (CONFLICT) si le livre a été modifié entre-temps ou si son nouvel ISBN
+     est celui d'un autre livre, 400 si l'ISBN est invalide
+   - Réservé aux administrateurs, comme PUT /{id}/quantity : il modifie aussi le stock
 
    deleteBook (DELETE /{id}) :
    - Supprime un livre
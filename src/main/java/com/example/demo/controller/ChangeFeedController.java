@@ -0,0 +1,59 @@
+package com.example.demo.controller;
+
+import com.example.demo.changes.ChangeFeed;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/books/changes")
+public class ChangeFeedController {
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long since,
+            HttpServletResponse response) {
+        SseEmitter emitter = changeFeed.subscribe(lastEventId != null ? lastEventId : since);
+        if (emitter == null) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        // Désactive la mise en tampon des proxys (nginx) pour que chaque événement parte immédiatement
+        response.setHeader("X-Accel-Buffering", "no");
+        response.setHeader("Cache-Control", "no-cache");
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+}
+
+/*
+Explication détaillée du code :
+
+   subscribe (GET /api/books/changes, Accept: text/event-stream) :
+   - Flux Server-Sent Events des modifications du catalogue, après commit
+   - Chaque événement porte un id (séquence), un nom (saved, deleted, quantity_changed)
+     et un JSON {sequence, type, bookId, book}
+   - Reprise : le navigateur renvoie automatiquement Last-Event-ID à la reconnexion ;
+     "since" permet la même chose depuis un client qui ne gère pas cet en-tête
+   - 503 si le nombre maximal d'abonnés est atteint
+
+   Tenir une réplique locale à jour :
+   1. S'abonner sans séquence : le premier événement "sync" donne la séquence courante
+   2. Charger le catalogue (GET /api/books/page) en gardant les événements reçus entre-temps
+   3. Appliquer les événements dans l'ordre : saved et quantity_changed remplacent le livre
+      uniquement si book.version est supérieure à celle de la copie locale, deleted le retire
+      (un identifiant n'est jamais réutilisé). Les événements gardés pendant le chargement
+      peuvent être plus anciens que les lignes lues : sans ce contrôle de version, ils
+      écraseraient un état plus récent. L'application est alors idempotente
+   - Le serveur ne diffuse jamais, pour un même livre, une version plus ancienne qu'une
+     version déjà diffusée : les séquences suivent les versions de chaque livre
+   4. Sur "reset" (retard trop important ou redémarrage du serveur), recommencer en 2
+   - Un client trop lent est déconnecté ; il se reconnecte avec sa dernière séquence
+   - Des commentaires "heartbeat" maintiennent la connexion ouverte à travers les proxys
+*/
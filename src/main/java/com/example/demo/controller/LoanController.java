@@ -0,0 +1,89 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.CheckoutRequest;
+import com.example.demo.dto.LoanPage;
+import com.example.demo.exception.BookNotFoundException;
+import com.example.demo.exception.InsufficientStockException;
+import com.example.demo.exception.LoanNotFoundException;
+import com.example.demo.model.Loan;
+import com.example.demo.service.BookService;
+import com.example.demo.service.LoanService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/loans")
+public class LoanController {
+
+    @Autowired
+    private LoanService loanService;
+
+    @PostMapping
+    public ResponseEntity<List<Loan>> checkout(@RequestBody CheckoutRequest request) {
+        try {
+            return new ResponseEntity<>(loanService.checkout(request.borrower(), request.bookIds()), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (BookNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (InsufficientStockException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    @PostMapping("/{id}/return")
+    public ResponseEntity<Loan> returnLoan(@PathVariable Long id) {
+        try {
+            return new ResponseEntity<>(loanService.returnLoan(id), HttpStatus.OK);
+        } catch (LoanNotFoundException | BookNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Loan> getLoan(@PathVariable Long id) {
+        return loanService.findById(id)
+                .map(loan -> new ResponseEntity<>(loan, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("/borrower/{borrower}")
+    public ResponseEntity<List<Loan>> getActiveLoans(@PathVariable String borrower) {
+        return new ResponseEntity<>(loanService.findActiveLoans(borrower), HttpStatus.OK);
+    }
+
+    @GetMapping("/overdue")
+    public ResponseEntity<LoanPage> getOverdueLoans(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int size) {
+        return new ResponseEntity<>(loanService.findOverdueLoans(after, size), HttpStatus.OK);
+    }
+}
+
+/*
+Explication détaillée du code :
+
+   checkout (POST /api/loans) :
+   - Corps : {"borrower": "...", "bookIds": [1, 2, 3]}
+   - 201 avec les emprunts créés
+   - 400 si le lecteur ou les livres manquent (ou identifiants en double)
+   - 404 si un livre n'existe pas, 409 si un livre est épuisé : rien n'est emprunté
+
+   returnLoan (POST /api/loans/{id}/return) :
+   - 200 avec l'emprunt clôturé, 404 s'il n'existe pas, 409 s'il est déjà rendu
+
+   getLoan (GET /api/loans/{id}), getActiveLoans (GET /api/loans/borrower/{borrower}) :
+   - Consultation d'un emprunt et des emprunts en cours d'un lecteur
+
+   getOverdueLoans (GET /api/loans/overdue?after=&size=) :
+   - Emprunts en retard, paginés par curseur
+
+   Remplace, pour le comptoir de prêt, l'appel à PUT /api/books/{id}/quantity
+   avec une quantité calculée côté client (sujet aux courses).
+*/
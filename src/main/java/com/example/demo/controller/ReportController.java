@@ -0,0 +1,90 @@
+package com.example.demo.controller;
+
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.dto.AuthorInventory;
+import com.example.demo.dto.DuplicateGroup;
+import com.example.demo.dto.StockReport;
+import com.example.demo.report.InventoryReports;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    static final int MAX_LIMIT = 10_000;
+
+    @Autowired
+    private InventoryReports inventoryReports;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @GetMapping("/stock")
+    public ResponseEntity<StockReport> stock(WebRequest request) {
+        return conditional(request, inventoryReports::stock);
+    }
+
+    @GetMapping("/authors")
+    public ResponseEntity<List<AuthorInventory>> authors(@RequestParam(defaultValue = "100") int limit,
+                                                         WebRequest request) {
+        return conditional(request, () -> inventoryReports.authors(Math.min(limit, MAX_LIMIT)));
+    }
+
+    @GetMapping("/duplicates")
+    public ResponseEntity<List<DuplicateGroup>> duplicates(@RequestParam(defaultValue = "100") int limit,
+                                                           WebRequest request) {
+        return conditional(request, () -> inventoryReports.duplicates(Math.min(limit, MAX_LIMIT)));
+    }
+
+    /**
+     * Rapport conditionnel : l'état du catalogue est lu avant le calcul (sinon 304)
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<T> body) {
+        CatalogVersion.Snapshot version = catalogVersion.current();
+        if (request.checkNotModified(version.etag(), version.lastModified().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(version.etag())
+                    .lastModified(version.lastModified())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(version.etag())
+                .lastModified(version.lastModified())
+                .body(body.get());
+    }
+}
+
+/*
+Explication détaillée du code :
+
+   Rapports d'inventaire, calculés par InventoryReports en un seul parcours de la
+   table et conservés jusqu'à la prochaine modification du catalogue. Remplacent
+   l'export complet de GET /api/books retraité dans un tableur.
+
+   stock (GET /api/reports/stock) :
+   - Titres, exemplaires, titres épuisés et leur part, répartition des titres
+     par nombre d'exemplaires
+
+   authors (GET /api/reports/authors?limit=) :
+   - Titres, exemplaires et titres épuisés par auteur (nom normalisé),
+     les auteurs ayant le plus d'exemplaires d'abord
+
+   duplicates (GET /api/reports/duplicates?limit=) :
+   - Doublons présumés : même titre et même auteur une fois normalisés
+     (casse, accents, ponctuation), ISBN différents
+   - Les groupes les plus grands d'abord
+
+   Requêtes conditionnelles :
+   - ETag et Last-Modified de CatalogVersion, comme les lectures globales de
+     BookController : 304 sans calcul si le catalogue n'a pas changé
+   - limit est borné à MAX_LIMIT
+
+   Réservé aux administrateurs (SecurityConfig).
+*/
@@ -0,0 +1,88 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.SnapshotInfo;
+import com.example.demo.snapshot.CatalogSnapshot;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.catalina.Globals;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/books/snapshot")
+public class SnapshotController {
+
+    static final MediaType SNAPSHOT_TYPE = MediaType.parseMediaType("application/vnd.library.snapshot");
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(HttpServletRequest request) {
+        Optional<SnapshotInfo> latest = catalogSnapshot.latest();
+        if (latest.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        SnapshotInfo snapshot = latest.get();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(SNAPSHOT_TYPE);
+        headers.setContentLength(snapshot.bytes());
+        headers.setContentDisposition(ContentDisposition.attachment().filename(snapshot.file()).build());
+        headers.setLastModified(snapshot.takenAt());
+        if (Boolean.TRUE.equals(request.getAttribute(Globals.SENDFILE_SUPPORTED_ATTR))) {
+            // Tomcat envoie le fichier lui-même (sendfile), sans le copier en mémoire
+            request.setAttribute(Globals.SENDFILE_FILENAME_ATTR, snapshot.path().toString());
+            request.setAttribute(Globals.SENDFILE_FILE_START_ATTR, 0L);
+            request.setAttribute(Globals.SENDFILE_FILE_END_ATTR, snapshot.bytes());
+            return new ResponseEntity<>(headers, HttpStatus.OK);
+        }
+        StreamingResponseBody body = out -> {
+            try (FileChannel channel = FileChannel.open(snapshot.path(), StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = 0;
+                while (position < snapshot.bytes()) {
+                    position += channel.transferTo(position, snapshot.bytes() - position, target);
+                }
+            }
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    @PostMapping
+    public ResponseEntity<SnapshotInfo> create() throws IOException {
+        return new ResponseEntity<>(catalogSnapshot.write(), HttpStatus.CREATED);
+    }
+}
+
+/*
+Explication détaillée du code :
+
+   export (GET /api/books/snapshot) :
+   - Télécharge le dernier instantané binaire du catalogue (format décrit dans SnapshotFile),
+     pour un export hors ligne ou pour amorcer une autre instance
+   - Content-Length connu d'avance ; Last-Modified = date de l'instantané
+   - Avec Tomcat (connecteur NIO sans TLS), le fichier est confié au connecteur par les
+     attributs sendfile : le noyau copie directement le fichier vers la socket
+   - Sinon, FileChannel.transferTo vers le flux de la réponse, par morceaux, sans
+     charger le fichier en mémoire
+   - 404 tant qu'aucun instantané n'a été écrit
+   - Les instantanés précédents restent sur disque (library.snapshot.keep) : un
+     téléchargement en cours n'est pas interrompu par l'écriture du suivant
+
+   create (POST /api/books/snapshot) :
+   - Écrit immédiatement un nouvel instantané et retourne sa description (201)
+
+   Réservé aux administrateurs (SecurityConfig).
+*/
@@ -0,0 +1,29 @@
+package com.example.demo.dto;
+
+import java.time.Instant;
+
+/**
+ * Entrée du journal d'audit des modifications du catalogue
+ * @param sequence Numéro d'ordre, strictement croissant sur une instance (0 tant que l'entrée n'est pas écrite)
+ * @param at Date de la modification
+ * @param principal Utilisateur authentifié, "system" pour une écriture sans utilisateur (tâche de fond)
+ * @param action Nature de la modification
+ * @param bookId Identifiant du livre concerné
+ * @param quantityBefore Quantité avant modification, null si elle n'est pas connue
+ * @param quantityAfter Quantité après modification, null pour une suppression
+ */
+public record AuditEntry(long sequence, Instant at, String principal, Action action, Long bookId,
+                         Integer quantityBefore, Integer quantityAfter) {
+
+    public enum Action {
+        SAVED,
+        DELETED,
+        QUANTITY_CHANGED,
+        /** Mise à jour de stock acceptée puis regroupée (QuantityCoalescer), appliquée plus tard */
+        QUANTITY_BUFFERED
+    }
+
+    public AuditEntry withSequence(long sequence) {
+        return new AuditEntry(sequence, at, principal, action, bookId, quantityBefore, quantityAfter);
+    }
+}
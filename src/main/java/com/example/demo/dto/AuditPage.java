@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Page du journal d'audit paginée par curseur
+ * @param content Les entrées de la page, triées par numéro d'ordre
+ * @param nextCursor Valeur à passer en "after" pour la page suivante, null s'il n'y en a pas
+ */
+public record AuditPage(List<AuditEntry> content, Long nextCursor) {
+}
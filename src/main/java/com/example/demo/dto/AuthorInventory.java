@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+/**
+ * Stock des livres d'un auteur
+ * @param author Nom de l'auteur
+ * @param authorKey Nom normalisé (AuthorNames.key)
+ * @param titles Nombre de titres
+ * @param copies Nombre total d'exemplaires
+ * @param outOfStock Nombre de titres sans exemplaire
+ * @param outOfStockRatio Part des titres sans exemplaire, entre 0 et 1
+ */
+public record AuthorInventory(String author, String authorKey, int titles, long copies, int outOfStock,
+                              double outOfStockRatio) {
+}
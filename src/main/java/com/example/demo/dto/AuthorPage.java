@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Page d'auteurs triés par nom normalisé, paginée par curseur
+ * @param content Les auteurs de la page
+ * @param nextCursor Valeur à passer en "after" pour la page suivante, null s'il n'y en a pas
+ */
+public record AuthorPage(List<AuthorSummary> content, String nextCursor) {
+}
@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+/**
+ * Auteur du catalogue
+ * @param name Nom affiché
+ * @param key Nom normalisé, utilisable dans /api/books/author/{author}
+ * @param books Nombre de livres de l'auteur
+ */
+public record AuthorSummary(String name, String key, long books) {
+}
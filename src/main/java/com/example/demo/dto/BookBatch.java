@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Book;
+
+import java.util.List;
+
+/**
+ * Résultat d'une lecture groupée
+ * @param books Les livres trouvés, dans l'ordre des clés demandées
+ * @param missing Les clés demandées sans livre correspondant
+ * @param <K> Type de la clé (identifiant ou ISBN)
+ */
+public record BookBatch<K>(List<Book> books, List<K> missing) {
+}
@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Page de livres réduite aux attributs demandés (?fields=id,title,isbn).
+ * @param content Un objet par livre, ne contenant que les attributs demandés
+ * @param nextCursor Curseur à renvoyer dans "after" pour la page suivante, null s'il n'y en a plus
+ */
+public record BookFieldsPage(List<Map<String, Object>> content, Long nextCursor) {
+
+    public static BookFieldsPage of(BookRows rows) {
+        List<Map<String, Object>> content = new ArrayList<>(rows.rows().size());
+        for (Object[] row : rows.rows()) {
+            Map<String, Object> book = new LinkedHashMap<>();
+            for (int i = 0; i < row.length; i++) {
+                book.put(rows.fields().get(i), row[i]);
+            }
+            content.add(book);
+        }
+        return new BookFieldsPage(content, rows.nextCursor());
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Book;
+
+import java.util.List;
+
+/**
+ * Page de livres obtenue par pagination par curseur.
+ * @param content Les livres de la page, triés par identifiant
+ * @param nextCursor Curseur à renvoyer dans "after" pour la page suivante, null s'il n'y en a plus
+ */
+public record BookPage(List<Book> content, Long nextCursor) {
+}
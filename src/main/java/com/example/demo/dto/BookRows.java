@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Page de livres réduite aux attributs demandés, au format tabulaire :
+ * les noms de colonnes ne sont écrits qu'une fois au lieu d'une fois par livre.
+ * Servie pour Accept: application/vnd.library.rows+json.
+ * @param fields Noms des colonnes, "id" en premier
+ * @param rows Une ligne par livre, valeurs dans l'ordre de fields
+ * @param nextCursor Curseur à renvoyer dans "after" pour la page suivante, null s'il n'y en a plus
+ */
+public record BookRows(List<String> fields, List<Object[]> rows, Long nextCursor) {
+
+    public static final String MEDIA_TYPE = "application/vnd.library.rows+json";
+}
@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+/**
+ * Compteurs agrégés du catalogue
+ * @param totalTitles Nombre de livres référencés
+ * @param totalCopies Nombre total d'exemplaires en stock
+ * @param availableTitles Nombre de livres disponibles
+ */
+public record CatalogStats(long totalTitles, long totalCopies, long availableTitles) {
+}
@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import com.example.demo.event.BookChangedEvent;
+import com.example.demo.model.Book;
+
+/**
+ * Modification du catalogue diffusée par le flux /api/books/changes
+ * @param sequence Numéro d'ordre, strictement croissant, repris par Last-Event-ID
+ * @param type Nature de la modification
+ * @param bookId Identifiant du livre concerné
+ * @param book État complet du livre après modification, null pour une suppression
+ */
+public record ChangeEvent(long sequence, BookChangedEvent.Type type, Long bookId, Book book) {
+}
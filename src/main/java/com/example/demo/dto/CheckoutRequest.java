@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Demande d'emprunt d'un ou plusieurs livres (un exemplaire de chacun)
+ * @param borrower Identifiant du lecteur
+ * @param bookIds Identifiants distincts des livres empruntés
+ */
+public record CheckoutRequest(String borrower, List<Long> bookIds) {
+}
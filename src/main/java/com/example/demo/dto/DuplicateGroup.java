@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Doublons présumés : livres de même titre et même auteur, une fois normalisés
+ * (casse, accents, ponctuation, espaces), mais d'ISBN différents
+ * @param title Titre normalisé
+ * @param authorKey Auteur normalisé
+ * @param books Les livres concernés, par identifiant croissant
+ */
+public record DuplicateGroup(String title, String authorKey, List<Candidate> books) {
+
+    /**
+     * Livre d'un groupe de doublons, tel qu'enregistré
+     */
+    public record Candidate(Long id, String title, String isbn, int quantity) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Lot de livres créés par un import, diffusé par le flux /api/books/changes
+ * sous le nom "imported" (un message par lot, pas par livre)
+ * @param sequence Numéro d'ordre, strictement croissant, repris par Last-Event-ID
+ * @param bookIds Identifiants des livres créés, à relire par /api/books/batch
+ */
+public record ImportChangeEvent(long sequence, List<Long> bookIds) {
+}
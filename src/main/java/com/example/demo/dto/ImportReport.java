@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Bilan d'un import en masse
+ * @param processed Nombre d'enregistrements lus
+ * @param imported Nombre de livres insérés
+ * @param rejected Nombre d'enregistrements rejetés (lecture, validation ou insertion)
+ * @param batches Nombre de lots validés
+ * @param errors Détail des premiers rejets
+ * @param elapsedMillis Durée totale de l'import
+ */
+public record ImportReport(long processed, long imported, long rejected, int batches,
+                           List<ImportError> errors, long elapsedMillis) {
+
+    /**
+     * Rejet d'un enregistrement
+     * @param line Numéro de ligne dans le fichier source
+     * @param message Cause du rejet
+     */
+    public record ImportError(long line, String message) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Loan;
+
+import java.util.List;
+
+/**
+ * Page d'emprunts paginée par curseur
+ * @param content Les emprunts de la page, triés par identifiant
+ * @param nextCursor Valeur à passer en "after" pour la page suivante, null s'il n'y en a pas
+ */
+public record LoanPage(List<Loan> content, Long nextCursor) {
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Description d'un instantané binaire du catalogue
+ * @param file Nom du fichier
+ * @param takenAt Date de l'instantané : les modifications antérieures y figurent
+ * @param books Nombre de livres
+ * @param bytes Taille du fichier
+ * @param path Chemin du fichier sur le serveur, non exposé
+ */
+public record SnapshotInfo(String file, Instant takenAt, long books, long bytes, @JsonIgnore Path path) {
+}
@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * État global du stock
+ * @param titles Nombre de titres
+ * @param copies Nombre total d'exemplaires
+ * @param outOfStock Nombre de titres sans exemplaire
+ * @param outOfStockRatio Part des titres sans exemplaire, entre 0 et 1
+ * @param quantities Répartition des titres par nombre d'exemplaires
+ * @param computedAt Date du calcul
+ */
+public record StockReport(long titles, long copies, long outOfStock, double outOfStockRatio,
+                          List<QuantityBucket> quantities, Instant computedAt) {
+
+    /**
+     * Titres dont le nombre d'exemplaires est compris entre min et max
+     * @param min Borne inférieure incluse
+     * @param max Borne supérieure incluse, null pour la dernière tranche
+     * @param titles Nombre de titres
+     */
+    public record QuantityBucket(int min, Integer max, long titles) {
+    }
+}
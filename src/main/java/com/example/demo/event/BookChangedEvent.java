@@ -0,0 +1,37 @@
+package com.example.demo.event;
+
+import com.example.demo.model.Book;
+
+/**
+ * Événement publié par BookService à chaque modification du catalogue.
+ * Les écouteurs le reçoivent après la validation de la transaction
+ * (@TransactionalEventListener), jamais pour une modification annulée.
+ * @param type Nature de la modification
+ * @param bookId Identifiant du livre concerné
+ * @param book État du livre après modification, null pour une suppression
+ * @param previousQuantity Quantité avant modification, null pour une création ou si elle n'est pas connue
+ */
+public record BookChangedEvent(Type type, Long bookId, Book book, Integer previousQuantity) {
+
+    public enum Type {
+        SAVED,
+        DELETED,
+        QUANTITY_CHANGED
+    }
+
+    public static BookChangedEvent saved(Book book) {
+        return saved(book, null);
+    }
+
+    public static BookChangedEvent saved(Book book, Integer previousQuantity) {
+        return new BookChangedEvent(Type.SAVED, book.getId(), book, previousQuantity);
+    }
+
+    public static BookChangedEvent deleted(Long bookId, Integer previousQuantity) {
+        return new BookChangedEvent(Type.DELETED, bookId, null, previousQuantity);
+    }
+
+    public static BookChangedEvent quantityChanged(Book book, Integer previousQuantity) {
+        return new BookChangedEvent(Type.QUANTITY_CHANGED, book.getId(), book, previousQuantity);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.event;
+
+import com.example.demo.model.Book;
+
+import java.util.List;
+
+/**
+ * Événement publié par BookImportService une fois par lot inséré, au lieu d'un
+ * BookChangedEvent par livre : les écouteurs traitent tout le lot en une fois
+ * (un verrou, une incrémentation de CatalogVersion, un message du flux).
+ * Reçu après la validation de la transaction du lot, comme BookChangedEvent.
+ * @param books Livres créés par le lot, avec leur identifiant
+ */
+public record BooksImportedEvent(List<Book> books) {
+}
@@ -0,0 +1,13 @@
+package com.example.demo.exception;
+
+/**
+ * Levée lorsqu'aucun livre ne correspond à l'identifiant demandé
+ */
+public class BookNotFoundException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BookNotFoundException(Long id) {
+        super("Book not found with id: " + id);
+    }
+}
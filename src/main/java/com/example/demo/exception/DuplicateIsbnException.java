@@ -0,0 +1,14 @@
+package com.example.demo.exception;
+
+/**
+ * Levée lorsqu'un autre livre a déjà le même ISBN, quelle que soit son écriture
+ * (ISBN-10 ou ISBN-13, avec ou sans tirets)
+ */
+public class DuplicateIsbnException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DuplicateIsbnException(String isbn, Long existingId) {
+        super("ISBN " + isbn + " is already used by book " + existingId);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.exception;
+
+import java.util.Collection;
+
+/**
+ * Levée lorsqu'une sortie de stock ferait passer la quantité sous zéro
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InsufficientStockException(Long id, int requested) {
+        super("Insufficient stock for book " + id + ": cannot remove " + requested + " copies");
+    }
+
+    public InsufficientStockException(Collection<Long> ids) {
+        super("Insufficient stock for at least one of books " + ids);
+    }
+}
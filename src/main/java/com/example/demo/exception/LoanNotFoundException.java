@@ -0,0 +1,13 @@
+package com.example.demo.exception;
+
+/**
+ * Levée lorsqu'aucun emprunt ne correspond à l'identifiant demandé
+ */
+public class LoanNotFoundException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public LoanNotFoundException(Long id) {
+        super("Loan not found with id: " + id);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.importer;
+
+import com.example.demo.dto.ImportReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Mode ligne de commande de l'import en masse.
+ *
+ * Exemple :
+ *   java -jar library.jar --spring.main.web-application-type=none \
+ *        --import=catalogue.csv [--import-format=csv|ndjson] [--import-batch-size=2000]
+ *
+ * L'application s'arrête à la fin de l'import avec le code 0, ou 1 si des
+ * enregistrements ont été rejetés.
+ */
+@Component
+public class BookImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportRunner.class);
+
+    @Autowired
+    private BookImportService importService;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption("import")) {
+            return;
+        }
+        Path file = Path.of(single(args, "import"));
+        BookImportService.Format format = args.containsOption("import-format")
+                ? BookImportService.Format.valueOf(single(args, "import-format").toUpperCase(Locale.ROOT))
+                : formatOf(file);
+        int batchSize = args.containsOption("import-batch-size")
+                ? Integer.parseInt(single(args, "import-batch-size"))
+                : importService.getDefaultBatchSize();
+
+        log.info("Importing {} as {} with batches of {}", file, format, batchSize);
+        ImportReport report;
+        try (InputStream input = Files.newInputStream(file)) {
+            report = importService.importBooks(input, format, batchSize);
+        }
+        report.errors().forEach(error -> log.warn("Line {} rejected: {}", error.line(), error.message()));
+        int exitCode = report.rejected() == 0 ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private static String single(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        if (values == null || values.size() != 1) {
+            throw new IllegalArgumentException("Expected exactly one value for --" + name);
+        }
+        return values.get(0);
+    }
+
+    private static BookImportService.Format formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") ? BookImportService.Format.CSV : BookImportService.Format.NDJSON;
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.demo.importer;
+
+import com.example.demo.dto.ImportReport;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.isbn.Isbn;
+import com.example.demo.model.Book;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Import en masse de livres depuis un flux CSV ou NDJSON (un objet JSON par ligne).
+ *
+ * Le flux est lu, validé et inséré par lots : chaque lot est une transaction
+ * dont les INSERT partent en batch JDBC. Si un lot échoue (ISBN en double par
+ * exemple), il est rejoué ligne par ligne pour n'écarter que les lignes fautives.
+ * La mémoire consommée est bornée par la taille d'un lot.
+ *
+ * Chaque lot validé publie un seul BooksImportedEvent : caches, projections et
+ * flux des modifications le traitent en une fois, pas livre par livre.
+ */
+@Service
+public class BookImportService {
+
+    public static final int MAX_BATCH_SIZE = 10_000;
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${library.import.batch-size:1000}")
+    private int defaultBatchSize;
+
+    @Value("${library.import.progress-interval:100000}")
+    private long progressInterval;
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    /** Ligne source en cours de traitement */
+    private record SourceRecord(long line, Book book) {
+    }
+
+    public int getDefaultBatchSize() {
+        return defaultBatchSize;
+    }
+
+    /**
+     * Importe un flux de livres
+     * @param input Le flux source, encodé en UTF-8
+     * @param format Le format du flux
+     * @param batchSize Nombre de livres par transaction, borné à MAX_BATCH_SIZE
+     * @return Le bilan de l'import
+     * @throws IOException Si le flux ne peut pas être lu
+     */
+    public ImportReport importBooks(InputStream input, Format format, int batchSize) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Progress progress = new Progress(Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE)));
+        if (format == Format.CSV) {
+            readCsv(reader, progress);
+        } else {
+            readNdjson(reader, progress);
+        }
+        progress.flush();
+        ImportReport report = progress.report();
+        log.info("Import finished: {} imported, {} rejected out of {} records in {} ms",
+                report.imported(), report.rejected(), report.processed(), report.elapsedMillis());
+        return report;
+    }
+
+    private void readCsv(BufferedReader reader, Progress progress) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                Book book = new Book();
+                book.setTitle(column(fields, columns, "title"));
+                book.setAuthor(column(fields, columns, "author"));
+                book.setIsbn(column(fields, columns, "isbn"));
+                book.setDescription(column(fields, columns, "description"));
+                String quantity = column(fields, columns, "quantity");
+                book.setQuantity(quantity == null || quantity.isBlank() ? 0 : Integer.parseInt(quantity.trim()));
+                progress.accept(csv.recordLine(), book);
+            } catch (NumberFormatException e) {
+                progress.reject(csv.recordLine(), "Invalid quantity: " + e.getMessage());
+            }
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, Progress progress) throws IOException {
+        String text;
+        long line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                progress.accept(line, objectMapper.readValue(text, Book.class));
+            } catch (JsonProcessingException e) {
+                progress.reject(line, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    /**
+     * Accumule les livres validés et insère un lot dès qu'il est plein
+     */
+    private class Progress {
+
+        private final int batchSize;
+        private final long start = System.nanoTime();
+        private final List<SourceRecord> batch;
+        private final List<ImportReport.ImportError> errors = new ArrayList<>();
+        private long processed;
+        private long imported;
+        private long rejected;
+        private int batches;
+
+        Progress(int batchSize) {
+            this.batchSize = batchSize;
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        void accept(long line, Book book) {
+            processed++;
+            book.setId(null);
+            book.setVersion(0);
+            book.setAvailable(book.getQuantity() > 0);
+            Set<ConstraintViolation<Book>> violations = validator.validate(book);
+            if (!violations.isEmpty()) {
+                rejected++;
+                addError(line, violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            if (!Isbn.isValid(book.getIsbn())) {
+                rejected++;
+                addError(line, "isbn is not a valid ISBN-10 or ISBN-13");
+                return;
+            }
+            batch.add(new SourceRecord(line, book));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            processed++;
+            rejected++;
+            addError(line, message);
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(batch));
+                imported += batch.size();
+            } catch (RuntimeException e) {
+                // Le lot a été annulé : on le rejoue ligne par ligne pour isoler les fautives
+                for (SourceRecord record : batch) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> insert(List.of(record)));
+                        imported++;
+                    } catch (RuntimeException rowFailure) {
+                        rejected++;
+                        addError(record.line(), rootMessage(rowFailure));
+                    }
+                }
+            }
+            batches++;
+            long previous = processed - batch.size();
+            if (previous / progressInterval != processed / progressInterval) {
+                long elapsed = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+                log.info("Import progress: {} records processed, {} imported ({} records/s)",
+                        processed, imported, processed * 1000 / elapsed);
+            }
+            batch.clear();
+        }
+
+        ImportReport report() {
+            return new ImportReport(processed, imported, rejected, batches, List.copyOf(errors),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+
+        private void insert(List<SourceRecord> records) {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            List<Book> inserted = new ArrayList<>(records.size());
+            for (SourceRecord record : records) {
+                // Copie : une insertion annulée ne doit pas laisser d'identifiant sur l'objet rejoué
+                Book book = copyOf(record.book());
+                entityManager.persist(book);
+                inserted.add(book);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            eventPublisher.publishEvent(new BooksImportedEvent(inserted));
+        }
+
+        private void addError(long line, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.ImportError(line, message));
+            }
+        }
+    }
+
+    private static Book copyOf(Book source) {
+        Book book = new Book();
+        book.setTitle(source.getTitle());
+        book.setAuthor(source.getAuthor());
+        book.setIsbn(source.getIsbn());
+        book.setDescription(source.getDescription());
+        book.setQuantity(source.getQuantity());
+        book.setAvailable(source.isAvailable());
+        return book;
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.inventory;
+
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.dto.CatalogStats;
+import com.example.demo.event.BookChangedEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.model.Book;
+import com.example.demo.service.CatalogProjection;
+import com.example.demo.service.ProjectionVersions;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Vue matérialisée des disponibilités, tenue à jour à chaque modification
+ * de stock.
+ *
+ * Les identifiants des livres disponibles sont rangés dans un ensemble trié
+ * et concurrent : une page de /api/books/available se lit sans verrou et sans
+ * parcourir la table. Les compteurs agrégés (titres, exemplaires, titres
+ * disponibles) sont maintenus par différence à chaque événement. Un
+ * événement plus ancien que le dernier appliqué pour ce livre est ignoré.
+ */
+@Component
+public class AvailabilityIndex implements CatalogProjection {
+
+    private final NavigableSet<Long> availableIds = new ConcurrentSkipListSet<>();
+    private final Map<Long, Integer> quantities = new HashMap<>();
+
+    private long totalCopies;
+    /** ConcurrentSkipListSet.size() parcourt l'ensemble : le compte est tenu à part */
+    private long availableTitles;
+
+    /** Dernière version appliquée par livre : les états reçus en retard sont ignorés */
+    private final ProjectionVersions versions = new ProjectionVersions();
+    private volatile boolean ready;
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Enregistre l'état courant d'un livre
+     * @param book Le livre créé ou modifié
+     */
+    public synchronized void update(Book book) {
+        if (!versions.advance(book)) {
+            return;
+        }
+        removeLocked(book.getId());
+        addLocked(book);
+    }
+
+    /**
+     * Enregistre un lot de livres importés, sous un seul verrou
+     * @param books Les livres créés
+     */
+    public synchronized void updateAll(List<Book> books) {
+        books.forEach(this::update);
+    }
+
+    /**
+     * Retire un livre supprimé
+     * @param bookId Identifiant du livre
+     */
+    public synchronized void remove(Long bookId) {
+        versions.delete(bookId);
+        removeLocked(bookId);
+    }
+
+    @Override
+    public synchronized void beginRebuild() {
+        availableIds.clear();
+        quantities.clear();
+        totalCopies = 0;
+        availableTitles = 0;
+        versions.clear();
+        ready = false;
+    }
+
+    @Override
+    public synchronized void load(Book book) {
+        update(book);
+    }
+
+    @Override
+    public synchronized void endRebuild() {
+        ready = true;
+    }
+
+    /**
+     * @param afterId Dernier identifiant reçu (null pour la première page)
+     * @param limit Nombre maximal d'identifiants
+     * @return Les identifiants des livres disponibles suivants, par ordre croissant
+     */
+    public List<Long> availableIdsAfter(Long afterId, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        for (Long id : afterId == null ? availableIds : availableIds.tailSet(afterId, false)) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    public synchronized CatalogStats stats() {
+        return new CatalogStats(quantities.size(), totalCopies, availableTitles);
+    }
+
+    @Order(CatalogVersion.BEFORE_VERSION_BUMP)
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.type() == BookChangedEvent.Type.DELETED) {
+            remove(event.bookId());
+        } else {
+            update(event.book());
+        }
+    }
+
+    @Order(CatalogVersion.BEFORE_VERSION_BUMP)
+    @TransactionalEventListener
+    public void onBooksImported(BooksImportedEvent event) {
+        updateAll(event.books());
+    }
+
+    private void addLocked(Book book) {
+        quantities.put(book.getId(), book.getQuantity());
+        totalCopies += book.getQuantity();
+        if (book.isAvailable() && availableIds.add(book.getId())) {
+            availableTitles++;
+        }
+    }
+
+    private void removeLocked(Long bookId) {
+        Integer quantity = quantities.remove(bookId);
+        if (quantity != null) {
+            totalCopies -= quantity;
+        }
+        if (availableIds.remove(bookId)) {
+            availableTitles--;
+        }
+    }
+}
@@ -0,0 +1,571 @@
+package com.example.demo.inventory;
+
+import com.example.demo.event.BookChangedEvent;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.model.Book;
+import com.example.demo.repository.BookRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Regroupement des mises à jour de stock des livres très sollicités
+ * (library.quantity-coalescing.enabled, désactivé par défaut).
+ *
+ * Une quantité fixée (PUT /quantity) ou un ajout d'exemplaires n'écrit plus en
+ * base : il est fusionné avec les mises à jour en attente du même livre, dans un
+ * tampon réparti en STRIPES segments verrouillés séparément. Le tampon est appliqué
+ * toutes les flushInterval, ou dès que maxPending livres sont en attente, par un
+ * seul lot JDBC contenant un UPDATE par livre, quel que soit le nombre d'appels reçus.
+ *
+ * Les lectures par identifiant ou par ISBN voient les quantités en attente
+ * (project). Les retraits restent synchrones, car ils contrôlent le stock :
+ * ils appliquent d'abord les mises à jour en attente du livre dans leur propre
+ * transaction (applyPending), ce qui préserve l'ordre des opérations.
+ *
+ * Une mise à jour retirée du tampon reste « en cours » jusqu'à la fin de la
+ * transaction qui l'applique (passage du tampon, applyPending ou discard) :
+ * applyPending et discard attendent qu'elle soit validée ou annulée avant
+ * d'écrire sur ce livre, si bien qu'aucune écriture synchrone ne peut être
+ * validée entre le retrait et l'application, ni être écrasée par une quantité
+ * fixée remise dans le tampon après un échec. project l'ajoute aux livres lus
+ * avant son application (version antérieure à celle qu'elle a produite).
+ *
+ * Durabilité : un arrêt normal applique le tampon (flushOnShutdown), un arrêt
+ * brutal perd au plus flushInterval de mises à jour. En cas d'échec d'une
+ * application, les mises à jour retournent dans le tampon et seront retentées.
+ */
+@Component
+public class QuantityCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(QuantityCoalescer.class);
+
+    /** Nombre de segments du tampon, puissance de 2 */
+    static final int STRIPES = 16;
+
+    /** Nombre d'identifiants par requête IN (...) lors de la relecture après application */
+    private static final int READ_CHUNK_SIZE = 500;
+
+    /** Attente maximale d'une mise à jour en cours d'application sur le même livre */
+    private static final long IN_FLIGHT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private static final String UPDATE_SQL = "UPDATE book SET quantity = COALESCE(?, quantity) + ?, "
+            + "available = COALESCE(?, quantity) + ? > 0, version = version + 1, updated_at = ? WHERE id = ?";
+
+    /**
+     * Mise à jour en attente d'un livre
+     * @param quantity Quantité fixée, null si seuls des exemplaires ont été ajoutés
+     * @param delta Exemplaires ajoutés après la quantité fixée
+     * @param at Date de la dernière mise à jour fusionnée, en millisecondes
+     */
+    private record Pending(Integer quantity, int delta, long at) {
+
+        /** Fusion avec une mise à jour plus récente */
+        Pending then(Pending next) {
+            return next.quantity != null ? next : new Pending(quantity, delta + next.delta, next.at);
+        }
+
+        int applyTo(int current) {
+            return (quantity != null ? quantity : current) + delta;
+        }
+    }
+
+    /**
+     * Mise à jour retirée du tampon, en cours d'application par une transaction
+     * (accès sous le verrou du segment)
+     */
+    private static final class InFlight {
+
+        private final Thread owner = Thread.currentThread();
+        private Pending pending;
+        /** Version de la ligne une fois la mise à jour appliquée, inconnue avant la relecture */
+        private long appliedVersion = Long.MAX_VALUE;
+
+        InFlight(Pending pending) {
+            this.pending = pending;
+        }
+    }
+
+    /** Segment du tampon : mises à jour en attente et en cours, sous le même verrou */
+    private static final class Stripe {
+
+        private final Map<Long, Pending> pending = new HashMap<>();
+        private final Map<Long, InFlight> inFlight = new HashMap<>();
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicInteger pendingBooks = new AtomicInteger();
+    private final AtomicInteger inFlightBooks = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object flushLock = new Object();
+
+    private final boolean enabled;
+    private final int maxPending;
+    private final boolean flushOnShutdown;
+    private final BookRepository bookRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduledExecutorService executor;
+
+    private final LongAdder buffered;
+    private final LongAdder flushedRows;
+    private final LatencyHistogram flushLatency;
+
+    public QuantityCoalescer(@Value("${library.quantity-coalescing.enabled:false}") boolean enabled,
+                             @Value("${library.quantity-coalescing.flush-interval:200ms}") Duration flushInterval,
+                             @Value("${library.quantity-coalescing.max-pending:1000}") int maxPending,
+                             @Value("${library.quantity-coalescing.flush-on-shutdown:true}") boolean flushOnShutdown,
+                             BookRepository bookRepository,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             MetricsRegistry metrics) {
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        this.flushOnShutdown = flushOnShutdown;
+        this.bookRepository = bookRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.buffered = metrics.counter("quantity_coalescer_updates_total");
+        this.flushedRows = metrics.counter("quantity_coalescer_flushed_rows_total");
+        this.flushLatency = metrics.histogram("quantity_coalescer_flush_seconds");
+        metrics.gauge("quantity_coalescer_pending_books", pendingBooks::get);
+        if (!enabled) {
+            this.executor = null;
+            return;
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quantity-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Quantity coalescing enabled: flush every {} ms or at {} pending books", interval, maxPending);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Fixe la quantité d'un livre au prochain passage
+     * @param bookId Identifiant d'un livre existant
+     * @param quantity Nouvelle quantité, positive ou nulle
+     */
+    public void setQuantity(Long bookId, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative: " + quantity);
+        }
+        buffer(bookId, new Pending(quantity, 0, System.currentTimeMillis()));
+    }
+
+    /**
+     * Ajoute des exemplaires au prochain passage
+     * @param bookId Identifiant d'un livre existant
+     * @param amount Nombre d'exemplaires ajoutés, strictement positif
+     */
+    public void add(Long bookId, int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + amount);
+        }
+        buffer(bookId, new Pending(null, amount, System.currentTimeMillis()));
+    }
+
+    /**
+     * @param book Livre lu en base ou dans le cache, jamais modifié
+     * @return Le livre lui-même sans mise à jour en attente, sinon une copie
+     *         portant la quantité et la date de modification à venir
+     */
+    public Book project(Book book) {
+        if (!enabled || idle()) {
+            return book;
+        }
+        Pending pending;
+        Stripe stripe = stripe(book.getId());
+        synchronized (stripe) {
+            pending = stripe.pending.get(book.getId());
+            InFlight inFlight = stripe.inFlight.get(book.getId());
+            // Livre lu avant que la mise à jour en cours ne soit écrite : elle le précède
+            if (inFlight != null && book.getVersion() < inFlight.appliedVersion) {
+                pending = pending == null ? inFlight.pending : inFlight.pending.then(pending);
+            }
+        }
+        if (pending == null) {
+            return book;
+        }
+        Book projected = copy(book);
+        projected.setQuantity(pending.applyTo(book.getQuantity()));
+        projected.setAvailable(projected.getQuantity() > 0);
+        projected.setUpdatedAt(Instant.ofEpochMilli(pending.at()));
+        return projected;
+    }
+
+    /**
+     * Applique dans la transaction courante les mises à jour en attente des livres
+     * donnés, avant une écriture synchrone, après avoir attendu la fin de celles en
+     * cours d'application sur ces livres. Elles retournent dans le tampon si la
+     * transaction est annulée. Aucun événement n'est publié : l'écriture qui suit s'en charge.
+     * @param bookIds Identifiants des livres
+     * @throws CannotAcquireLockException si une mise à jour en cours ne se termine pas à temps
+     */
+    public void applyPending(Collection<Long> bookIds) {
+        if (!enabled || idle()) {
+            return;
+        }
+        Map<Long, Pending> taken = take(bookIds);
+        if (!taken.isEmpty()) {
+            update(taken);
+            recordVersions(taken.keySet(), 0);
+        }
+    }
+
+    /**
+     * Abandonne les mises à jour en attente d'un livre remplacé par une écriture
+     * complète (PUT /{id}), après avoir attendu la fin de celles en cours
+     * d'application. Elles retournent dans le tampon si la transaction est annulée.
+     * @param bookId Identifiant du livre
+     * @throws CannotAcquireLockException si une mise à jour en cours ne se termine pas à temps
+     */
+    public void discard(Long bookId) {
+        if (enabled && !idle()) {
+            Map<Long, Pending> taken = take(List.of(bookId));
+            if (!taken.isEmpty()) {
+                // Toute version postérieure à celle lue ici vient de l'écriture qui remplace le livre
+                recordVersions(taken.keySet(), 1);
+            }
+        }
+    }
+
+    /**
+     * Applique tout le tampon en une transaction, puis publie l'état relu de chaque
+     * livre modifié. En cas d'échec, les mises à jour retournent dans le tampon.
+     * @return Le nombre de livres mis à jour
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+            Map<Long, InFlight> drained = drain();
+            if (drained.isEmpty()) {
+                return 0;
+            }
+            long start = System.nanoTime();
+            boolean committed = false;
+            try {
+                int updated = transactionTemplate.execute(status -> {
+                    Map<Long, Pending> updates = new HashMap<>();
+                    drained.forEach((bookId, inFlight) -> updates.put(bookId, inFlight.pending));
+                    update(updates);
+                    List<Long> ids = new ArrayList<>(drained.keySet());
+                    int count = 0;
+                    for (int i = 0; i < ids.size(); i += READ_CHUNK_SIZE) {
+                        for (Book book : bookRepository.findAllById(ids.subList(i, Math.min(ids.size(), i + READ_CHUNK_SIZE)))) {
+                            setAppliedVersion(book.getId(), book.getVersion());
+                            Pending applied = updates.get(book.getId());
+                            // Quantité précédente connue seulement pour de purs ajouts d'exemplaires
+                            Integer previous = applied.quantity() == null ? book.getQuantity() - applied.delta() : null;
+                            eventPublisher.publishEvent(BookChangedEvent.quantityChanged(book, previous));
+                            count++;
+                        }
+                    }
+                    return count;
+                });
+                committed = true;
+                flushedRows.add(updated);
+                return updated;
+            } finally {
+                complete(drained, committed);
+                flushLatency.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    public int pendingCount() {
+        return pendingBooks.get();
+    }
+
+    /** @return Le nombre de livres dont une mise à jour est en cours d'application */
+    public int inFlightCount() {
+        return inFlightBooks.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!flushOnShutdown) {
+            if (pendingBooks.get() > 0) {
+                log.warn("Discarding pending quantity updates for {} books on shutdown", pendingBooks.get());
+            }
+            return;
+        }
+        try {
+            int updated = flush();
+            if (updated > 0) {
+                log.info("Flushed pending quantity updates for {} books on shutdown", updated);
+            }
+        } catch (RuntimeException e) {
+            log.error("Lost pending quantity updates for {} books on shutdown", pendingBooks.get(), e);
+        }
+    }
+
+    private void buffer(Long bookId, Pending update) {
+        Stripe stripe = stripe(bookId);
+        boolean added;
+        synchronized (stripe) {
+            Pending previous = stripe.pending.get(bookId);
+            stripe.pending.put(bookId, previous == null ? update : previous.then(update));
+            added = previous == null;
+        }
+        buffered.increment();
+        if (added && pendingBooks.incrementAndGet() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            executor.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Quantity flush failed, {} books still pending: {}", pendingBooks.get(), e.toString());
+        }
+    }
+
+    private void update(Map<Long, Pending> updates) {
+        List<Map.Entry<Long, Pending>> entries = new ArrayList<>(updates.entrySet());
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(UPDATE_SQL, entries, entries.size(), (statement, entry) -> {
+            Pending pending = entry.getValue();
+            for (int offset : new int[] {1, 3}) {
+                if (pending.quantity() == null) {
+                    statement.setNull(offset, Types.INTEGER);
+                } else {
+                    statement.setInt(offset, pending.quantity());
+                }
+                statement.setInt(offset + 1, pending.delta());
+            }
+            statement.setTimestamp(5, now);
+            statement.setLong(6, entry.getKey());
+        });
+    }
+
+    /** Ni mise à jour en attente ni mise à jour en cours : aucun verrou à prendre */
+    private boolean idle() {
+        return pendingBooks.get() == 0 && inFlightBooks.get() == 0;
+    }
+
+    /**
+     * Retire du tampon les mises à jour des livres donnés pour la transaction
+     * courante, une fois terminées celles déjà en cours sur ces livres. Elles
+     * restent en cours jusqu'à la fin de la transaction, et retournent dans le
+     * tampon si elle est annulée.
+     * @return Les mises à jour retirées, à appliquer par l'appelant
+     */
+    private Map<Long, Pending> take(Collection<Long> bookIds) {
+        Map<Long, Pending> taken = new HashMap<>();
+        Map<Long, InFlight> claimed = new HashMap<>();
+        long deadline = System.currentTimeMillis() + IN_FLIGHT_TIMEOUT_MILLIS;
+        try {
+            // Ordre croissant : deux transactions qui attendent chacune l'autre sont impossibles
+            for (Long bookId : new TreeSet<>(bookIds)) {
+                Stripe stripe = stripe(bookId);
+                synchronized (stripe) {
+                    InFlight current = awaitCompletion(stripe, bookId, deadline);
+                    Pending pending = stripe.pending.remove(bookId);
+                    if (pending == null) {
+                        continue;
+                    }
+                    taken.put(bookId, pending);
+                    if (current != null) {
+                        // Déjà en cours dans cette transaction : la fin de transaction déjà prévue s'en charge
+                        current.pending = current.pending.then(pending);
+                        current.appliedVersion = Long.MAX_VALUE;
+                        pendingBooks.decrementAndGet();
+                    } else {
+                        InFlight inFlight = new InFlight(pending);
+                        stripe.inFlight.put(bookId, inFlight);
+                        claimed.put(bookId, inFlight);
+                        inFlightBooks.incrementAndGet();
+                        pendingBooks.decrementAndGet();
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            complete(claimed, false);
+            throw e;
+        }
+        if (!claimed.isEmpty()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        complete(claimed, status == STATUS_COMMITTED);
+                    }
+                });
+            } else {
+                // Hors transaction, chaque écriture est validée aussitôt
+                complete(claimed, true);
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Attend, sous le verrou du segment, la fin de la mise à jour en cours sur un livre
+     * @return La mise à jour en cours si elle appartient à la transaction courante, sinon null
+     */
+    private InFlight awaitCompletion(Stripe stripe, Long bookId, long deadline) {
+        while (true) {
+            InFlight inFlight = stripe.inFlight.get(bookId);
+            if (inFlight == null || inFlight.owner == Thread.currentThread()) {
+                return inFlight;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new CannotAcquireLockException("Quantity update of book " + bookId + " still in progress after "
+                        + IN_FLIGHT_TIMEOUT_MILLIS + " ms");
+            }
+            try {
+                stripe.wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CannotAcquireLockException("Interrupted while waiting for the quantity update of book " + bookId, e);
+            }
+        }
+    }
+
+    /** Retire tout le tampon, hors livres dont une mise à jour est déjà en cours (ils attendront le passage suivant) */
+    private Map<Long, InFlight> drain() {
+        Map<Long, InFlight> drained = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Map.Entry<Long, Pending>> entries = stripe.pending.entrySet().iterator();
+                while (entries.hasNext()) {
+                    Map.Entry<Long, Pending> entry = entries.next();
+                    if (stripe.inFlight.containsKey(entry.getKey())) {
+                        continue;
+                    }
+                    InFlight inFlight = new InFlight(entry.getValue());
+                    stripe.inFlight.put(entry.getKey(), inFlight);
+                    drained.put(entry.getKey(), inFlight);
+                    entries.remove();
+                    inFlightBooks.incrementAndGet();
+                    pendingBooks.decrementAndGet();
+                }
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Termine des mises à jour en cours et réveille les transactions qui les attendent.
+     * Non validées, elles retournent en tête du tampon, avant celles reçues depuis :
+     * aucune autre écriture n'a pu être validée sur ces livres entre-temps.
+     */
+    private void complete(Map<Long, InFlight> updates, boolean committed) {
+        updates.forEach((bookId, inFlight) -> {
+            Stripe stripe = stripe(bookId);
+            synchronized (stripe) {
+                if (stripe.inFlight.remove(bookId) == null) {
+                    return;
+                }
+                inFlightBooks.decrementAndGet();
+                if (!committed) {
+                    Pending newer = stripe.pending.get(bookId);
+                    stripe.pending.put(bookId, newer == null ? inFlight.pending : inFlight.pending.then(newer));
+                    if (newer == null) {
+                        pendingBooks.incrementAndGet();
+                    }
+                }
+                stripe.notifyAll();
+            }
+        });
+    }
+
+    /**
+     * Relève la version des livres dont la mise à jour en cours vient d'être écrite
+     * @param increment Ajouté à la version lue (1 si l'écriture reste à venir)
+     */
+    private void recordVersions(Collection<Long> bookIds, long increment) {
+        List<Long> ids = new ArrayList<>(bookIds);
+        for (int i = 0; i < ids.size(); i += READ_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(i, Math.min(ids.size(), i + READ_CHUNK_SIZE));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT id, version FROM book WHERE id IN (" + placeholders + ")",
+                    (RowCallbackHandler) row -> setAppliedVersion(row.getLong(1), row.getLong(2) + increment),
+                    chunk.toArray());
+        }
+    }
+
+    private void setAppliedVersion(Long bookId, long version) {
+        Stripe stripe = stripe(bookId);
+        synchronized (stripe) {
+            InFlight inFlight = stripe.inFlight.get(bookId);
+            if (inFlight != null) {
+                inFlight.appliedVersion = version;
+            }
+        }
+    }
+
+    private Stripe stripe(Long bookId) {
+        long h = bookId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h >>> 60) & (STRIPES - 1)];
+    }
+
+    private static Book copy(Book book) {
+        Book copy = new Book();
+        copy.setId(book.getId());
+        copy.setTitle(book.getTitle());
+        copy.setAuthor(book.getAuthor());
+        copy.setAuthorKey(book.getAuthorKey());
+        copy.setIsbn(book.getIsbn());
+        copy.setIsbn13(book.getIsbn13());
+        copy.setDescription(book.getDescription());
+        copy.setQuantity(book.getQuantity());
+        copy.setAvailable(book.isAvailable());
+        copy.setVersion(book.getVersion());
+        copy.setUpdatedAt(book.getUpdatedAt());
+        return copy;
+    }
+}
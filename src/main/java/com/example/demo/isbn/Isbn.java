@@ -0,0 +1,121 @@
+package com.example.demo.isbn;
+
+/**
+ * Analyse et validation des ISBN.
+ *
+ * Toutes les écritures d'un même livre (ISBN-10 ou ISBN-13, avec ou sans tirets
+ * ni espaces) sont ramenées à une forme canonique unique : l'ISBN-13 sous forme
+ * d'entier de 13 chiffres, qui tient dans un long. "0-306-40615-2",
+ * "978-0-306-40615-7" et "9780306406157" donnent tous 9780306406157.
+ * L'analyse ne crée aucun objet.
+ */
+public final class Isbn {
+
+    /** Valeur renvoyée par tryParse pour un ISBN invalide, jamais un ISBN-13 valide */
+    public static final long INVALID = 0;
+
+    /** Préfixe 978 des ISBN-10 convertis, suivi de neuf chiffres */
+    private static final long ISBN10_PREFIX = 978_000_000_000L;
+
+    private Isbn() {
+    }
+
+    /**
+     * @param isbn ISBN-10 ou ISBN-13, tirets et espaces ignorés
+     * @return L'ISBN-13 canonique
+     * @throws IllegalArgumentException si l'ISBN est mal formé ou si sa clé de contrôle est fausse
+     */
+    public static long parse(String isbn) {
+        long parsed = tryParse(isbn);
+        if (parsed == INVALID) {
+            throw new IllegalArgumentException("Invalid ISBN: " + isbn);
+        }
+        return parsed;
+    }
+
+    /**
+     * @param isbn ISBN-10 ou ISBN-13, tirets et espaces ignorés, éventuellement null
+     * @return L'ISBN-13 canonique, ou INVALID
+     */
+    public static long tryParse(String isbn) {
+        if (isbn == null) {
+            return INVALID;
+        }
+        long digits = 0;
+        int count = 0;
+        boolean checkX = false;
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            if (checkX) {
+                return INVALID;
+            }
+            if (c >= '0' && c <= '9') {
+                if (++count > 13) {
+                    return INVALID;
+                }
+                digits = digits * 10 + (c - '0');
+            } else if ((c == 'X' || c == 'x') && count == 9) {
+                // Clé de contrôle 10 d'un ISBN-10, forcément en dernière position
+                checkX = true;
+                count++;
+            } else {
+                return INVALID;
+            }
+        }
+        if (count == 10) {
+            return fromIsbn10(digits, checkX);
+        }
+        if (count == 13) {
+            long prefix = digits / 10_000_000_000L;
+            return (prefix == 978 || prefix == 979) && checkDigit13(digits / 10) == digits % 10 ? digits : INVALID;
+        }
+        return INVALID;
+    }
+
+    public static boolean isValid(String isbn) {
+        return tryParse(isbn) != INVALID;
+    }
+
+    /**
+     * @param isbn13 ISBN-13 canonique
+     * @return Ses 13 chiffres, sans tirets
+     */
+    public static String format(long isbn13) {
+        return Long.toString(isbn13);
+    }
+
+    /**
+     * @param digits Les neuf premiers chiffres, suivis de la clé si elle n'est pas X
+     * @param checkX Clé de contrôle X (10)
+     */
+    private static long fromIsbn10(long digits, boolean checkX) {
+        long body = checkX ? digits : digits / 10;
+        int check = checkX ? 10 : (int) (digits % 10);
+        int sum = 0;
+        long rest = body;
+        for (int weight = 2; weight <= 10; weight++) {
+            sum += (int) (rest % 10) * weight;
+            rest /= 10;
+        }
+        if ((sum + check) % 11 != 0) {
+            return INVALID;
+        }
+        long twelve = ISBN10_PREFIX + body;
+        return twelve * 10 + checkDigit13(twelve);
+    }
+
+    /** Clé de contrôle EAN-13 des douze premiers chiffres */
+    private static int checkDigit13(long twelve) {
+        int sum = 0;
+        long rest = twelve;
+        for (int i = 0; i < 12; i++) {
+            // Depuis la droite, le douzième chiffre a le poids 3
+            sum += (int) (rest % 10) * (i % 2 == 0 ? 3 : 1);
+            rest /= 10;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
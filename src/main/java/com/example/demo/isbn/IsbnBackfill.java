@@ -0,0 +1,94 @@
+package com.example.demo.isbn;
+
+import com.example.demo.model.Book;
+import com.example.demo.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Complète au démarrage la colonne isbn13 des livres créés avant son
+ * introduction, par lots de BATCH_SIZE lignes (un lot JDBC par transaction).
+ * Les ISBN invalides, et ceux qui font doublon avec un livre déjà complété,
+ * restent sans ISBN-13 et sont signalés dans le journal.
+ */
+@Component
+public class IsbnBackfill {
+
+    static final int BATCH_SIZE = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(IsbnBackfill.class);
+
+    private record Progress(int read, int updated, long lastId, List<Long> skipped) {
+    }
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long updated = 0;
+        long lastId = 0;
+        List<Long> skipped = new ArrayList<>();
+        Progress batch;
+        do {
+            long afterId = lastId;
+            batch = transactionTemplate.execute(status -> backfillBatch(afterId));
+            updated += batch.updated();
+            lastId = batch.lastId();
+            skipped.addAll(batch.skipped());
+        } while (batch.read() == BATCH_SIZE);
+        if (updated > 0) {
+            log.info("Backfilled isbn13 for {} books", updated);
+        }
+        if (!skipped.isEmpty()) {
+            log.warn("{} books have an invalid or duplicate ISBN and no isbn13, first ids: {}",
+                    skipped.size(), skipped.subList(0, Math.min(20, skipped.size())));
+        }
+    }
+
+    private Progress backfillBatch(long afterId) {
+        List<Book> books = bookRepository.findByIsbn13IsNullAndIdGreaterThanOrderByIdAsc(afterId, Limit.of(BATCH_SIZE));
+        List<Long> skipped = new ArrayList<>();
+        List<long[]> updates = new ArrayList<>(books.size());
+        Set<Long> seen = new HashSet<>();
+        for (Book book : books) {
+            long isbn13 = Isbn.tryParse(book.getIsbn());
+            if (isbn13 == Isbn.INVALID || !seen.add(isbn13)) {
+                skipped.add(book.getId());
+            } else {
+                updates.add(new long[] {book.getId(), isbn13});
+            }
+        }
+        // Doublons d'un livre déjà complété : l'index unique refuserait tout le lot
+        Set<Long> existing = new HashSet<>();
+        if (!seen.isEmpty()) {
+            bookRepository.findByIsbn13In(seen).forEach(book -> existing.add(book.getIsbn13()));
+        }
+        updates.removeIf(update -> existing.contains(update[1]) && skipped.add(update[0]));
+        jdbcTemplate.batchUpdate("UPDATE book SET isbn13 = ? WHERE id = ?", updates, updates.size(),
+                (statement, update) -> {
+                    statement.setLong(1, update[1]);
+                    statement.setLong(2, update[0]);
+                });
+        long lastId = books.isEmpty() ? afterId : books.get(books.size() - 1).getId();
+        return new Progress(books.size(), updates.size(), lastId, skipped);
+    }
+}
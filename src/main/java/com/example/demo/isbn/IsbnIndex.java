@@ -0,0 +1,142 @@
+package com.example.demo.isbn;
+
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.event.BookChangedEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.model.Book;
+import com.example.demo.service.CatalogProjection;
+import com.example.demo.service.ProjectionVersions;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Index en mémoire ISBN-13 canonique → identifiant du livre, qui résout
+ * findByIsbn et la détection des doublons sans requête ni objet par entrée
+ * (deux LongLongHashMap : l'index lui-même et l'index inverse identifiant → ISBN-13,
+ * nécessaire pour retirer un livre supprimé ou dont l'ISBN change).
+ *
+ * L'ISBN-13 est recalculé depuis Book.isbn, ce qui couvre aussi les lignes
+ * dont la colonne isbn13 n'a pas encore été renseignée (voir IsbnBackfill).
+ * Un état plus ancien que le dernier appliqué (Book.version) est ignoré : un
+ * événement livré en retard ne rend pas à un livre un ISBN qu'il n'a plus.
+ */
+@Component
+public class IsbnIndex implements CatalogProjection {
+
+    private final LongLongHashMap idByIsbn = new LongLongHashMap(1024);
+    private final LongLongHashMap isbnById = new LongLongHashMap(1024);
+
+    /** Dernière version appliquée par livre : les états reçus en retard sont ignorés */
+    private final ProjectionVersions versions = new ProjectionVersions();
+    private volatile boolean ready;
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @param isbn13 ISBN-13 canonique (voir Isbn.parse)
+     * @return L'identifiant du livre, ou null si aucun livre n'a cet ISBN
+     */
+    public Long findId(long isbn13) {
+        long id = idByIsbn.get(isbn13);
+        return id == LongLongHashMap.NO_VALUE ? null : id;
+    }
+
+    /**
+     * Enregistre l'état courant d'un livre
+     * @param book Le livre créé ou modifié
+     */
+    public synchronized void update(Book book) {
+        if (!versions.advance(book)) {
+            return;
+        }
+        long isbn13 = Isbn.tryParse(book.getIsbn());
+        if (isbn13 != Isbn.INVALID && isbnById.get(book.getId()) == isbn13 && idByIsbn.get(isbn13) == book.getId()) {
+            // ISBN inchangé, le cas de toute variation de stock
+            return;
+        }
+        removeLocked(book.getId());
+        addLocked(book);
+    }
+
+    /**
+     * Enregistre un lot de livres importés, sous un seul verrou
+     * @param books Les livres créés
+     */
+    public synchronized void updateAll(List<Book> books) {
+        books.forEach(this::update);
+    }
+
+    /**
+     * Retire un livre supprimé
+     * @param bookId Identifiant du livre
+     */
+    public synchronized void remove(Long bookId) {
+        versions.delete(bookId);
+        removeLocked(bookId);
+    }
+
+    @Override
+    public synchronized void beginRebuild() {
+        idByIsbn.clear();
+        isbnById.clear();
+        versions.clear();
+        ready = false;
+    }
+
+    @Override
+    public synchronized void load(Book book) {
+        update(book);
+    }
+
+    @Override
+    public synchronized void endRebuild() {
+        ready = true;
+    }
+
+    public int size() {
+        return idByIsbn.size();
+    }
+
+    /** @return La mémoire occupée par les deux tables et les versions appliquées, en octets */
+    public long memoryBytes() {
+        return idByIsbn.memoryBytes() + isbnById.memoryBytes() + versions.memoryBytes();
+    }
+
+    @Order(CatalogVersion.BEFORE_VERSION_BUMP)
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.type() == BookChangedEvent.Type.DELETED) {
+            remove(event.bookId());
+        } else {
+            // Une variation de stock porte aussi l'état complet : elle fait avancer la version
+            update(event.book());
+        }
+    }
+
+    @Order(CatalogVersion.BEFORE_VERSION_BUMP)
+    @TransactionalEventListener
+    public void onBooksImported(BooksImportedEvent event) {
+        updateAll(event.books());
+    }
+
+    private void addLocked(Book book) {
+        long isbn13 = Isbn.tryParse(book.getIsbn());
+        if (isbn13 != Isbn.INVALID) {
+            idByIsbn.put(isbn13, book.getId());
+            isbnById.put(book.getId(), isbn13);
+        }
+    }
+
+    private void removeLocked(Long bookId) {
+        long isbn13 = isbnById.remove(bookId);
+        if (isbn13 != LongLongHashMap.NO_VALUE && idByIsbn.get(isbn13) == bookId) {
+            idByIsbn.remove(isbn13);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.demo.isbn;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Table de hachage long → long à adressage ouvert (sondage linéaire), sans
+ * objet par entrée : clés et valeurs sont rangées côte à côte dans un seul
+ * long[], soit 16 octets par case et au plus 32 octets par entrée avec un
+ * taux de remplissage de MAX_LOAD. Une HashMap<String, Long> en consomme
+ * plus de 100 (String, tableau d'octets, Long et nœud).
+ *
+ * La clé 0 est réservée aux cases vides. Les suppressions décalent les
+ * entrées suivantes au lieu de laisser des marques, ce qui garde les
+ * sondages courts. Les lectures sont optimistes (StampedLock) : sans écriture
+ * concurrente, elles ne prennent aucun verrou ; les écritures sont exclusives.
+ */
+public class LongLongHashMap {
+
+    /** Valeur renvoyée pour une clé absente */
+    public static final long NO_VALUE = -1;
+
+    private static final double MAX_LOAD = 0.5;
+
+    private final StampedLock lock = new StampedLock();
+    /** Clé de la case i en 2i, valeur en 2i + 1 */
+    private long[] table;
+    private int size;
+
+    /**
+     * @param expectedSize Nombre d'entrées prévu, la table grossit au besoin
+     */
+    public LongLongHashMap(int expectedSize) {
+        table = new long[2 * capacityFor(expectedSize)];
+    }
+
+    /**
+     * @param key Clé non nulle
+     * @return La valeur associée, ou NO_VALUE
+     */
+    public long get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        long value = find(table, key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = find(table, key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @param key Clé non nulle
+     * @param value Valeur différente de NO_VALUE
+     * @return La valeur remplacée, ou NO_VALUE
+     */
+    public long put(long key, long value) {
+        if (key == 0 || value == NO_VALUE) {
+            throw new IllegalArgumentException("Reserved key or value: " + key + " -> " + value);
+        }
+        long stamp = lock.writeLock();
+        try {
+            int slots = table.length >> 1;
+            if (size + 1 > slots * MAX_LOAD) {
+                resize(2 * slots);
+            }
+            int mask = (table.length >> 1) - 1;
+            for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+                long current = table[2 * slot];
+                if (current == 0) {
+                    table[2 * slot] = key;
+                    table[2 * slot + 1] = value;
+                    size++;
+                    return NO_VALUE;
+                }
+                if (current == key) {
+                    long previous = table[2 * slot + 1];
+                    table[2 * slot + 1] = value;
+                    return previous;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param key Clé non nulle
+     * @return La valeur retirée, ou NO_VALUE
+     */
+    public long remove(long key) {
+        long stamp = lock.writeLock();
+        try {
+            int mask = (table.length >> 1) - 1;
+            for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+                long current = table[2 * slot];
+                if (current == 0) {
+                    return NO_VALUE;
+                }
+                if (current == key) {
+                    long previous = table[2 * slot + 1];
+                    shiftBack(slot, mask);
+                    size--;
+                    return previous;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = new long[2 * capacityFor(0)];
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** @return La taille de la table en octets */
+    public long memoryBytes() {
+        long stamp = lock.readLock();
+        try {
+            return 8L * table.length;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Recherche sur une table éventuellement modifiée en parallèle (lecture optimiste) :
+     * le nombre de cases visitées est borné, le résultat est validé par l'appelant.
+     */
+    private static long find(long[] table, long key) {
+        int slots = table.length >> 1;
+        int mask = slots - 1;
+        int slot = slot(key, mask);
+        for (int probes = 0; probes < slots; probes++, slot = (slot + 1) & mask) {
+            long current = table[2 * slot];
+            if (current == key) {
+                return table[2 * slot + 1];
+            }
+            if (current == 0) {
+                return NO_VALUE;
+            }
+        }
+        return NO_VALUE;
+    }
+
+    /** Suppression sans marque : remonte les entrées dont la case idéale précède le trou */
+    private void shiftBack(int hole, int mask) {
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = table[2 * slot];
+            if (key == 0) {
+                break;
+            }
+            int ideal = slot(key, mask);
+            // L'entrée peut combler le trou si sa case idéale n'est pas entre le trou (exclu) et elle
+            if (((slot - ideal) & mask) >= ((slot - hole) & mask)) {
+                table[2 * hole] = key;
+                table[2 * hole + 1] = table[2 * slot + 1];
+                hole = slot;
+            }
+        }
+        table[2 * hole] = 0;
+        table[2 * hole + 1] = 0;
+    }
+
+    private void resize(int newSlots) {
+        long[] old = table;
+        long[] resized = new long[2 * newSlots];
+        int mask = newSlots - 1;
+        for (int i = 0; i < old.length; i += 2) {
+            long key = old[i];
+            if (key != 0) {
+                int slot = slot(key, mask);
+                while (resized[2 * slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                resized[2 * slot] = key;
+                resized[2 * slot + 1] = old[i + 1];
+            }
+        }
+        table = resized;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int slots = 16;
+        while (slots * MAX_LOAD < expectedSize) {
+            slots <<= 1;
+        }
+        return slots;
+    }
+}
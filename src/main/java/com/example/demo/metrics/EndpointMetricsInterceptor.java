@@ -0,0 +1,55 @@
+package com.example.demo.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mesure la latence de chaque endpoint, étiquetée par méthode HTTP, motif
+ * d'URL (/api/books/{id} et non l'URL réelle) et statut de la réponse.
+ * Pour les réponses en flux, la mesure couvre l'écriture complète du corps.
+ */
+public class EndpointMetricsInterceptor implements HandlerInterceptor {
+
+    static final String METRIC = "http_server_requests_seconds";
+    private static final String START_ATTRIBUTE = EndpointMetricsInterceptor.class.getName() + ".start";
+
+    private record EndpointKey(String method, String uri, int status) {
+    }
+
+    private final MetricsRegistry registry;
+    private final Map<EndpointKey, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public EndpointMetricsInterceptor(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Lors du second passage d'une requête asynchrone, on garde l'heure de début initiale
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        request.removeAttribute(START_ATTRIBUTE);
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        EndpointKey key = new EndpointKey(request.getMethod(),
+                pattern != null ? pattern.toString() : "UNKNOWN",
+                ex != null && response.getStatus() < 400 ? 500 : response.getStatus());
+        histograms.computeIfAbsent(key, k -> registry.histogram(METRIC,
+                        "method", k.method(), "uri", k.uri(), "status", Integer.toString(k.status())))
+                .record(System.nanoTime() - (Long) start);
+    }
+}
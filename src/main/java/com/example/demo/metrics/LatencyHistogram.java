@@ -0,0 +1,65 @@
+package com.example.demo.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de latences à bornes fixes, au format des histogrammes Prometheus.
+ *
+ * L'enregistrement est sans verrou : une recherche linéaire sur une quinzaine
+ * de bornes puis deux incréments atomiques. Le coût reste de l'ordre de
+ * quelques dizaines de nanosecondes, ce qui permet de le laisser actif en charge.
+ */
+public class LatencyHistogram {
+
+    /** Bornes supérieures des buckets, en secondes */
+    static final double[] BOUNDS_SECONDS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private static final long[] BOUNDS_NANOS = new long[BOUNDS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BOUNDS_SECONDS.length; i++) {
+            BOUNDS_NANOS[i] = (long) (BOUNDS_SECONDS[i] * 1_000_000_000L);
+        }
+    }
+
+    /** Un bucket par borne, plus un pour +Inf */
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_NANOS.length + 1);
+    private final LongAdder sumNanos = new LongAdder();
+
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * @return Les effectifs cumulés par borne (le dernier élément correspond à +Inf et vaut le total)
+     */
+    public long[] cumulativeCounts() {
+        long[] counts = new long[buckets.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += buckets.get(i);
+            counts[i] = total;
+        }
+        return counts;
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            total += buckets.get(i);
+        }
+        return total;
+    }
+
+    public double sumSeconds() {
+        return sumNanos.sum() / 1e9;
+    }
+}
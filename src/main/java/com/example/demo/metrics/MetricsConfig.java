@@ -0,0 +1,98 @@
+package com.example.demo.metrics;
+
+import com.example.demo.admission.PoolWaitMonitor;
+import com.example.demo.author.AuthorIndex;
+import com.example.demo.cache.BookCache;
+import com.example.demo.changes.ChangeFeed;
+import com.example.demo.isbn.IsbnIndex;
+import com.example.demo.search.BookSearchIndex;
+import com.example.demo.security.CachingAuthenticationProvider;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Configuration des métriques : chronométrage des endpoints et des repositories,
+ * instrumentation du pool de connexions et jauges des structures en mémoire.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private BookSearchIndex searchIndex;
+
+    @Autowired
+    private CachingAuthenticationProvider authenticationProvider;
+
+    @Autowired
+    private AuthorIndex authorIndex;
+
+    @Autowired
+    private IsbnIndex isbnIndex;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new EndpointMetricsInterceptor(metricsRegistry));
+    }
+
+    @Bean
+    public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(
+            ObjectProvider<MetricsRegistry> registry,
+            @Value("${library.metrics.slow-query-threshold:250ms}") Duration slowQueryThreshold) {
+        return new RepositoryMetricsPostProcessor(registry, slowQueryThreshold);
+    }
+
+    @Bean
+    public static BeanPostProcessor poolMetricsPostProcessor(ObjectProvider<MetricsRegistry> registry,
+                                                             ObjectProvider<PoolWaitMonitor> poolWaitMonitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && dataSource.getMetricsTrackerFactory() == null) {
+                    dataSource.setMetricsTrackerFactory(
+                            new PoolMetricsTrackerFactory(registry.getObject(), poolWaitMonitor.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @PostConstruct
+    public void registerGauges() {
+        for (String cache : bookCache.stats().keySet()) {
+            metricsRegistry.gauge("cache_hits_total", () -> bookCache.stats().get(cache).hits(), "cache", cache);
+            metricsRegistry.gauge("cache_misses_total", () -> bookCache.stats().get(cache).misses(), "cache", cache);
+            metricsRegistry.gauge("cache_evictions_total", () -> bookCache.stats().get(cache).evictions(), "cache", cache);
+            metricsRegistry.gauge("cache_size", () -> bookCache.stats().get(cache).size(), "cache", cache);
+        }
+        metricsRegistry.gauge("cache_hits_total", () -> authenticationProvider.stats().hits(), "cache", "authentication");
+        metricsRegistry.gauge("cache_misses_total", () -> authenticationProvider.stats().misses(), "cache", "authentication");
+        metricsRegistry.gauge("cache_size", () -> authenticationProvider.stats().size(), "cache", "authentication");
+        metricsRegistry.gauge("search_index_documents", searchIndex::size);
+        metricsRegistry.gauge("author_index_entries", authorIndex::size);
+        metricsRegistry.gauge("isbn_index_entries", isbnIndex::size);
+        metricsRegistry.gauge("isbn_index_bytes", isbnIndex::memoryBytes);
+        metricsRegistry.gauge("search_index_bytes", searchIndex::memoryBytes);
+        metricsRegistry.gauge("change_feed_subscribers", changeFeed::subscriberCount);
+        metricsRegistry.gauge("change_feed_dropped_total", changeFeed::droppedCount);
+        metricsRegistry.gauge("change_feed_stale_total", changeFeed::staleCount);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Export des métriques au format Prometheus, sur le chemin utilisé par
+ * défaut par Spring Boot Actuator pour rester compatible avec les
+ * configurations de collecte existantes.
+ */
+@RestController
+public class MetricsController {
+
+    static final String PROMETHEUS_CONTENT_TYPE = "text/plain;version=0.0.4;charset=utf-8";
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @GetMapping(value = "/actuator/prometheus", produces = PROMETHEUS_CONTENT_TYPE)
+    public ResponseEntity<String> scrape() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        metricsRegistry.scrape(out);
+        return new ResponseEntity<>(out.toString(), HttpStatus.OK);
+    }
+}
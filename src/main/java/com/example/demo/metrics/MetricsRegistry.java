@@ -0,0 +1,131 @@
+package com.example.demo.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Registre des métriques de l'application : histogrammes de latence,
+ * compteurs et jauges, exportés au format texte Prometheus.
+ *
+ * Les étiquettes sont passées en paires clé / valeur :
+ * histogram("db_query_seconds", "method", "findById").
+ */
+@Component
+public class MetricsRegistry {
+
+    private record MetricId(String name, String labels) {
+    }
+
+    private static final Comparator<MetricId> ORDER =
+            Comparator.comparing(MetricId::name).thenComparing(MetricId::labels);
+
+    private final Map<MetricId, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<MetricId, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<MetricId, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+
+    public LatencyHistogram histogram(String name, String... labels) {
+        return histograms.computeIfAbsent(new MetricId(name, formatLabels(labels)), id -> new LatencyHistogram());
+    }
+
+    public LongAdder counter(String name, String... labels) {
+        return counters.computeIfAbsent(new MetricId(name, formatLabels(labels)), id -> new LongAdder());
+    }
+
+    /**
+     * Enregistre une jauge lue à chaque export
+     * @param name Nom de la métrique
+     * @param value Fournisseur de la valeur courante
+     * @param labels Paires clé / valeur d'étiquettes
+     */
+    public void gauge(String name, Supplier<? extends Number> value, String... labels) {
+        gauges.put(new MetricId(name, formatLabels(labels)), value);
+    }
+
+    /**
+     * Écrit toutes les métriques au format d'exposition texte Prometheus 0.0.4
+     * @param out Destination
+     */
+    public void scrape(StringBuilder out) {
+        String previous = null;
+        for (MetricId id : sorted(counters.keySet())) {
+            previous = typeLine(out, previous, id.name(), "counter");
+            sample(out, id.name(), id.labels(), counters.get(id).sum());
+        }
+        for (MetricId id : sorted(gauges.keySet())) {
+            previous = typeLine(out, previous, id.name(), "gauge");
+            Number value = gauges.get(id).get();
+            sample(out, id.name(), id.labels(), value == null ? Double.NaN : value.doubleValue());
+        }
+        for (MetricId id : sorted(histograms.keySet())) {
+            previous = typeLine(out, previous, id.name(), "histogram");
+            LatencyHistogram histogram = histograms.get(id);
+            long[] counts = histogram.cumulativeCounts();
+            for (int i = 0; i < counts.length; i++) {
+                String le = i < LatencyHistogram.BOUNDS_SECONDS.length
+                        ? Double.toString(LatencyHistogram.BOUNDS_SECONDS[i])
+                        : "+Inf";
+                String labels = id.labels().isEmpty() ? "le=\"" + le + "\"" : id.labels() + ",le=\"" + le + "\"";
+                sample(out, id.name() + "_bucket", labels, counts[i]);
+            }
+            sample(out, id.name() + "_sum", id.labels(), histogram.sumSeconds());
+            sample(out, id.name() + "_count", id.labels(), counts[counts.length - 1]);
+        }
+    }
+
+    private static List<MetricId> sorted(Set<MetricId> ids) {
+        return ids.stream().sorted(ORDER).toList();
+    }
+
+    private static String typeLine(StringBuilder out, String previous, String name, String type) {
+        if (!name.equals(previous)) {
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+        return name;
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    static String formatLabels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be key/value pairs");
+        }
+        StringBuilder formatted = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                formatted.append(',');
+            }
+            formatted.append(labels[i]).append("=\"");
+            String value = labels[i + 1] == null ? "" : labels[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                switch (ch) {
+                    case '\\' -> formatted.append("\\\\");
+                    case '"' -> formatted.append("\\\"");
+                    case '\n' -> formatted.append("\\n");
+                    default -> formatted.append(ch);
+                }
+            }
+            formatted.append('"');
+        }
+        return formatted.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.metrics;
+
+import com.example.demo.admission.PoolWaitMonitor;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Branche le pool Hikari sur le registre : jauges de connexions actives,
+ * inactives et de threads en attente, histogramme du temps d'obtention
+ * d'une connexion et compteur des délais dépassés.
+ */
+public class PoolMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    private final MetricsRegistry registry;
+    private final PoolWaitMonitor poolWaitMonitor;
+
+    public PoolMetricsTrackerFactory(MetricsRegistry registry) {
+        this(registry, null);
+    }
+
+    /**
+     * @param registry Registre des métriques
+     * @param poolWaitMonitor Reçoit aussi chaque temps d'obtention (délestage), null si inutile
+     */
+    public PoolMetricsTrackerFactory(MetricsRegistry registry, PoolWaitMonitor poolWaitMonitor) {
+        this.registry = registry;
+        this.poolWaitMonitor = poolWaitMonitor;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        registry.gauge("db_pool_connections_active", poolStats::getActiveConnections, "pool", poolName);
+        registry.gauge("db_pool_connections_idle", poolStats::getIdleConnections, "pool", poolName);
+        registry.gauge("db_pool_connections_max", poolStats::getMaxConnections, "pool", poolName);
+        registry.gauge("db_pool_pending_threads", poolStats::getPendingThreads, "pool", poolName);
+        LatencyHistogram acquire = registry.histogram("db_pool_acquire_seconds", "pool", poolName);
+        LatencyHistogram usage = registry.histogram("db_pool_usage_seconds", "pool", poolName);
+        LongAdder timeouts = registry.counter("db_pool_timeouts_total", "pool", poolName);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquire.record(elapsedAcquiredNanos);
+                if (poolWaitMonitor != null) {
+                    poolWaitMonitor.record(elapsedAcquiredNanos);
+                }
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usage.record(elapsedBorrowedMillis * 1_000_000);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Ajoute un chronométrage à chaque méthode des repositories Spring Data :
+ * histogramme db_query_seconds, compteur de lignes retournées db_query_rows_total
+ * et journal des requêtes lentes (logger "slow-query") au-delà d'un seuil.
+ *
+ * L'intercepteur est inséré juste après l'intercepteur transactionnel du proxy
+ * existant : la mesure couvre la requête et son exécution, pas le commit.
+ */
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("slow-query");
+
+    private final ObjectProvider<MetricsRegistry> registry;
+    private final long slowQueryThresholdNanos;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MetricsRegistry> registry, Duration slowQueryThreshold) {
+        this.registry = registry;
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Repository<?, ?> && bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(insertionIndex(advised), new TimingInterceptor(beanName));
+        }
+        return bean;
+    }
+
+    private static int insertionIndex(Advised advised) {
+        Advisor[] advisors = advised.getAdvisors();
+        for (int i = 0; i < advisors.length; i++) {
+            if (advisors[i].getAdvice() instanceof TransactionInterceptor) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private record MethodMetrics(String name, LatencyHistogram histogram, LongAdder rows) {
+    }
+
+    private class TimingInterceptor implements MethodInterceptor {
+
+        private final String repository;
+        private final Map<Method, MethodMetrics> metrics = new ConcurrentHashMap<>();
+
+        TimingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            if (method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = invocation.proceed();
+                return result;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                MethodMetrics methodMetrics = metrics.computeIfAbsent(method, this::register);
+                methodMetrics.histogram().record(elapsed);
+                long rows = rows(result);
+                if (rows > 0) {
+                    methodMetrics.rows().add(rows);
+                }
+                if (elapsed > slowQueryThresholdNanos) {
+                    slowQueryLog.warn("{} took {} ms ({} rows)", methodMetrics.name(), elapsed / 1_000_000, rows);
+                }
+            }
+        }
+
+        private MethodMetrics register(Method method) {
+            MetricsRegistry metricsRegistry = registry.getObject();
+            return new MethodMetrics(repository + "." + method.getName(),
+                    metricsRegistry.histogram("db_query_seconds", "repository", repository, "method", method.getName()),
+                    metricsRegistry.counter("db_query_rows_total", "repository", repository, "method", method.getName()));
+        }
+
+        /** Nombre de lignes lues, ou modifiées pour une requête @Modifying ; -1 si inconnu (flux) */
+        private static long rows(Object result) {
+            if (result == null) {
+                return 0;
+            }
+            if (result instanceof Collection<?> collection) {
+                return collection.size();
+            }
+            if (result instanceof Slice<?> slice) {
+                return slice.getNumberOfElements();
+            }
+            if (result instanceof Optional<?> optional) {
+                return optional.isPresent() ? 1 : 0;
+            }
+            if (result instanceof Stream<?>) {
+                return -1;
+            }
+            if (result instanceof Integer count) {
+                return count;
+            }
+            if (result instanceof Boolean || result instanceof Long) {
+                return 0;
+            }
+            if (result instanceof Iterable<?> iterable) {
+                return iterable.spliterator().getExactSizeIfKnown();
+            }
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.migration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Applique les migrations avant la création de l'EntityManagerFactory,
+ * pour que la validation du schéma par Hibernate porte sur la version à jour.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.migrations.enabled", matchIfMissing = true)
+public class MigrationConfig {
+
+    @Bean(initMethod = "migrate")
+    public SchemaMigrator schemaMigrator(
+            DataSource dataSource,
+            @Value("${library.migrations.location:classpath:db/migration}") String location) {
+        return new SchemaMigrator(dataSource, location);
+    }
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnSchemaMigrator() {
+        return new EntityManagerFactoryDependsOnPostProcessor("schemaMigrator");
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.demo.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Migrations versionnées du schéma, à la place du diff de ddl-auto=update.
+ *
+ * Les scripts V<version>__<description>.sql sont appliqués une seule fois, par
+ * ordre de version, et enregistrés dans schema_version avec leur somme CRC32.
+ * Au démarrage, un script déjà appliqué dont le contenu a changé arrête
+ * l'application : une migration publiée ne se modifie pas, on en ajoute une nouvelle.
+ * Hibernate se contente ensuite de valider le schéma (ddl-auto=validate).
+ *
+ * Tout se fait dans une transaction protégée par un verrou consultatif PostgreSQL :
+ * plusieurs instances démarrées en même temps n'appliquent chaque script qu'une fois.
+ */
+public class SchemaMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    /** Clé du verrou consultatif partagé par toutes les instances */
+    private static final long LOCK_KEY = 0x4C49425241525931L;
+
+    record Migration(int version, String description, long checksum, Resource script) {
+    }
+
+    private final DataSource dataSource;
+    private final String location;
+
+    /**
+     * @param dataSource Base à migrer
+     * @param location Dossier des scripts, par exemple classpath:db/migration
+     */
+    public SchemaMigrator(DataSource dataSource, String location) {
+        this.dataSource = dataSource;
+        this.location = location;
+    }
+
+    public void migrate() {
+        List<Migration> migrations = findMigrations();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                int applied = migrate(connection, migrations);
+                connection.commit();
+                if (applied > 0) {
+                    log.info("Applied {} schema migration(s), schema is at version {}",
+                            applied, migrations.get(migrations.size() - 1).version());
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Schema migration failed", e);
+        }
+    }
+
+    private int migrate(Connection connection, List<Migration> migrations) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version integer PRIMARY KEY, "
+                    + "description varchar(200) NOT NULL, "
+                    + "checksum bigint NOT NULL, "
+                    + "installed_at timestamp with time zone NOT NULL DEFAULT now())");
+        }
+        Map<Integer, Long> installed = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rows.next()) {
+                installed.put(rows.getInt(1), rows.getLong(2));
+            }
+        }
+
+        int applied = 0;
+        for (Migration migration : migrations) {
+            Long checksum = installed.remove(migration.version());
+            if (checksum != null) {
+                if (checksum != migration.checksum()) {
+                    throw new IllegalStateException("Migration V" + migration.version()
+                            + " was modified after being applied (checksum " + checksum + " in schema_version, "
+                            + migration.checksum() + " on disk)");
+                }
+                continue;
+            }
+            log.info("Applying schema migration V{} ({})", migration.version(), migration.description());
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.script(), StandardCharsets.UTF_8));
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description, checksum) VALUES (?, ?, ?)")) {
+                insert.setInt(1, migration.version());
+                insert.setString(2, migration.description());
+                insert.setLong(3, migration.checksum());
+                insert.executeUpdate();
+            }
+            applied++;
+        }
+        if (!installed.isEmpty()) {
+            // Base migrée par une version plus récente de l'application (déploiement progressif)
+            log.warn("Database has schema migrations unknown to this version: {}", installed.keySet());
+        }
+        return applied;
+    }
+
+    /**
+     * @return Les scripts du dossier, triés par version
+     */
+    List<Migration> findMigrations() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(location + "/V*__*.sql");
+            List<Migration> migrations = new ArrayList<>(resources.length);
+            for (Resource resource : resources) {
+                Matcher name = SCRIPT_NAME.matcher(resource.getFilename());
+                if (!name.matches()) {
+                    throw new IllegalStateException("Invalid migration name: " + resource.getFilename());
+                }
+                migrations.add(new Migration(Integer.parseInt(name.group(1)), name.group(2).replace('_', ' '),
+                        checksum(resource), resource));
+            }
+            migrations.sort(Comparator.comparingInt(Migration::version));
+            for (int i = 1; i < migrations.size(); i++) {
+                if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+                    throw new IllegalStateException("Duplicate migration version V" + migrations.get(i).version());
+                }
+            }
+            return migrations;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** CRC32 du script, fins de ligne normalisées pour ne pas dépendre du système */
+    private static long checksum(Resource resource) throws IOException {
+        String content = resource.getContentAsString(StandardCharsets.UTF_8).replace("\r\n", "\n");
+        CRC32 crc = new CRC32();
+        crc.update(content.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -1,36 +1,93 @@
 package com.example.demo.model;
 
+import com.example.demo.author.AuthorNames;
+import com.example.demo.isbn.Isbn;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
+import java.time.Instant;
+
 @Entity
+@Table(indexes = {
+    @Index(name = "ux_book_isbn", columnList = "isbn", unique = true),
+    @Index(name = "ux_book_isbn13", columnList = "isbn13", unique = true),
+    @Index(name = "ix_book_author_key", columnList = "author_key, id"),
+    @Index(name = "ix_book_updated_at", columnList = "updated_at")
+})
 @Data
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
+    @NotBlank
+    @Size(max = 255)
     @Column(nullable = false)
     private String title;
 
+    @NotBlank
+    @Size(max = 255)
     @Column(nullable = false)
     private String author;
 
+    /** Forme normalisée de l'auteur, calculée à l'écriture (voir AuthorNames) */
+    @JsonIgnore
+    @Column(name = "author_key")
+    private String authorKey;
+
+    @NotBlank
+    @Size(max = 255)
     @Column(nullable = false)
     private String isbn;
 
+    /** ISBN-13 canonique calculé à l'écriture (voir Isbn), null si l'ISBN est invalide */
+    @JsonIgnore
+    @Column(name = "isbn13")
+    private Long isbn13;
+
+    @Size(max = 255)
     @Column
     private String description;
 
+    @Min(0)
     @Column(nullable = false)
     private int quantity;
 
     @Column(nullable = false)
     private boolean available = true;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    /** Date de la dernière modification, renvoyée en Last-Modified */
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void beforeWrite() {
+        author = AuthorNames.clean(author);
+        authorKey = AuthorNames.key(author);
+        long parsed = Isbn.tryParse(isbn);
+        isbn13 = parsed == Isbn.INVALID ? null : parsed;
+        updatedAt = Instant.now();
+    }
 }
 
 /*
@@ -42,6 +99,14 @@ Explication détaillée du code :
    - Sera automatiquement mappée à une table dans la base de données
    - Le nom de la table sera par défaut "book"
 
+   @Table :
+   - Index unique "ux_book_isbn" sur l'ISBN
+   - Index unique "ux_book_isbn13" sur l'ISBN-13 canonique
+   - Rend les recherches par ISBN indexées et interdit les doublons
+   - Index "ix_book_author_key" (author_key, id) : recherche par auteur normalisé
+     et pagination par curseur des livres d'un auteur
+   - Index "ix_book_updated_at" : livres modifiés depuis un instantané du catalogue
+
 2. L'annotation Lombok @Data :
    - Génère automatiquement :
      * Les getters et setters
@@ -53,9 +118,18 @@ Explication détaillée du code :
    @Id :
    - Marque le champ 'id' comme clé primaire
    
-   @GeneratedValue :
+   @GeneratedValue / @SequenceGenerator :
    - Configure la génération automatique des IDs
-   - IDENTITY signifie que la base de données gère l'auto-incrémentation
+   - SEQUENCE avec allocationSize = 50 : Hibernate réserve 50 identifiants par appel
+     à la séquence "book_seq", ce qui permet le batching JDBC des INSERT
+     (impossible avec IDENTITY, où chaque INSERT doit retourner sa clé)
+   - Sur une base existante créée avec IDENTITY, la migration V5__sequence_allocation
+     place la séquence à MAX(id) + 50 : l'optimiseur "pooled" de Hibernate distribue
+     les 50 identifiants qui précèdent la valeur lue (nextval-49 … nextval).
+     Pour un alignement manuel : SELECT setval('book_seq', (SELECT MAX(id) + 50 FROM book));
+
+   Contraintes de validation (@NotBlank, @Size, @Min) :
+   - Vérifiées à l'import en masse et avant chaque INSERT / UPDATE
 
    @Column :
    - Personnalise le mapping des colonnes
@@ -65,11 +139,20 @@ Explication détaillée du code :
 4. Les champs :
    - id : Identifiant unique du livre
    - title : Titre du livre (obligatoire)
-   - author : Auteur du livre (obligatoire)
-   - isbn : Numéro ISBN unique (obligatoire)
+   - author : Auteur du livre (obligatoire), espaces superflus retirés à l'écriture
+   - authorKey : Auteur sans accents ni majuscules, calculé avant chaque INSERT / UPDATE
+     (@PrePersist / @PreUpdate), non exposé en JSON
+   - isbn : Numéro ISBN unique (obligatoire), tel que saisi (ISBN-10 ou ISBN-13, tirets permis)
+   - isbn13 : Forme canonique ISBN-13 de l'isbn dans une colonne bigint à index unique,
+     calculée avant chaque INSERT / UPDATE ; deux écritures du même ISBN sont des doublons.
+     Non exposé en JSON ; les lignes antérieures sont complétées par IsbnBackfill
    - description : Description du livre (optionnelle)
    - quantity : Nombre d'exemplaires disponibles
    - available : État de disponibilité du livre
+   - version : Numéro de version pour le verrouillage optimiste (@Version)
+     Une mise à jour complète basée sur une version périmée est refusée
+   - updatedAt : Date de dernière modification, mise à jour avant chaque écriture
+     (et par les UPDATE groupés du repository) ; sert d'en-tête Last-Modified
 
 Cette classe constitue le cœur du modèle de données pour les livres dans notre système de gestion de bibliothèque.
 Elle définit la structure de la table 'book' dans la base de données et fournit une représentation orientée objet
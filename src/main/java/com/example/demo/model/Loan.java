@@ -0,0 +1,81 @@
+package com.example.demo.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Entity
+@Table(indexes = {
+    @Index(name = "ix_loan_status_due_date", columnList = "status, due_date"),
+    @Index(name = "ix_loan_book", columnList = "book_id"),
+    @Index(name = "ix_loan_borrower_status", columnList = "borrower, status")
+})
+@Data
+public class Loan {
+
+    public enum Status { ACTIVE, RETURNED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_seq")
+    @SequenceGenerator(name = "loan_seq", sequenceName = "loan_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @NotBlank
+    @Size(max = 255)
+    @Column(nullable = false)
+    private String borrower;
+
+    @Column(name = "checked_out_at", nullable = false)
+    private Instant checkedOutAt;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Column(name = "returned_at")
+    private Instant returnedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.ACTIVE;
+}
+
+/*
+Explication détaillée du code :
+
+1. Entité Loan :
+   - Un emprunt d'un exemplaire d'un livre par un lecteur
+   - Le livre est référencé par son identifiant (book_id) : créer un emprunt
+     ne charge jamais l'entité Book
+
+2. Index :
+   - ix_loan_status_due_date (status, due_date) : couvre la recherche des
+     emprunts en retard (status = ACTIVE AND due_date < aujourd'hui)
+   - ix_loan_book : emprunts d'un livre
+   - ix_loan_borrower_status : emprunts en cours d'un lecteur
+
+3. Identifiants :
+   - Séquence loan_seq avec allocationSize = 50, comme Book : les insertions
+     groupées (emprunt de plusieurs livres) peuvent être envoyées en lot JDBC
+
+4. Statut :
+   - ACTIVE à la création, RETURNED au retour (returnedAt renseigné)
+   - Stocké en texte (EnumType.STRING) pour rester lisible en base
+*/
@@ -0,0 +1,75 @@
+package com.example.demo.replica;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Lectures servies par la base principale, même en lecture seule : celles dont
+ * le résultat est conservé ou étiqueté avec l'état courant du catalogue (cache
+ * de BookCache, ETag de CatalogVersion, rapports, chargement des projections).
+ * Lues sur une réplique en retard, elles conserveraient des lignes périmées
+ * jusqu'à l'expiration du cache, ou sous un ETag plus récent qu'elles.
+ *
+ * La lecture s'exécute dans sa propre transaction en lecture seule, dont
+ * ReplicaRoutingDataSource prend la connexion sur la base principale sans la
+ * compter comme une écriture (ReadYourWrites). Une transaction d'écriture en
+ * cours est déjà sur la base principale : la lecture s'y exécute telle quelle,
+ * comme partout quand aucune réplique n'est configurée.
+ */
+@Component
+public class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> REQUIRED = new ThreadLocal<>();
+
+    /** Transaction des lectures sur la base principale, null sans réplicas */
+    private final TransactionTemplate transaction;
+
+    public PrimaryReads(ObjectProvider<ReplicaRoutingDataSource> routing, PlatformTransactionManager transactionManager) {
+        if (routing.getIfAvailable() == null) {
+            this.transaction = null;
+            return;
+        }
+        this.transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.setReadOnly(true);
+    }
+
+    /**
+     * @param read Lecture en base
+     * @return Son résultat, lu sur la base principale
+     */
+    public <T> T call(Supplier<T> read) {
+        if (transaction == null || REQUIRED.get() != null
+                || TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return read.get();
+        }
+        REQUIRED.set(Boolean.TRUE);
+        try {
+            return transaction.execute(status -> read.get());
+        } finally {
+            REQUIRED.remove();
+        }
+    }
+
+    /**
+     * @param read Lecture en base, sur la base principale
+     */
+    public void run(Runnable read) {
+        call(() -> {
+            read.run();
+            return null;
+        });
+    }
+
+    /** @return true si le thread courant exécute une lecture qui doit aller sur la base principale */
+    static boolean isRequired() {
+        return REQUIRED.get() != null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.replica;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lecture de ses propres écritures : après une écriture validée, les lectures
+ * du même utilisateur restent sur la base principale pendant window, le temps
+ * que les réplicas rattrapent leur retard. Les autres utilisateurs continuent
+ * de lire sur les réplicas.
+ */
+public class ReadYourWrites {
+
+    private final long windowNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    /** Enregistre une écriture validée par l'utilisateur courant */
+    public void recordWrite() {
+        String user = currentUser();
+        if (user != null) {
+            lastWrites.put(user, System.nanoTime());
+        }
+    }
+
+    /**
+     * @return true si l'utilisateur courant a écrit il y a moins de window
+     */
+    public boolean isPinned() {
+        if (lastWrites.isEmpty()) {
+            return false;
+        }
+        String user = currentUser();
+        if (user == null) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(user);
+        return lastWrite != null && System.nanoTime() - lastWrite < windowNanos;
+    }
+
+    /** Oublie les écritures plus anciennes que window */
+    public void purge() {
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
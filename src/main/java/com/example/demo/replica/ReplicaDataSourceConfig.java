@@ -0,0 +1,112 @@
+package com.example.demo.replica;
+
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.metrics.PoolMetricsTrackerFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routage des lectures vers des réplicas PostgreSQL, actif dès que
+ * library.datasource.replicas liste au moins une URL JDBC.
+ *
+ * La base principale reste configurée par spring.datasource.* ; chaque réplique
+ * reçoit un pool Hikari de mêmes réglages et identifiants, en lecture seule.
+ * Sans réplicas, la source de données auto-configurée par Spring Boot est utilisée.
+ */
+@Configuration
+@ConditionalOnProperty("library.datasource.replicas")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            MetricsRegistry metricsRegistry,
+            @Value("${library.datasource.replicas}") List<String> urls,
+            @Value("${library.datasource.replica-max-lag:10s}") Duration maxLag,
+            @Value("${library.datasource.sticky-window:5s}") Duration stickyWindow) {
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            replicas.add(replica(primaryDataSource, urls.get(i).strip(), "replica-" + (i + 1), metricsRegistry));
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                primaryDataSource, replicas, new ReadYourWrites(stickyWindow), maxLag);
+        metricsRegistry.gauge("db_replicas_healthy", routing::healthyReplicas);
+        metricsRegistry.gauge("db_read_transactions_total", routing::replicaReads, "target", "replica");
+        metricsRegistry.gauge("db_read_transactions_total", routing::primaryReads, "target", "primary");
+        return routing;
+    }
+
+    /**
+     * Source de données de l'application : la connexion n'est obtenue qu'au premier
+     * ordre SQL, quand le caractère readOnly de la transaction est connu
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(replicaRoutingDataSource);
+        // Valeurs par défaut des pools : évite d'ouvrir une connexion pour les découvrir
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService replicaHealthCheck(
+            ReplicaRoutingDataSource replicaRoutingDataSource,
+            @Value("${library.datasource.replica-health-interval:5s}") Duration interval) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(replicaRoutingDataSource::checkHealth,
+                0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    private static HikariDataSource replica(HikariDataSource primary, String url, String name, MetricsRegistry metrics) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName(name);
+        replica.setJdbcUrl(url);
+        replica.setUsername(primary.getUsername());
+        replica.setPassword(primary.getPassword());
+        if (primary.getDriverClassName() != null) {
+            replica.setDriverClassName(primary.getDriverClassName());
+        }
+        replica.setDataSourceProperties(primary.getDataSourceProperties());
+        replica.setMaximumPoolSize(primary.getMaximumPoolSize());
+        replica.setMinimumIdle(primary.getMinimumIdle());
+        replica.setConnectionTimeout(primary.getConnectionTimeout());
+        replica.setMaxLifetime(primary.getMaxLifetime());
+        replica.setReadOnly(true);
+        // Une réplique arrêtée ne doit pas empêcher le démarrage
+        replica.setInitializationFailTimeout(-1);
+        replica.setMetricsTrackerFactory(new PoolMetricsTrackerFactory(metrics));
+        return replica;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.demo.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Source de données qui envoie les transactions en lecture seule vers les réplicas
+ * et tout le reste vers la base principale.
+ *
+ * Le choix est fait à l'obtention de la connexion, d'après le drapeau readOnly
+ * de la transaction Spring en cours : elle doit donc être enveloppée dans un
+ * LazyConnectionDataSourceProxy, qui retarde l'obtention au premier ordre SQL,
+ * une fois la transaction initialisée.
+ *
+ * Les réplicas sont utilisés à tour de rôle. Une réplique injoignable ou trop en
+ * retard est écartée jusqu'au prochain contrôle réussi (checkHealth) ; sans réplique
+ * saine, les lectures retombent sur la base principale. Les lectures conservées
+ * ou étiquetées avec l'état du catalogue restent sur la base principale (PrimaryReads).
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /** Retard de rejeu en secondes, nul si la réplique a rejoué tout ce qu'elle a reçu */
+    private static final String LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final double maxLagSeconds;
+    private final Object writeMarker = new Object();
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+
+    /**
+     * @param primary Base principale, pour les écritures et en repli
+     * @param replicas Pools des réplicas
+     * @param readYourWrites Suivi des écritures récentes par utilisateur
+     * @param maxLag Retard de réplication toléré, Duration.ZERO pour ne pas le contrôler
+     */
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    ReadYourWrites readYourWrites, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.readYourWrites = readYourWrites;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (readOnly && !readYourWrites.isPinned() && !PrimaryReads.isRequired()) {
+            Connection connection = replicaConnection();
+            if (connection != null) {
+                replicaReads.increment();
+                return connection;
+            }
+            primaryReads.increment();
+        } else if (!readOnly) {
+            trackWrite();
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials are configured per pool");
+    }
+
+    /**
+     * Contrôle chaque réplique : connexion valide et, si maxLag est positif, retard de rejeu toléré
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy = probe(replica);
+            if (healthy != replica.healthy) {
+                if (healthy) {
+                    log.info("Replica {} is back in rotation", replica.dataSource.getPoolName());
+                } else {
+                    log.warn("Replica {} removed from rotation, reads fall back to other replicas or the primary",
+                            replica.dataSource.getPoolName());
+                }
+                replica.healthy = healthy;
+            }
+        }
+        readYourWrites.purge();
+    }
+
+    /**
+     * La base principale est exposée par unwrap (taille du pool, métriques)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(primary) ? (T) primary : super.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(primary) || super.isWrapperFor(iface);
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    /** Transactions readOnly servies par une réplique */
+    public long replicaReads() {
+        return replicaReads.sum();
+    }
+
+    /** Transactions readOnly renvoyées vers la base principale faute de réplique saine */
+    public long primaryReads() {
+        return primaryReads.sum();
+    }
+
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    private Connection replicaConnection() {
+        int count = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                // Écartée jusqu'au prochain contrôle réussi
+                log.warn("Replica {} unavailable: {}", replica.dataSource.getPoolName(), e.getMessage());
+                replica.healthy = false;
+            }
+        }
+        return null;
+    }
+
+    private boolean probe(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (maxLagSeconds <= 0) {
+                return connection.isValid(2);
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+                return lag.next() && lag.getDouble(1) <= maxLagSeconds;
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Une connexion d'écriture prise dans une transaction : à la validation,
+     * l'utilisateur lit sur la base principale pendant la fenêtre de ReadYourWrites
+     */
+    private void trackWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(writeMarker)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(writeMarker, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWrites.recordWrite();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(writeMarker);
+            }
+        });
+    }
+}
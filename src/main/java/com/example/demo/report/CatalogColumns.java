@@ -0,0 +1,93 @@
+package com.example.demo.report;
+
+import com.example.demo.author.AuthorNames;
+import com.example.demo.model.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copie en colonnes des attributs utiles aux rapports, remplie par un seul
+ * parcours de la table. Les quantités et les auteurs sont des tableaux
+ * primitifs ; chaque auteur distinct (par clé normalisée) reçoit un numéro,
+ * dans l'ordre de première apparition.
+ */
+final class CatalogColumns {
+
+    private int size;
+    private long[] ids = new long[1024];
+    private int[] quantities = new int[1024];
+    private int[] authors = new int[1024];
+    private String[] titles = new String[1024];
+    private String[] isbns = new String[1024];
+
+    private final Map<String, Integer> authorIndex = new HashMap<>();
+    private final List<String> authorNames = new ArrayList<>();
+    private final List<String> authorKeys = new ArrayList<>();
+
+    void add(Book book) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            authors = Arrays.copyOf(authors, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            isbns = Arrays.copyOf(isbns, capacity);
+        }
+        // Lignes antérieures à author_key, pas encore complétées
+        String key = book.getAuthorKey() != null ? book.getAuthorKey() : AuthorNames.key(book.getAuthor());
+        Integer author = authorIndex.get(key);
+        if (author == null) {
+            author = authorNames.size();
+            authorIndex.put(key, author);
+            authorNames.add(book.getAuthor());
+            authorKeys.add(key);
+        }
+        ids[size] = book.getId();
+        quantities[size] = book.getQuantity();
+        authors[size] = author;
+        titles[size] = book.getTitle();
+        isbns[size] = book.getIsbn();
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long id(int row) {
+        return ids[row];
+    }
+
+    int quantity(int row) {
+        return quantities[row];
+    }
+
+    int author(int row) {
+        return authors[row];
+    }
+
+    String title(int row) {
+        return titles[row];
+    }
+
+    String isbn(int row) {
+        return isbns[row];
+    }
+
+    int authorCount() {
+        return authorNames.size();
+    }
+
+    /** @return Le nom de l'auteur tel qu'écrit sur son premier livre */
+    String authorName(int author) {
+        return authorNames.get(author);
+    }
+
+    String authorKey(int author) {
+        return authorKeys.get(author);
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.demo.report;
+
+import com.example.demo.author.AuthorNames;
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.dto.AuthorInventory;
+import com.example.demo.dto.DuplicateGroup;
+import com.example.demo.dto.StockReport;
+import com.example.demo.isbn.Isbn;
+import com.example.demo.isbn.LongLongHashMap;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.replica.PrimaryReads;
+import com.example.demo.service.BookService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Rapports d'inventaire : stock global, stock par auteur et doublons présumés.
+ *
+ * Un seul parcours de la table remplit une copie en colonnes (CatalogColumns),
+ * puis les agrégats sont calculés en parallèle sur un ForkJoinPool dédié :
+ * accumulateurs primitifs par tranche de CHUNK_SIZE lignes pour les totaux,
+ * tableaux atomiques indexés par auteur pour le stock par auteur.
+ *
+ * Doublons : chaque livre reçoit une empreinte de 64 bits de son titre et de son
+ * auteur normalisés. Un tri parallèle des empreintes fait ressortir celles qui
+ * se répètent ; seuls ces livres sont ensuite regroupés et comparés exactement,
+ * sans aucune comparaison deux à deux sur tout le catalogue.
+ *
+ * Le résultat est conservé tant que le catalogue ne change pas (CatalogVersion) :
+ * la première demande après une modification relance le calcul, une seule fois
+ * quel que soit le nombre de demandes simultanées.
+ */
+@Component
+public class InventoryReports {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryReports.class);
+
+    static final int CHUNK_SIZE = 16 * 1024;
+
+    /** Bornes inférieures des tranches de quantité */
+    private static final int[] QUANTITY_BUCKETS = {0, 1, 2, 5, 10, 50};
+
+    private static final Pattern PUNCTUATION = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern INSIGNIFICANT = Pattern.compile("[\\s-]+");
+
+    /**
+     * Forme normalisée (titleKey) de chaque caractère latin : lettre ou chiffre sans
+     * accent en minuscule, SEPARATOR pour la ponctuation et les espaces, IGNORED pour
+     * un accent isolé, UNFOLDED si la forme ne tient pas en un caractère (ß, ligatures, ...)
+     */
+    private static final char[] FOLDED = new char[0x250];
+    private static final char SEPARATOR = ' ';
+    private static final char IGNORED = 1;
+    private static final char UNFOLDED = 0;
+
+    static {
+        for (char c = 0; c < FOLDED.length; c++) {
+            // Entre deux lettres, pour distinguer un espace (conservé) d'un accent (retiré)
+            String key = PUNCTUATION.matcher(AuthorNames.key("a" + c + "b")).replaceAll(" ");
+            if (key.equals("ab")) {
+                FOLDED[c] = IGNORED;
+            } else if (key.length() == 3 && key.charAt(0) == 'a' && key.charAt(2) == 'b') {
+                FOLDED[c] = key.charAt(1);
+            } else {
+                FOLDED[c] = UNFOLDED;
+            }
+        }
+    }
+
+    /**
+     * Rapports calculés pour un état du catalogue
+     * @param counter Compteur de CatalogVersion lu avant le parcours
+     */
+    record Report(long counter, StockReport stock, List<AuthorInventory> authors, List<DuplicateGroup> duplicates) {
+    }
+
+    /** Totaux d'une tranche de lignes */
+    private static final class Totals {
+
+        long titles;
+        long copies;
+        long outOfStock;
+        final long[] buckets = new long[QUANTITY_BUCKETS.length];
+
+        Totals add(Totals other) {
+            titles += other.titles;
+            copies += other.copies;
+            outOfStock += other.outOfStock;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] += other.buckets[i];
+            }
+            return this;
+        }
+    }
+
+    private final BookService bookService;
+    private final CatalogVersion catalogVersion;
+    private final PrimaryReads primaryReads;
+    private final ForkJoinPool pool;
+    private final LatencyHistogram computeLatency;
+    private volatile Report current;
+
+    public InventoryReports(@Value("${library.reports.parallelism:0}") int parallelism,
+                            BookService bookService,
+                            CatalogVersion catalogVersion,
+                            PrimaryReads primaryReads,
+                            MetricsRegistry metrics) {
+        this.bookService = bookService;
+        this.catalogVersion = catalogVersion;
+        this.primaryReads = primaryReads;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.computeLatency = metrics.histogram("inventory_report_seconds");
+    }
+
+    public StockReport stock() {
+        return report().stock();
+    }
+
+    /**
+     * @param limit Nombre maximal d'auteurs
+     * @return Les auteurs ayant le plus d'exemplaires
+     */
+    public List<AuthorInventory> authors(int limit) {
+        List<AuthorInventory> authors = report().authors();
+        return authors.subList(0, Math.min(Math.max(0, limit), authors.size()));
+    }
+
+    /**
+     * @param limit Nombre maximal de groupes
+     * @return Les groupes de doublons présumés, les plus grands d'abord
+     */
+    public List<DuplicateGroup> duplicates(int limit) {
+        List<DuplicateGroup> duplicates = report().duplicates();
+        return duplicates.subList(0, Math.min(Math.max(0, limit), duplicates.size()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Report report() {
+        Report report = current;
+        if (report != null && report.counter() == catalogVersion.current().counter()) {
+            return report;
+        }
+        synchronized (this) {
+            long counter = catalogVersion.current().counter();
+            if (current == null || current.counter() != counter) {
+                current = compute(counter);
+            }
+            return current;
+        }
+    }
+
+    private Report compute(long counter) {
+        long start = System.nanoTime();
+        CatalogColumns columns = new CatalogColumns();
+        // Sur la base principale : le rapport est conservé sous le compteur lu avant le parcours
+        primaryReads.run(() -> bookService.streamAllBooks(columns::add));
+        long scanned = System.nanoTime();
+        Report report = pool.submit(() -> new Report(counter, computeStock(columns), computeAuthors(columns),
+                findDuplicates(columns)))
+                .join();
+        long end = System.nanoTime();
+        computeLatency.record(end - start);
+        log.info("Computed inventory reports for {} books: scan {} ms, aggregates {} ms, {} duplicate groups",
+                columns.size(), (scanned - start) / 1_000_000, (end - scanned) / 1_000_000,
+                report.duplicates().size());
+        return report;
+    }
+
+    private static StockReport computeStock(CatalogColumns columns) {
+        int chunks = (columns.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Totals totals = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    Totals partial = new Totals();
+                    int end = Math.min(columns.size(), (chunk + 1) * CHUNK_SIZE);
+                    for (int row = chunk * CHUNK_SIZE; row < end; row++) {
+                        int quantity = columns.quantity(row);
+                        partial.titles++;
+                        partial.copies += quantity;
+                        if (quantity <= 0) {
+                            partial.outOfStock++;
+                        }
+                        partial.buckets[bucket(quantity)]++;
+                    }
+                    return partial;
+                })
+                .reduce(Totals::add)
+                .orElseGet(Totals::new);
+        List<StockReport.QuantityBucket> buckets = new ArrayList<>(QUANTITY_BUCKETS.length);
+        for (int i = 0; i < QUANTITY_BUCKETS.length; i++) {
+            Integer max = i + 1 < QUANTITY_BUCKETS.length ? QUANTITY_BUCKETS[i + 1] - 1 : null;
+            buckets.add(new StockReport.QuantityBucket(QUANTITY_BUCKETS[i], max, totals.buckets[i]));
+        }
+        return new StockReport(totals.titles, totals.copies, totals.outOfStock,
+                ratio(totals.outOfStock, totals.titles), buckets, Instant.now());
+    }
+
+    private static List<AuthorInventory> computeAuthors(CatalogColumns columns) {
+        int authorCount = columns.authorCount();
+        AtomicIntegerArray titles = new AtomicIntegerArray(authorCount);
+        AtomicLongArray copies = new AtomicLongArray(authorCount);
+        AtomicIntegerArray outOfStock = new AtomicIntegerArray(authorCount);
+        int chunks = (columns.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int end = Math.min(columns.size(), (chunk + 1) * CHUNK_SIZE);
+            for (int row = chunk * CHUNK_SIZE; row < end; row++) {
+                int author = columns.author(row);
+                int quantity = columns.quantity(row);
+                titles.getAndIncrement(author);
+                copies.getAndAdd(author, quantity);
+                if (quantity <= 0) {
+                    outOfStock.getAndIncrement(author);
+                }
+            }
+        });
+        return IntStream.range(0, authorCount).parallel()
+                .mapToObj(author -> new AuthorInventory(columns.authorName(author), columns.authorKey(author),
+                        titles.get(author), copies.get(author), outOfStock.get(author),
+                        ratio(outOfStock.get(author), titles.get(author))))
+                .sorted(Comparator.comparingLong(AuthorInventory::copies).reversed()
+                        .thenComparing(AuthorInventory::authorKey))
+                .toList();
+    }
+
+    private static List<DuplicateGroup> findDuplicates(CatalogColumns columns) {
+        int size = columns.size();
+        String[] titleKeys = new String[size];
+        long[] hashes = new long[size];
+        IntStream.range(0, size).parallel().forEach(row -> {
+            titleKeys[row] = titleKey(columns.title(row));
+            hashes[row] = hash(titleKeys[row], columns.author(row));
+        });
+        long[] sorted = hashes.clone();
+        Arrays.parallelSort(sorted);
+        // Empreintes répétées ; la clé 0 étant réservée par LongLongHashMap, 0 devient 1
+        LongLongHashMap repeated = new LongLongHashMap(16);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] == sorted[i - 1]) {
+                repeated.put(sorted[i] == 0 ? 1 : sorted[i], 1);
+            }
+        }
+        int[] candidates = IntStream.range(0, size).parallel()
+                .filter(row -> repeated.get(hashes[row] == 0 ? 1 : hashes[row]) != LongLongHashMap.NO_VALUE)
+                .toArray();
+        // Comparaison exacte dans chaque bloc : deux livres peuvent partager une empreinte par collision
+        Map<String, List<Integer>> groups = new HashMap<>();
+        for (int row : candidates) {
+            groups.computeIfAbsent(columns.author(row) + "\u0000" + titleKeys[row], key -> new ArrayList<>()).add(row);
+        }
+        List<DuplicateGroup> duplicates = new ArrayList<>();
+        for (List<Integer> rows : groups.values()) {
+            Set<Object> isbns = new HashSet<>();
+            for (int row : rows) {
+                long isbn13 = Isbn.tryParse(columns.isbn(row));
+                // ISBN invalide (ligne antérieure au contrôle) : comparé sans tirets ni espaces
+                isbns.add(isbn13 != Isbn.INVALID ? isbn13 : INSIGNIFICANT.matcher(columns.isbn(row)).replaceAll(""));
+            }
+            if (isbns.size() < 2) {
+                continue;
+            }
+            List<DuplicateGroup.Candidate> books = rows.stream()
+                    .map(row -> new DuplicateGroup.Candidate(columns.id(row), columns.title(row), columns.isbn(row),
+                            columns.quantity(row)))
+                    .sorted(Comparator.comparing(DuplicateGroup.Candidate::id))
+                    .toList();
+            int first = rows.get(0);
+            duplicates.add(new DuplicateGroup(titleKeys[first], columns.authorKey(columns.author(first)), books));
+        }
+        duplicates.sort(Comparator.comparingInt((DuplicateGroup group) -> group.books().size()).reversed()
+                .thenComparing(DuplicateGroup::title));
+        return duplicates;
+    }
+
+    /**
+     * @return Le titre sans accents, en minuscules, la ponctuation remplacée par des espaces :
+     *         "L'Étranger" et "l etranger" ont la même clé
+     */
+    static String titleKey(String title) {
+        if (title == null) {
+            return "";
+        }
+        // Cas courant d'un titre en alphabet latin : une seule passe avec FOLDED,
+        // sans normalisation Unicode ni expression régulière
+        StringBuilder key = new StringBuilder(title.length());
+        boolean space = false;
+        for (int i = 0; i < title.length(); i++) {
+            char c = title.charAt(i);
+            char folded = c < FOLDED.length ? FOLDED[c] : UNFOLDED;
+            if (folded == UNFOLDED) {
+                return PUNCTUATION.matcher(AuthorNames.key(title)).replaceAll(" ").strip();
+            }
+            if (folded == SEPARATOR) {
+                space = true;
+                continue;
+            }
+            if (folded == IGNORED) {
+                continue;
+            }
+            if (space && key.length() > 0) {
+                key.append(' ');
+            }
+            key.append(folded);
+            space = false;
+        }
+        return key.toString();
+    }
+
+    /** Empreinte FNV-1a 64 bits du titre normalisé, mélangée avec le numéro d'auteur */
+    private static long hash(String titleKey, int author) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < titleKey.length(); i++) {
+            hash ^= titleKey.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= author;
+        hash *= 0x100000001b3L;
+        // Finalisation (murmur3) : répartit les bits de poids faible
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static int bucket(int quantity) {
+        int bucket = 0;
+        while (bucket + 1 < QUANTITY_BUCKETS.length && quantity >= QUANTITY_BUCKETS[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static double ratio(long part, long total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+}
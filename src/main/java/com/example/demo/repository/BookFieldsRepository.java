@@ -0,0 +1,21 @@
+package com.example.demo.repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lectures partielles du catalogue : seules les colonnes demandées sont
+ * sélectionnées, sans hydrater d'entité Book ni passer par le contexte de persistance.
+ */
+public interface BookFieldsRepository {
+
+    /**
+     * Page de livres réduite à quelques attributs, triée par identifiant
+     * @param fields Attributs de Book à sélectionner, dans l'ordre des colonnes du résultat
+     * @param filters Conditions d'égalité par attribut (une collection devient un IN)
+     * @param afterId Curseur exclusif, null pour la première page
+     * @param limit Nombre maximal de lignes
+     * @return Une ligne par livre, valeurs dans l'ordre de fields
+     */
+    List<Object[]> findFields(List<String> fields, Map<String, ?> filters, Long afterId, int limit);
+}
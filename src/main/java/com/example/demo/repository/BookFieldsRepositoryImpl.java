@@ -0,0 +1,56 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implémentation par l'API Criteria : une requête tuple ne sélectionnant que
+ * les colonnes demandées (une description longue n'est ni lue ni transférée).
+ */
+class BookFieldsRepositoryImpl implements BookFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> findFields(List<String> fields, Map<String, ?> filters, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> book = query.from(Book.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(book.get(field));
+        }
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(book.get("id"), afterId));
+        }
+        filters.forEach((field, value) -> predicates.add(value instanceof Collection<?> values
+                ? book.get(field).in(values)
+                : cb.equal(book.get(field), value)));
+
+        query.multiselect(selections)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(book.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(Tuple::toArray)
+                .toList();
+    }
+}
@@ -1,14 +1,52 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.AuthorSummary;
+import com.example.demo.dto.CatalogStats;
 import com.example.demo.model.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookFieldsRepository {
     
     List<Book> findByAuthor(String author);
+
+    /**
+     * Livres d'un auteur par curseur sur l'identifiant, servis par ix_book_author_key
+     * @param authorKey Nom normalisé de l'auteur (AuthorNames.key)
+     * @param afterId Dernier identifiant déjà reçu
+     * @param limit Nombre maximal de livres
+     * @return Les livres de l'auteur, triés par id
+     */
+    List<Book> findByAuthorKeyAndIdGreaterThanOrderByIdAsc(String authorKey, Long afterId, Limit limit);
+
+    /** Livres antérieurs à la colonne author_key, à compléter au démarrage */
+    List<Book> findByAuthorKeyIsNullOrderByIdAsc(Limit limit);
+
+    /**
+     * Auteurs suivants par ordre de nom normalisé, utilisé tant que l'index
+     * des auteurs n'est pas chargé
+     */
+    @Query("SELECT new com.example.demo.dto.AuthorSummary(MIN(b.author), b.authorKey, COUNT(b)) FROM Book b "
+            + "WHERE b.authorKey > :afterKey GROUP BY b.authorKey ORDER BY b.authorKey")
+    List<AuthorSummary> findAuthorsAfter(@Param("afterKey") String afterKey, Limit limit);
+
+    /**
+     * Auteurs dont le nom normalisé commence par un préfixe, utilisé tant que
+     * l'index des auteurs n'est pas chargé
+     */
+    @Query("SELECT new com.example.demo.dto.AuthorSummary(MIN(b.author), b.authorKey, COUNT(b)) FROM Book b "
+            + "WHERE b.authorKey LIKE CONCAT(:prefix, '%') ESCAPE '\\' GROUP BY b.authorKey ORDER BY b.authorKey")
+    List<AuthorSummary> findAuthorsByPrefix(@Param("prefix") String prefix, Limit limit);
     
     List<Book> findByTitleContainingIgnoreCase(String title);
     
@@ -18,6 +56,122 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     List<Book> findBooksInStock(@Param("minQuantity") int minQuantity);
     
     Book findByIsbn(String isbn);
+
+    List<Book> findByIsbnIn(Collection<String> isbns);
+
+    Book findByIsbn13(Long isbn13);
+
+    List<Book> findByIsbn13In(Collection<Long> isbn13s);
+
+    /**
+     * Lignes dont l'ISBN-13 canonique n'est pas renseigné, par curseur sur l'identifiant
+     * (les ISBN invalides restent sans ISBN-13 : le curseur garantit la progression)
+     */
+    List<Book> findByIsbn13IsNullAndIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Page suivante du catalogue par curseur (keyset) sur l'identifiant
+     * @param afterId Dernier identifiant déjà reçu par le client
+     * @param limit Nombre maximal de livres à retourner
+     * @return Les livres d'identifiant strictement supérieur, triés par id
+     */
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Page suivante des livres disponibles par curseur sur l'identifiant,
+     * utilisée tant que l'index des disponibilités n'est pas chargé
+     */
+    List<Book> findByAvailableTrueAndIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Compteurs du catalogue calculés en base, utilisés tant que l'index des
+     * disponibilités n'est pas chargé
+     */
+    @Query("SELECT new com.example.demo.dto.CatalogStats(COUNT(b), COALESCE(SUM(b.quantity), 0), "
+            + "COALESCE(SUM(CASE WHEN b.available = true THEN 1 ELSE 0 END), 0)) FROM Book b")
+    CatalogStats computeCatalogStats();
+
+    /**
+     * Parcourt tout le catalogue via un curseur JDBC en lecture seule.
+     * Doit être consommé dans une transaction et fermé après usage.
+     * @return Un flux de livres triés par id
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Book b ORDER BY b.id")
+    Stream<Book> streamAll();
+
+    /**
+     * Livres créés ou modifiés depuis une date, servis par ix_book_updated_at
+     * @param since Date de l'instantané du catalogue, moins une marge
+     * @return Les livres dont updated_at est postérieur ou égal
+     */
+    List<Book> findByUpdatedAtGreaterThanEqual(Instant since);
+
+    /**
+     * Parcourt les identifiants de tout le catalogue (parcours de la clé primaire seule).
+     * Doit être consommé dans une transaction et fermé après usage.
+     * @return Un flux d'identifiants croissants
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b.id FROM Book b ORDER BY b.id")
+    Stream<Long> streamIds();
+
+    /**
+     * Ajoute (ou retire si négatif) des exemplaires en une seule requête conditionnelle.
+     * La disponibilité et la version sont recalculées dans le même UPDATE.
+     * @param id Identifiant du livre
+     * @param delta Variation de la quantité
+     * @return 1 si la mise à jour a eu lieu, 0 si le livre n'existe pas ou si le stock deviendrait négatif
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.quantity = b.quantity + :delta, "
+            + "b.available = CASE WHEN b.quantity + :delta > 0 THEN true ELSE false END, "
+            + "b.version = b.version + 1, b.updatedAt = instant "
+            + "WHERE b.id = :id AND b.quantity + :delta >= 0")
+    int adjustQuantity(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * Supprime un livre en une requête, sans contrôle de version
+     * @param id Identifiant du livre
+     * @return 1 si le livre a été supprimé, 0 s'il n'existait pas (ou plus)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Book b WHERE b.id = :id")
+    int deleteRow(@Param("id") Long id);
+
+    /**
+     * Fixe la quantité d'un livre en une seule requête, sans lecture préalable de l'entité :
+     * pas de conflit de version entre deux mises à jour simultanées, la dernière l'emporte.
+     * La disponibilité et la version sont recalculées dans le même UPDATE.
+     * @param id Identifiant du livre
+     * @param quantity Nouvelle quantité, positive ou nulle
+     * @return 1 si le livre existe, 0 sinon
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.quantity = :quantity, "
+            + "b.available = CASE WHEN :quantity > 0 THEN true ELSE false END, "
+            + "b.version = b.version + 1, b.updatedAt = instant "
+            + "WHERE b.id = :id")
+    int setQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Retire un exemplaire de chacun des livres en une seule requête, uniquement
+     * pour ceux qui ont encore du stock
+     * @param ids Identifiants distincts des livres
+     * @return Le nombre de livres mis à jour, inférieur à ids.size() si un livre manque ou est épuisé
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.quantity = b.quantity - 1, "
+            + "b.available = CASE WHEN b.quantity - 1 > 0 THEN true ELSE false END, "
+            + "b.version = b.version + 1, b.updatedAt = instant "
+            + "WHERE b.id IN :ids AND b.quantity >= 1")
+    int decrementEach(@Param("ids") Collection<Long> ids);
 }
 
 /*
@@ -57,6 +211,62 @@ Explication détaillée du code :
    - Trouve un livre par son numéro ISBN
    - Retourne un seul livre car ISBN est unique
 
+   deleteRow :
+   - Suppression qui indique si une ligne a été supprimée : seule une suppression
+     effective publie un événement (deux DELETE simultanés n'en publient qu'un)
+
+   setQuantity :
+   - Quantité absolue (PUT /quantity) en un UPDATE, comme adjustQuantity : ni lecture
+     puis écriture, ni ObjectOptimisticLockingFailureException entre deux mises à jour
+
+   findByAuthorKeyAndIdGreaterThanOrderByIdAsc :
+   - Recherche par auteur normalisé ("Victor Hugo" = "victor  hugo "), paginée par curseur
+   - Remplace findByAuthor (égalité exacte, colonne non indexée, sans pagination)
+
+   findByAuthorKeyIsNullOrderByIdAsc :
+   - Lignes créées avant la colonne author_key, complétées par AuthorKeyBackfill
+
+   findAuthorsAfter / findAuthorsByPrefix :
+   - Liste et autocomplétion des auteurs en base (GROUP BY author_key), repli
+     pendant le chargement d'AuthorIndex
+
+   findByIsbnIn :
+   - Lecture groupée par ISBN en une requête IN (...) servie par ux_book_isbn
+
+   findByIsbn13 / findByIsbn13In :
+   - Recherche par ISBN-13 canonique (ux_book_isbn13), quelle que soit l'écriture de l'ISBN
+   - Repli pendant le chargement d'IsbnIndex
+
+   findByIsbn13IsNullAndIdGreaterThanOrderByIdAsc :
+   - Lignes antérieures à la colonne isbn13, complétées par IsbnBackfill
+
+   findByIdGreaterThanOrderByIdAsc :
+   - Pagination par curseur (keyset) sur la clé primaire
+   - Coût constant quelle que soit la profondeur de la page (pas d'OFFSET)
+
+   findByAvailableTrueAndIdGreaterThanOrderByIdAsc :
+   - Même pagination restreinte aux livres disponibles
+   - Repli de /api/books/available pendant le chargement d'AvailabilityIndex
+
+   computeCatalogStats :
+   - Agrégats (COUNT/SUM) calculés en une requête, sans charger d'entité
+
+   decrementEach :
+   - Version « plusieurs livres » d'adjustQuantity(-1) : un seul UPDATE ... WHERE id IN
+   - Utilisé par l'emprunt groupé ; le nombre de lignes modifiées est vérifié par le service
+
+   adjustQuantity :
+   - UPDATE conditionnel atomique : quantity = quantity + delta si le résultat reste >= 0
+   - Aucune lecture préalable, donc aucune mise à jour perdue entre requêtes concurrentes
+
+   streamAll :
+   - Curseur JDBC "forward-only" avec une taille de fetch de 500 lignes
+   - Permet de parcourir toute la table sans la charger en mémoire
+
+   findByUpdatedAtGreaterThanEqual / streamIds :
+   - Démarrage à chaud depuis un instantané (CatalogSnapshot) : livres modifiés
+     depuis l'instantané, et identifiants existants pour écarter les livres supprimés
+
 3. Fonctionnalités importantes :
    - Génération automatique des requêtes par Spring Data
    - Support des transactions automatique
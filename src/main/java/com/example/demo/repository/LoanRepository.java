@@ -0,0 +1,56 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Loan;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface LoanRepository extends JpaRepository<Loan, Long> {
+
+    List<Loan> findByBorrowerAndStatus(String borrower, Loan.Status status);
+
+    /**
+     * Emprunts en cours dont l'échéance est dépassée, par curseur sur l'identifiant
+     * @param today Date du jour
+     * @param afterId Dernier identifiant déjà reçu
+     * @param limit Nombre maximal d'emprunts
+     * @return Les emprunts en retard, triés par identifiant
+     */
+    @Query("SELECT l FROM Loan l WHERE l.status = com.example.demo.model.Loan$Status.ACTIVE "
+            + "AND l.dueDate < :today AND l.id > :afterId ORDER BY l.id")
+    List<Loan> findOverdue(@Param("today") LocalDate today, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Clôture un emprunt en cours en une requête conditionnelle
+     * @param id Identifiant de l'emprunt
+     * @param returnedAt Date de retour
+     * @return 1 si l'emprunt était en cours, 0 s'il n'existe pas ou est déjà rendu
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Loan l SET l.status = com.example.demo.model.Loan$Status.RETURNED, l.returnedAt = :returnedAt "
+            + "WHERE l.id = :id AND l.status = com.example.demo.model.Loan$Status.ACTIVE")
+    int markReturned(@Param("id") Long id, @Param("returnedAt") Instant returnedAt);
+}
+
+/*
+Explication détaillée du code :
+
+   findByBorrowerAndStatus :
+   - Emprunts d'un lecteur, servi par l'index (borrower, status)
+
+   findOverdue :
+   - Filtre status = ACTIVE AND due_date < :today couvert par l'index (status, due_date)
+   - Pagination par curseur sur l'identifiant, comme le catalogue
+
+   markReturned :
+   - UPDATE conditionnel sur le statut : deux retours simultanés du même emprunt
+     ne peuvent pas réussir tous les deux (un seul obtient 1 ligne modifiée)
+*/
@@ -0,0 +1,488 @@
+package com.example.demo.search;
+
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.event.BookChangedEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.isbn.LongLongHashMap;
+import com.example.demo.model.Book;
+import com.example.demo.service.CatalogProjection;
+import com.example.demo.service.ProjectionVersions;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire sur le titre, l'auteur et la description des livres.
+ *
+ * Les termes sont normalisés (minuscules, sans accents) et rangés dans un
+ * dictionnaire trié, ce qui permet la recherche par préfixe ("miser" trouve
+ * "misérables"). Chaque terme pointe vers les livres qui le contiennent avec
+ * un poids dépendant du champ : titre > auteur > description.
+ *
+ * Les listes de publication sont des tableaux primitifs triés par identifiant
+ * (Postings : 9 octets par occurrence, sans objet par livre), et l'état de chaque
+ * livre indexé est rangé dans des tableaux par case, retrouvée par LongLongHashMap.
+ * Une recherche combine les listes par fusion de tableaux triés, sans boxing.
+ * Un état plus ancien que le dernier indexé pour ce livre est ignoré.
+ */
+@Component
+public class BookSearchIndex implements CatalogProjection {
+
+    static final int TITLE_WEIGHT = 3;
+    static final int AUTHOR_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    /** En dessous de cette longueur, un terme de requête n'est pas étendu par préfixe */
+    static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    /** Bits de poids faible réservés au score dans les résultats intermédiaires (identifiant << SCORE_BITS | score) */
+    private static final int SCORE_BITS = 16;
+    private static final long SCORE_MASK = (1L << SCORE_BITS) - 1;
+
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Case de chaque livre indexé dans les tableaux ci-dessous */
+    private final LongLongHashMap slots = new LongLongHashMap(1024);
+    /** Termes indexés du livre de chaque case, pour le retirer */
+    private String[][] slotTerms = new String[1024][];
+    /** Empreinte du titre, de l'auteur et de la description : inchangée, seule la disponibilité est mise à jour */
+    private long[] slotFingerprints = new long[1024];
+    private boolean[] slotAvailable = new boolean[1024];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+
+    /** Dernière version appliquée par livre : les états reçus en retard sont ignorés */
+    private final ProjectionVersions versions = new ProjectionVersions();
+    private volatile boolean ready;
+
+    /**
+     * Liste de publication d'un terme : identifiants croissants et poids associés
+     */
+    static final class Postings {
+
+        private long[] ids = new long[2];
+        private byte[] weights = new byte[2];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long id(int index) {
+            return ids[index];
+        }
+
+        int weight(int index) {
+            return weights[index];
+        }
+
+        void put(long id, int weight) {
+            // Ajout en fin le plus fréquent : chargement par identifiants croissants, nouveaux livres
+            int index = size > 0 && ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                weights[index] = (byte) weight;
+                return;
+            }
+            int insertion = -index - 1;
+            if (size == ids.length) {
+                int capacity = size + (size >> 1) + 1;
+                ids = Arrays.copyOf(ids, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion);
+            System.arraycopy(weights, insertion, weights, insertion + 1, size - insertion);
+            ids[insertion] = id;
+            weights[insertion] = (byte) weight;
+            size++;
+        }
+
+        void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+            size--;
+            if (size < ids.length >> 2 && ids.length > 8) {
+                ids = Arrays.copyOf(ids, size << 1);
+                weights = Arrays.copyOf(weights, size << 1);
+            }
+        }
+
+        long memoryBytes() {
+            return 9L * ids.length;
+        }
+    }
+
+    /**
+     * Résultat classé d'une recherche
+     * @param bookId Identifiant du livre trouvé
+     * @param score Pertinence, plus elle est élevée mieux c'est
+     */
+    public record Hit(long bookId, int score) {
+    }
+
+    /**
+     * Découpe un texte en termes normalisés
+     * @param text Le texte à découper, peut être null
+     * @return Les termes distincts, dans l'ordre d'apparition
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : SEPARATORS.split(folded)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /** @return La mémoire occupée par les listes de publication et les cases des livres, en octets */
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = slots.memoryBytes() + versions.memoryBytes() + 17L * slotTerms.length + 4L * freeSlots.length;
+            for (Postings list : postings.values()) {
+                bytes += list.memoryBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ajoute ou remplace un livre dans l'index
+     * @param book Le livre à indexer
+     */
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            if (!versions.advance(book)) {
+                return;
+            }
+            int slot = (int) slots.get(book.getId());
+            if (slot >= 0 && slotFingerprints[slot] == fingerprint(book)) {
+                // Variation de stock : les termes ne changent pas
+                slotAvailable[slot] = book.isAvailable();
+                return;
+            }
+            removeLocked(book.getId());
+            addLocked(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ajoute un lot de livres importés, sous un seul verrou
+     * @param books Les livres à indexer
+     */
+    public void indexAll(List<Book> books) {
+        lock.writeLock().lock();
+        try {
+            books.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un livre de l'index
+     * @param bookId Identifiant du livre supprimé
+     */
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            versions.delete(bookId);
+            removeLocked(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Démarre une reconstruction complète. Les modifications reçues pendant
+     * la reconstruction restent prioritaires sur les lignes lues en base.
+     */
+    @Override
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            slots.clear();
+            slotTerms = new String[1024][];
+            slotFingerprints = new long[1024];
+            slotAvailable = new boolean[1024];
+            freeCount = 0;
+            slotCount = 0;
+            versions.clear();
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ajoute un livre lu pendant la reconstruction, sauf s'il a été modifié
+     * ou supprimé entre-temps
+     * @param book Le livre lu en base
+     */
+    @Override
+    public void load(Book book) {
+        index(book);
+    }
+
+    @Override
+    public void endRebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les livres contenant tous les termes de la requête
+     * @param query Texte libre saisi par l'utilisateur
+     * @param limit Nombre maximal de résultats
+     * @param availableOnly Ne retourner que les livres disponibles
+     * @return Les résultats classés par pertinence décroissante
+     */
+    public List<Hit> search(String query, int limit, boolean availableOnly) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            long[] matches = null;
+            for (String term : terms) {
+                long[] termMatches = scoreTerm(term);
+                // Sémantique ET : on ne garde que les livres contenant tous les termes
+                matches = matches == null ? termMatches : intersect(matches, termMatches);
+                if (matches.length == 0) {
+                    return List.of();
+                }
+            }
+            return topHits(matches, limit, availableOnly);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Order(CatalogVersion.BEFORE_VERSION_BUMP)
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.type() == BookChangedEvent.Type.DELETED) {
+            remove(event.bookId());
+        } else {
+            index(event.book());
+        }
+    }
+
+    @Order(CatalogVersion.BEFORE_VERSION_BUMP)
+    @TransactionalEventListener
+    public void onBooksImported(BooksImportedEvent event) {
+        indexAll(event.books());
+    }
+
+    /**
+     * Livres contenant un terme, exactement ou par préfixe. Les correspondances
+     * exactes valent double par rapport aux correspondances par préfixe.
+     * @return Les couples (identifiant << SCORE_BITS | score), triés par identifiant
+     */
+    private long[] scoreTerm(String term) {
+        Postings exact = postings.get(term);
+        Collection<Postings> prefixed = term.length() >= MIN_PREFIX_LENGTH
+                ? postings.subMap(term, false, term + Character.MAX_VALUE, false).values()
+                : List.of();
+        int total = exact != null ? exact.size() : 0;
+        for (Postings list : prefixed) {
+            total += list.size();
+        }
+        long[] matches = new long[total];
+        int count = 0;
+        if (exact != null) {
+            for (int i = 0; i < exact.size(); i++) {
+                matches[count++] = exact.id(i) << SCORE_BITS | exact.weight(i) * 2;
+            }
+        }
+        if (count == total) {
+            // Terme exact seul : la liste est déjà triée et sans doublon
+            return matches;
+        }
+        for (Postings list : prefixed) {
+            for (int i = 0; i < list.size(); i++) {
+                matches[count++] = list.id(i) << SCORE_BITS | list.weight(i);
+            }
+        }
+        // Un livre peut contenir plusieurs termes du préfixe : on garde son meilleur score,
+        // le dernier de chaque suite d'identifiants égaux une fois triés
+        Arrays.sort(matches);
+        int distinct = 0;
+        for (int i = 0; i < matches.length; i++) {
+            if (i + 1 == matches.length || matches[i + 1] >>> SCORE_BITS != matches[i] >>> SCORE_BITS) {
+                matches[distinct++] = matches[i];
+            }
+        }
+        return Arrays.copyOf(matches, distinct);
+    }
+
+    /** Livres présents dans les deux listes, scores additionnés */
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            long leftId = left[i] >>> SCORE_BITS;
+            long rightId = right[j] >>> SCORE_BITS;
+            if (leftId < rightId) {
+                i++;
+            } else if (leftId > rightId) {
+                j++;
+            } else {
+                long score = Math.min(SCORE_MASK, (left[i] & SCORE_MASK) + (right[j] & SCORE_MASK));
+                result[count++] = leftId << SCORE_BITS | score;
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private List<Hit> topHits(long[] matches, int limit, boolean availableOnly) {
+        Comparator<Hit> ranking = Comparator.comparingInt(Hit::score)
+                .thenComparing(Hit::bookId, Comparator.reverseOrder());
+        PriorityQueue<Hit> best = new PriorityQueue<>(ranking);
+        for (long match : matches) {
+            long bookId = match >>> SCORE_BITS;
+            if (availableOnly && !slotAvailable[(int) slots.get(bookId)]) {
+                continue;
+            }
+            Hit hit = new Hit(bookId, (int) (match & SCORE_MASK));
+            if (best.size() < limit) {
+                best.add(hit);
+            } else if (ranking.compare(hit, best.peek()) > 0) {
+                best.poll();
+                best.add(hit);
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(ranking.reversed());
+        return hits;
+    }
+
+    private void addLocked(Book book) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(book.getTitle()).forEach(term -> weights.merge(term, TITLE_WEIGHT, Integer::sum));
+        tokenize(book.getAuthor()).forEach(term -> weights.merge(term, AUTHOR_WEIGHT, Integer::sum));
+        tokenize(book.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        String[] terms = new String[weights.size()];
+        int count = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            Postings list = postings.get(entry.getKey());
+            if (list == null) {
+                list = new Postings();
+                postings.put(entry.getKey(), list);
+            }
+            list.put(book.getId(), entry.getValue());
+            // Le terme conservé est celui du dictionnaire, partagé par tous ses livres
+            terms[count++] = postings.ceilingKey(entry.getKey());
+        }
+        int slot = allocateSlot();
+        slots.put(book.getId(), slot);
+        slotTerms[slot] = terms;
+        slotFingerprints[slot] = fingerprint(book);
+        slotAvailable[slot] = book.isAvailable();
+    }
+
+    private void removeLocked(Long bookId) {
+        long slot = slots.remove(bookId);
+        if (slot == LongLongHashMap.NO_VALUE) {
+            return;
+        }
+        for (String term : slotTerms[(int) slot]) {
+            Postings list = postings.get(term);
+            if (list != null) {
+                list.remove(bookId);
+                if (list.size() == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        slotTerms[(int) slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = (int) slot;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == slotTerms.length) {
+            int capacity = slotCount * 2;
+            slotTerms = Arrays.copyOf(slotTerms, capacity);
+            slotFingerprints = Arrays.copyOf(slotFingerprints, capacity);
+            slotAvailable = Arrays.copyOf(slotAvailable, capacity);
+        }
+        return slotCount++;
+    }
+
+    /** Empreinte FNV-1a sur 64 bits des champs indexés */
+    private static long fingerprint(Book book) {
+        long hash = 0xcbf29ce484222325L;
+        for (String field : new String[] {book.getTitle(), book.getAuthor(), book.getDescription()}) {
+            if (field != null) {
+                for (int i = 0; i < field.length(); i++) {
+                    hash = (hash ^ field.charAt(i)) * 0x100000001b3L;
+                }
+            }
+            // Séparateur : ("ab", "c") et ("a", "bc") n'ont pas la même empreinte, null non plus que ""
+            hash = (hash ^ (field == null ? 0x10000 : 0x10001)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.search;
+
+import com.example.demo.model.Book;
+import com.example.demo.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Recherche plein texte sur le catalogue, servie par l'index en mémoire.
+ * L'index est chargé au démarrage par CatalogWarmup ; tant qu'il n'est pas
+ * construit, la recherche retombe sur la requête LIKE historique.
+ */
+@Service
+public class BookSearchService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private BookSearchIndex searchIndex;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    /**
+     * Recherche classée sur le titre, l'auteur et la description
+     * @param query Texte libre
+     * @param limit Nombre maximal de résultats, borné à MAX_LIMIT
+     * @param availableOnly Ne retourner que les livres disponibles
+     * @return Les livres trouvés, du plus pertinent au moins pertinent
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Book> search(String query, int limit, boolean availableOnly) {
+        int maxResults = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (!searchIndex.isReady()) {
+            return bookRepository.findByTitleContainingIgnoreCase(query).stream()
+                    .filter(book -> !availableOnly || book.isAvailable())
+                    .limit(maxResults)
+                    .toList();
+        }
+        List<BookSearchIndex.Hit> hits = searchIndex.search(query, maxResults, availableOnly);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> books = bookRepository.findAllById(hits.stream().map(BookSearchIndex.Hit::bookId).toList())
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        // On conserve l'ordre de pertinence de l'index
+        return hits.stream()
+                .map(hit -> books.get(hit.bookId()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.security;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.cache.CacheStats;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Met en cache les authentifications HTTP Basic réussies.
+ *
+ * En mode STATELESS, chaque requête renvoie les identifiants et déclenche une
+ * vérification BCrypt (plusieurs dizaines de millisecondes de CPU). Ce
+ * fournisseur mémorise, pour une courte durée, le résultat d'une vérification
+ * réussie sous une clé HMAC-SHA256 (clé aléatoire propre au processus) du nom
+ * d'utilisateur et du mot de passe : le mot de passe n'est jamais conservé en clair.
+ *
+ * Chaque utilisateur a une génération incluse dans la clé. La modifier
+ * (invalidate) rend aussitôt inaccessibles toutes ses entrées. Les échecs ne
+ * sont jamais mis en cache.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final BoundedCache<String, Authentication> cache;
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private final SecretKeySpec hmacKey;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, int maxEntries, Duration ttl) {
+        this.delegate = delegate;
+        this.cache = new BoundedCache<>(maxEntries, ttl);
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.hmacKey = new SecretKeySpec(key, "HmacSHA256");
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+        String username = authentication.getName();
+        String key = cacheKey(username, authentication.getCredentials().toString());
+        Optional<Authentication> verified = cache.get(key, k -> Optional.ofNullable(delegate.authenticate(authentication)));
+        if (verified.isEmpty()) {
+            return null;
+        }
+        // Nouveau jeton à chaque requête : ProviderManager efface les identifiants du résultat
+        Authentication cached = verified.get();
+        UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                cached.getPrincipal(), null, cached.getAuthorities());
+        result.setDetails(authentication.getDetails());
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    /**
+     * Oublie les authentifications mémorisées d'un utilisateur
+     * @param username Nom de l'utilisateur modifié ou supprimé
+     */
+    public void invalidate(String username) {
+        generations.merge(username, 1L, Long::sum);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private String cacheKey(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hmacKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(password.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(Long.toString(generations.getOrDefault(username, 0L)).getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+}
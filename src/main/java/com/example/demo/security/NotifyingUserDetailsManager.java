@@ -0,0 +1,70 @@
+package com.example.demo.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Gestionnaire d'utilisateurs en mémoire qui signale chaque modification
+ * d'un compte (création, mise à jour, suppression, changement de mot de passe),
+ * afin d'invalider les authentifications mises en cache.
+ */
+public class NotifyingUserDetailsManager extends InMemoryUserDetailsManager {
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    public NotifyingUserDetailsManager(UserDetails... users) {
+        super(users);
+    }
+
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void createUser(UserDetails user) {
+        super.createUser(user);
+        notifyChanged(user.getUsername());
+    }
+
+    @Override
+    public void updateUser(UserDetails user) {
+        super.updateUser(user);
+        notifyChanged(user.getUsername());
+    }
+
+    @Override
+    public void deleteUser(String username) {
+        super.deleteUser(username);
+        notifyChanged(username);
+    }
+
+    @Override
+    public void changePassword(String oldPassword, String newPassword) {
+        super.changePassword(oldPassword, newPassword);
+        Authentication current = SecurityContextHolder.getContext().getAuthentication();
+        if (current != null) {
+            notifyChanged(current.getName());
+        }
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetails updated = super.updatePassword(user, newPassword);
+        notifyChanged(user.getUsername());
+        return updated;
+    }
+
+    private void notifyChanged(String username) {
+        // Le constructeur parent appelle createUser avant l'initialisation des champs
+        if (listeners == null) {
+            return;
+        }
+        listeners.forEach(listener -> listener.accept(username));
+    }
+}
@@ -1,62 +1,574 @@
 package com.example.demo.service;
 
+import com.example.demo.audit.AuditLog;
+import com.example.demo.author.AuthorNames;
+import com.example.demo.cache.BookCache;
+import com.example.demo.dto.AuditEntry;
+import com.example.demo.dto.BookBatch;
+import com.example.demo.dto.BookPage;
+import com.example.demo.dto.BookRows;
+import com.example.demo.dto.CatalogStats;
+import com.example.demo.event.BookChangedEvent;
+import com.example.demo.exception.BookNotFoundException;
+import com.example.demo.exception.DuplicateIsbnException;
+import com.example.demo.exception.InsufficientStockException;
+import com.example.demo.inventory.AvailabilityIndex;
+import com.example.demo.inventory.QuantityCoalescer;
+import com.example.demo.isbn.Isbn;
+import com.example.demo.isbn.IsbnIndex;
 import com.example.demo.model.Book;
 import com.example.demo.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class BookService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BATCH_KEYS = 1000;
+
+    /** Attributs sélectionnables par ?fields=, l'identifiant est toujours inclus */
+    public static final List<String> PROJECTABLE_FIELDS = List.of(
+            "id", "title", "author", "isbn", "description", "quantity", "available", "version", "updatedAt");
+
+    /** Nombre de clés par requête IN (...) lors des lectures groupées */
+    static final int IN_CHUNK_SIZE = 500;
     
     @Autowired
     private BookRepository bookRepository;
-    
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private QuantityCoalescer quantityCoalescer;
+
+    @Autowired
+    private IsbnIndex isbnIndex;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    /**
+     * Crée ou remplace un livre. L'ISBN doit être valide et ne pas être celui
+     * d'un autre livre, sous quelque forme que ce soit (ISBN-10, ISBN-13, tirets).
+     * @param book Le livre à enregistrer
+     * @return Le livre enregistré
+     * @throws IllegalArgumentException si l'ISBN est invalide
+     * @throws DuplicateIsbnException si un autre livre a le même ISBN
+     */
     public Book saveBook(Book book) {
-        return bookRepository.save(book);
+        return save(book, null);
+    }
+
+    /**
+     * Remplace un livre existant. La version transmise doit correspondre à la
+     * version en base, sinon une ObjectOptimisticLockingFailureException est levée.
+     * @param id Identifiant du livre à remplacer
+     * @param book Nouvel état complet du livre, version comprise
+     * @return Le livre mis à jour
+     */
+    public Book updateBook(Long id, Book book) {
+        // Chargé dans le contexte de persistance : save le met à jour sans relecture
+        Book current = bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
+        book.setId(id);
+        quantityCoalescer.discard(id);
+        return save(book, current.getQuantity());
     }
     
+    /**
+     * Lecture par identifiant, servie par le cache. Aucune transaction n'est
+     * ouverte sur un succès de cache.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Book> findById(Long id) {
-        return bookRepository.findById(id);
+        return bookCache.getById(id, bookRepository::findById).map(quantityCoalescer::project);
     }
     
+    /**
+     * Lecture groupée par identifiant : cache d'abord, puis une requête IN (...)
+     * par tranche de IN_CHUNK_SIZE identifiants absents du cache
+     * @param ids Identifiants demandés, au plus MAX_BATCH_KEYS
+     * @return Les livres dans l'ordre demandé et les identifiants introuvables
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public BookBatch<Long> findByIds(List<Long> ids) {
+        checkBatch(ids);
+        return toBatch(ids, bookCache.getAllById(ids, this::loadByIds));
+    }
+
+    /**
+     * Lecture groupée par ISBN, mêmes règles que findByIds
+     * @param isbns ISBN demandés, au plus MAX_BATCH_KEYS
+     * @return Les livres dans l'ordre demandé et les ISBN introuvables
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public BookBatch<String> findByIsbns(List<String> isbns) {
+        checkBatch(isbns);
+        if (!isbnIndex.isReady()) {
+            return toBatch(isbns, bookCache.getAllByIsbn(isbns, this::loadByIsbns, this::loadByIds));
+        }
+        // ISBN valides résolus par l'index, les autres (lignes historiques) lus tels quels
+        Map<String, Long> ids = new HashMap<>();
+        List<String> unparsed = new ArrayList<>();
+        for (String isbn : isbns) {
+            long isbn13 = Isbn.tryParse(isbn);
+            if (isbn13 == Isbn.INVALID) {
+                unparsed.add(isbn);
+            } else {
+                Long id = isbnIndex.findId(isbn13);
+                if (id != null) {
+                    ids.put(isbn, id);
+                }
+            }
+        }
+        Map<Long, Optional<Book>> byId = bookCache.getAllById(ids.values(), this::loadByIds);
+        Map<String, Optional<Book>> books = new HashMap<>(unparsed.isEmpty()
+                ? Map.of()
+                : bookCache.getAllByIsbn(unparsed, this::loadByIsbns, this::loadByIds));
+        for (String isbn : isbns) {
+            books.putIfAbsent(isbn, ids.containsKey(isbn) ? byId.get(ids.get(isbn)) : Optional.empty());
+        }
+        return toBatch(isbns, books);
+    }
+
+    @Transactional(readOnly = true)
     public List<Book> findAllBooks() {
         return bookRepository.findAll();
     }
+
+    /**
+     * Retourne une page du catalogue par curseur sur l'identifiant
+     * @param afterId Dernier identifiant reçu (null pour la première page)
+     * @param size Taille demandée, bornée à MAX_PAGE_SIZE
+     * @return La page et le curseur de la page suivante
+     */
+    @Transactional(readOnly = true)
+    public BookPage findBooksPage(Long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // On lit un élément de plus pour savoir s'il existe une page suivante
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0L : afterId, Limit.of(pageSize + 1));
+        if (books.size() <= pageSize) {
+            return new BookPage(books, null);
+        }
+        List<Book> content = books.subList(0, pageSize);
+        return new BookPage(content, content.get(pageSize - 1).getId());
+    }
+
+    /**
+     * Parcourt tout le catalogue ligne par ligne sans le charger en mémoire.
+     * Chaque livre est détaché du contexte de persistance après traitement,
+     * la mémoire consommée reste donc constante quelle que soit la taille de la table.
+     * @param consumer Traitement appliqué à chaque livre
+     */
+    @Transactional(readOnly = true)
+    public void streamAllBooks(Consumer<Book> consumer) {
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            books.forEach(book -> {
+                consumer.accept(book);
+                entityManager.detach(book);
+            });
+        }
+    }
     
-    public List<Book> findByAuthor(String author) {
-        return bookRepository.findByAuthor(author);
+    /**
+     * Retourne une page des livres d'un auteur, comparé sous forme normalisée
+     * ("Victor Hugo", "victor  hugo " et "Víctor Hugo" sont le même auteur)
+     * @param author Nom de l'auteur
+     * @param afterId Dernier identifiant reçu (null pour la première page)
+     * @param size Taille demandée, bornée à MAX_PAGE_SIZE
+     * @return La page et le curseur de la page suivante
+     */
+    @Transactional(readOnly = true)
+    public BookPage findByAuthor(String author, Long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Book> books = bookRepository.findByAuthorKeyAndIdGreaterThanOrderByIdAsc(
+                AuthorNames.key(author), afterId == null ? 0L : afterId, Limit.of(pageSize + 1));
+        if (books.size() <= pageSize) {
+            return new BookPage(books, null);
+        }
+        List<Book> content = books.subList(0, pageSize);
+        return new BookPage(content, content.get(pageSize - 1).getId());
     }
     
+    @Transactional(readOnly = true)
     public List<Book> searchByTitle(String title) {
         return bookRepository.findByTitleContainingIgnoreCase(title);
     }
     
+    /**
+     * Lecture par ISBN sous n'importe quelle forme (ISBN-10, ISBN-13, tirets),
+     * résolue par IsbnIndex puis servie par le cache
+     * @param isbn ISBN recherché
+     * @return Le livre, ou null s'il n'existe pas
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Book findByIsbn(String isbn) {
-        return bookRepository.findByIsbn(isbn);
+        long isbn13 = Isbn.tryParse(isbn);
+        if (isbn13 != Isbn.INVALID) {
+            Long id = findIdByIsbn13(isbn13);
+            if (id != null) {
+                return findById(id).orElse(null);
+            }
+            if (isbnIndex.isReady()) {
+                return null;
+            }
+        }
+        // ISBN invalide d'une ligne historique, ou ligne pas encore complétée par IsbnBackfill
+        return bookCache.getByIsbn(isbn,
+                key -> Optional.ofNullable(bookRepository.findByIsbn(key)),
+                bookRepository::findById).map(quantityCoalescer::project).orElse(null);
     }
     
-    public List<Book> findAvailableBooks() {
-        return bookRepository.findByAvailableTrue();
+    /**
+     * Retourne une page des livres disponibles, servie par l'index des
+     * disponibilités (ou par la base tant qu'il n'est pas chargé)
+     * @param afterId Dernier identifiant reçu (null pour la première page)
+     * @param size Taille demandée, bornée à MAX_PAGE_SIZE
+     * @return La page et le curseur de la page suivante
+     */
+    @Transactional(readOnly = true)
+    public BookPage findAvailableBooksPage(Long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if (!availabilityIndex.isReady()) {
+            List<Book> books = bookRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(
+                    afterId == null ? 0L : afterId, Limit.of(pageSize + 1));
+            if (books.size() <= pageSize) {
+                return new BookPage(books, null);
+            }
+            List<Book> content = books.subList(0, pageSize);
+            return new BookPage(content, content.get(pageSize - 1).getId());
+        }
+        List<Long> ids = availabilityIndex.availableIdsAfter(afterId, pageSize + 1);
+        Long nextCursor = ids.size() > pageSize ? ids.get(pageSize - 1) : null;
+        List<Long> pageIds = ids.subList(0, Math.min(ids.size(), pageSize));
+        List<Book> books = new ArrayList<>(bookRepository.findAllById(pageIds));
+        books.sort(Comparator.comparing(Book::getId));
+        return new BookPage(books, nextCursor);
+    }
+
+    /**
+     * Vérifie et normalise une liste d'attributs du paramètre fields
+     * @param fields Noms séparés par des virgules, par exemple "title,isbn"
+     * @return Les attributs sans doublon, "id" en premier
+     * @throws IllegalArgumentException Si un attribut n'est pas sélectionnable
+     */
+    public static List<String> parseFields(String fields) {
+        List<String> selected = new ArrayList<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.strip();
+            if (name.isEmpty() || selected.contains(name)) {
+                continue;
+            }
+            if (!PROJECTABLE_FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    /**
+     * Variante de findBooksPage ne lisant que les colonnes demandées
+     * @param fields Attributs normalisés par parseFields
+     */
+    @Transactional(readOnly = true)
+    public BookRows findBooksRows(List<String> fields, Long afterId, int size) {
+        return rowsPage(fields, Map.of(), afterId, size);
+    }
+
+    /**
+     * Variante de findAvailableBooksPage ne lisant que les colonnes demandées
+     * @param fields Attributs normalisés par parseFields
+     */
+    @Transactional(readOnly = true)
+    public BookRows findAvailableBooksRows(List<String> fields, Long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if (!availabilityIndex.isReady()) {
+            return rowsPage(fields, Map.of("available", true), afterId, pageSize);
+        }
+        List<Long> ids = availabilityIndex.availableIdsAfter(afterId, pageSize + 1);
+        Long nextCursor = ids.size() > pageSize ? ids.get(pageSize - 1) : null;
+        List<Long> pageIds = ids.subList(0, Math.min(ids.size(), pageSize));
+        List<Object[]> rows = pageIds.isEmpty()
+                ? List.of()
+                : bookRepository.findFields(fields, Map.of("id", pageIds), null, pageSize);
+        return new BookRows(fields, rows, nextCursor);
+    }
+
+    /**
+     * Variante de findByAuthor ne lisant que les colonnes demandées
+     * @param fields Attributs normalisés par parseFields
+     */
+    @Transactional(readOnly = true)
+    public BookRows findByAuthorRows(String author, List<String> fields, Long afterId, int size) {
+        return rowsPage(fields, Map.of("authorKey", AuthorNames.key(author)), afterId, size);
+    }
+
+    private BookRows rowsPage(List<String> fields, Map<String, ?> filters, Long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Object[]> rows = bookRepository.findFields(fields, filters, afterId, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new BookRows(fields, rows, null);
+        }
+        // L'identifiant est toujours la première colonne
+        List<Object[]> content = rows.subList(0, pageSize);
+        return new BookRows(fields, content, (Long) content.get(pageSize - 1)[0]);
+    }
+
+    /**
+     * @return Les compteurs du catalogue, lus dans l'index des disponibilités
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CatalogStats getCatalogStats() {
+        return availabilityIndex.isReady() ? availabilityIndex.stats() : bookRepository.computeCatalogStats();
     }
     
+    /**
+     * Supprime un livre. Seule une suppression effective publie un événement : un
+     * identifiant inconnu ne laisse aucune trace dans les projections, l'ETag du
+     * catalogue, le journal d'audit ni le flux des modifications.
+     * @param id Identifiant du livre
+     */
     public void deleteBook(Long id) {
-        bookRepository.deleteById(id);
+        Optional<Book> book = bookRepository.findById(id);
+        if (book.isEmpty() || bookRepository.deleteRow(id) == 0) {
+            return;
+        }
+        eventPublisher.publishEvent(BookChangedEvent.deleted(id, book.get().getQuantity()));
     }
     
+    /**
+     * Fixe la quantité d'un livre en un UPDATE conditionnel (BookRepository.setQuantity)
+     * @param id Identifiant du livre
+     * @param quantity Nouvelle quantité, positive ou nulle
+     * @return Le livre mis à jour
+     */
     public Book updateBookQuantity(Long id, int quantity) {
-        Optional<Book> bookOpt = bookRepository.findById(id);
-        if (bookOpt.isPresent()) {
-            Book book = bookOpt.get();
-            book.setQuantity(quantity);
-            book.setAvailable(quantity > 0);
-            return bookRepository.save(book);
+        requireQuantity(quantity);
+        Book current = bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
+        int previousQuantity = quantityCoalescer.project(current).getQuantity();
+        // Les mises à jour regroupées de ce livre sont remplacées par la quantité fixée ici
+        quantityCoalescer.discard(id);
+        if (bookRepository.setQuantity(id, quantity) == 0) {
+            throw new BookNotFoundException(id);
         }
-        throw new RuntimeException("Book not found with id: " + id);
+        Book book = bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
+        eventPublisher.publishEvent(BookChangedEvent.quantityChanged(book, previousQuantity));
+        return book;
+    }
+
+    /**
+     * @return true si les mises à jour de stock sont regroupées (voir QuantityCoalescer)
+     */
+    public boolean isCoalescingQuantities() {
+        return quantityCoalescer.isEnabled();
+    }
+
+    /**
+     * Fixe la quantité d'un livre sans écrire en base : la mise à jour est
+     * appliquée au prochain passage du QuantityCoalescer. Aucune transaction
+     * n'est ouverte quand le livre est dans le cache.
+     * @param id Identifiant du livre
+     * @param quantity Nouvelle quantité, positive ou nulle
+     * @return Le livre tel qu'il sera après application
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Book bufferQuantity(Long id, int quantity) {
+        requireQuantity(quantity);
+        Book book = bookCache.getById(id, bookRepository::findById).orElseThrow(() -> new BookNotFoundException(id));
+        int previous = quantityCoalescer.project(book).getQuantity();
+        quantityCoalescer.setQuantity(id, quantity);
+        return audited(quantityCoalescer.project(book), previous);
+    }
+
+    /**
+     * Ajoute des exemplaires sans écrire en base, comme bufferQuantity
+     * @param id Identifiant du livre
+     * @param amount Nombre d'exemplaires ajoutés, strictement positif
+     * @return Le livre tel qu'il sera après application
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Book bufferIncrement(Long id, int amount) {
+        Book book = bookCache.getById(id, bookRepository::findById).orElseThrow(() -> new BookNotFoundException(id));
+        int previous = quantityCoalescer.project(book).getQuantity();
+        quantityCoalescer.add(id, amount);
+        return audited(quantityCoalescer.project(book), previous);
+    }
+
+    /**
+     * Ajoute des exemplaires au stock d'un livre
+     * @param id Identifiant du livre
+     * @param amount Nombre d'exemplaires ajoutés, strictement positif
+     * @return Le livre mis à jour
+     */
+    public Book incrementQuantity(Long id, int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + amount);
+        }
+        return adjustQuantity(id, amount);
+    }
+
+    /**
+     * Retire des exemplaires du stock d'un livre, sans jamais passer sous zéro
+     * @param id Identifiant du livre
+     * @param amount Nombre d'exemplaires retirés, strictement positif
+     * @return Le livre mis à jour
+     */
+    public Book decrementQuantity(Long id, int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + amount);
+        }
+        return adjustQuantity(id, -amount);
+    }
+
+    /**
+     * Retire un exemplaire de chacun des livres en un seul UPDATE. Si un seul
+     * livre manque ou est épuisé, rien n'est retiré (annulation de la transaction).
+     * @param ids Identifiants distincts des livres
+     * @return Les livres mis à jour, dans l'ordre des identifiants demandés
+     */
+    public List<Book> decrementEach(List<Long> ids) {
+        if (ids.isEmpty() || new HashSet<>(ids).size() != ids.size()) {
+            throw new IllegalArgumentException("Book ids must be distinct and non-empty: " + ids);
+        }
+        quantityCoalescer.applyPending(ids);
+        int updated = bookRepository.decrementEach(ids);
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        if (updated != ids.size()) {
+            for (Long id : ids) {
+                if (!books.containsKey(id)) {
+                    throw new BookNotFoundException(id);
+                }
+            }
+            throw new InsufficientStockException(ids);
+        }
+        List<Book> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = books.get(id);
+            eventPublisher.publishEvent(BookChangedEvent.quantityChanged(book, book.getQuantity() + 1));
+            result.add(book);
+        }
+        return result;
+    }
+
+    private Long findIdByIsbn13(long isbn13) {
+        if (isbnIndex.isReady()) {
+            return isbnIndex.findId(isbn13);
+        }
+        Book book = bookRepository.findByIsbn13(isbn13);
+        return book == null ? null : book.getId();
+    }
+
+    private Map<Long, Book> loadByIds(Collection<Long> ids) {
+        Map<Long, Book> books = new HashMap<>();
+        for (List<Long> chunk : chunks(ids)) {
+            bookRepository.findAllById(chunk).forEach(book -> books.put(book.getId(), book));
+        }
+        return books;
+    }
+
+    private Map<String, Book> loadByIsbns(Collection<String> isbns) {
+        Map<String, Book> books = new HashMap<>();
+        for (List<String> chunk : chunks(isbns)) {
+            bookRepository.findByIsbnIn(chunk).forEach(book -> books.put(book.getIsbn(), book));
+        }
+        return books;
+    }
+
+    private static <K> List<List<K>> chunks(Collection<K> keys) {
+        List<K> list = new ArrayList<>(keys);
+        List<List<K>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += IN_CHUNK_SIZE) {
+            chunks.add(list.subList(i, Math.min(list.size(), i + IN_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    private static void checkBatch(List<?> keys) {
+        if (keys == null || keys.size() > MAX_BATCH_KEYS || keys.contains(null)) {
+            throw new IllegalArgumentException("Expected at most " + MAX_BATCH_KEYS + " non-null keys");
+        }
+    }
+
+    private <K> BookBatch<K> toBatch(List<K> keys, Map<K, Optional<Book>> books) {
+        List<Book> found = new ArrayList<>(keys.size());
+        List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            books.get(key).map(quantityCoalescer::project).ifPresentOrElse(found::add, () -> missing.add(key));
+        }
+        return new BookBatch<>(found, missing);
+    }
+
+    private Book adjustQuantity(Long id, int delta) {
+        // Mises à jour regroupées d'abord : ordre des opérations et contrôle du stock sur la quantité à jour
+        quantityCoalescer.applyPending(List.of(id));
+        if (bookRepository.adjustQuantity(id, delta) == 0) {
+            if (!bookRepository.existsById(id)) {
+                throw new BookNotFoundException(id);
+            }
+            throw new InsufficientStockException(id, -delta);
+        }
+        Book book = bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
+        eventPublisher.publishEvent(BookChangedEvent.quantityChanged(book, book.getQuantity() - delta));
+        return book;
+    }
+
+    private static void requireQuantity(int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative: " + quantity);
+        }
+    }
+
+    /** Les mises à jour regroupées ne publient d'événement qu'à leur application : l'audit les consigne dès maintenant */
+    private Book audited(Book buffered, int previousQuantity) {
+        auditLog.record(AuditEntry.Action.QUANTITY_BUFFERED, buffered.getId(), previousQuantity, buffered.getQuantity());
+        return buffered;
+    }
+
+    private Book save(Book book, Integer previousQuantity) {
+        // Jamais celle envoyée par le client : AvailabilityIndex et les UPDATE conditionnels la déduisent de la quantité
+        book.setAvailable(book.getQuantity() > 0);
+        Long existing = findIdByIsbn13(Isbn.parse(book.getIsbn()));
+        if (existing != null && !existing.equals(book.getId())) {
+            throw new DuplicateIsbnException(book.getIsbn(), existing);
+        }
+        Book saved = bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.saved(saved, previousQuantity));
+        return saved;
     }
 }
 
@@ -72,6 +584,8 @@ Explication détaillée du code :
    - Gère automatiquement les transactions
    - Assure l'intégrité des données
    - Rollback automatique en cas d'exception
+   - Les lectures sont en readOnly : avec des réplicas configurés,
+     elles sont servies par une réplique (voir ReplicaRoutingDataSource)
 
 2. Injection de dépendance :
    @Autowired :
@@ -83,18 +597,38 @@ Explication détaillée du code :
    saveBook :
    - Sauvegarde ou met à jour un livre
    - Utilise le repository.save()
+   - Refuse un ISBN invalide (IllegalArgumentException) ou déjà utilisé par un autre
+     livre sous une autre forme (DuplicateIsbnException), contrôle servi par IsbnIndex
+   - La disponibilité est déduite de la quantité, comme dans les UPDATE de stock
+
+   findByIsbn :
+   - Accepte l'ISBN-10 ou l'ISBN-13, avec ou sans tirets : l'ISBN-13 canonique est
+     résolu en identifiant par IsbnIndex, puis le livre est lu dans le cache
    
    findById :
    - Recherche un livre par son ID
    - Retourne un Optional<Book>
+   - Lecture servie par BookCache (absences comprises)
    
+   findByIds / findByIsbns :
+   - Lectures groupées (étagères de 50 à 200 livres) : cache d'abord, puis
+     une requête IN (...) par tranche de 500 clés absentes du cache
+   - Résultat dans l'ordre demandé, clés introuvables listées à part
+
    findAllBooks :
    - Récupère tous les livres
    - Utilise repository.findAll()
+
+   findBooksPage :
+   - Pagination par curseur, taille de page bornée à MAX_PAGE_SIZE
+
+   streamAllBooks :
+   - Parcourt la table via un curseur JDBC et détache chaque entité
+   - Mémoire constante, utilisé pour la sérialisation en flux
    
    findByAuthor :
-   - Trouve les livres d'un auteur
-   - Délègue au repository
+   - Trouve les livres d'un auteur, paginés par curseur
+   - Comparaison sur la colonne indexée author_key (nom normalisé)
    
    searchByTitle :
    - Recherche par titre (insensible à la casse)
@@ -103,19 +637,58 @@ Explication détaillée du code :
    findByIsbn :
    - Trouve un livre par ISBN
    - ISBN étant unique, retourne un seul livre
+   - Lecture servie par BookCache
    
-   findAvailableBooks :
-   - Liste tous les livres disponibles
+   findAvailableBooksPage :
+   - Pagination par curseur des livres disponibles
+   - Identifiants lus dans AvailabilityIndex, puis un seul findAllById pour la page
+   - Repli sur la requête paginée en base tant que l'index n'est pas chargé
+
+   parseFields / findBooksRows / findAvailableBooksRows / findByAuthorRows :
+   - Mêmes pages que les méthodes complètes, réduites aux attributs de ?fields=
+   - Seules ces colonnes sont lues (requête tuple), aucune entité n'est hydratée
+   - L'identifiant est toujours sélectionné : il sert de curseur
+
+   getCatalogStats :
+   - Titres, exemplaires et titres disponibles, maintenus par AvailabilityIndex
    
    deleteBook :
    - Supprime un livre par son ID
+   - N'émet un événement (projections, ETag, audit, flux) que si une ligne a été supprimée
    
    updateBookQuantity :
-   - Met à jour la quantité d'un livre
-   - Gère aussi le statut de disponibilité
-   - Lance une exception si le livre n'existe pas
+   - Met à jour la quantité d'un livre en un seul UPDATE (BookRepository.setQuantity),
+     qui recalcule aussi la disponibilité, la version et updatedAt
+   - Quantité négative : IllegalArgumentException ; livre absent : BookNotFoundException
+   - Les mises à jour regroupées en attente pour ce livre sont abandonnées
+
+   bufferQuantity / bufferIncrement :
+   - Mode regroupé (library.quantity-coalescing.enabled) : la mise à jour est confiée
+     au QuantityCoalescer et appliquée en base par lot, sans transaction sur un succès de cache
+   - Renvoient le livre tel qu'il sera après application
+   - findById, findByIds et findByIsbns voient les quantités en attente
+   - Consignées dans le journal d'audit dès leur acceptation (QUANTITY_BUFFERED)
+
+   incrementQuantity / decrementQuantity :
+   - Variation atomique du stock par un seul UPDATE conditionnel
+   - Les mises à jour regroupées en attente du livre sont appliquées avant, dans la même transaction
+   - BookNotFoundException si le livre n'existe pas
+   - InsufficientStockException si le stock deviendrait négatif
+
+   decrementEach :
+   - Un exemplaire de moins pour plusieurs livres, en un seul UPDATE
+   - Tout ou rien : un livre absent ou épuisé annule l'ensemble
+
+   updateBook :
+   - Remplacement complet protégé par la version (verrouillage optimiste)
+   - Disponibilité déduite de la quantité, quel que soit le champ available reçu
+
+4. Événements :
+   - Chaque modification publie un BookChangedEvent, avec la quantité précédente
+     quand elle est connue sans lecture supplémentaire (journal d'audit)
+   - Les structures en mémoire (index de recherche, ...) le reçoivent après commit
 
-4. Gestion des erreurs :
+5. Gestion des erreurs :
    - Utilisation d'Optional pour gérer les nulls
    - Exceptions appropriées pour les cas d'erreur
    - Transactions automatiques pour la cohérence
@@ -0,0 +1,29 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Book;
+
+/**
+ * Structure en mémoire dérivée du catalogue (index de recherche, disponibilités, ...).
+ *
+ * Au démarrage, CatalogWarmup parcourt la table une seule fois et alimente
+ * toutes les projections. Ensuite, chacune se tient à jour à partir des
+ * BookChangedEvent et des BooksImportedEvent (un par lot d'import) ; les
+ * modifications reçues pendant le chargement restent prioritaires sur les
+ * lignes lues en base.
+ */
+public interface CatalogProjection {
+
+    /** Vide la structure avant un chargement complet */
+    void beginRebuild();
+
+    /**
+     * Ajoute un livre lu pendant le chargement, sauf s'il a été modifié ou supprimé entre-temps
+     * @param book Le livre lu en base
+     */
+    void load(Book book);
+
+    /** Termine le chargement : la structure peut servir les lectures */
+    void endRebuild();
+
+    boolean isReady();
+}
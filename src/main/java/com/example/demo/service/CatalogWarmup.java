@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Book;
+import com.example.demo.replica.PrimaryReads;
+import com.example.demo.snapshot.CatalogSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Chargement au démarrage de toutes les projections du catalogue
+ * par un seul parcours en flux de la table, ou depuis le dernier instantané
+ * binaire complété des modifications ultérieures (voir CatalogSnapshot).
+ * Après un parcours complet, un nouvel instantané est écrit en arrière-plan.
+ */
+@Component
+public class CatalogWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogWarmup.class);
+
+    @Autowired
+    private List<CatalogProjection> projections;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private PrimaryReads primaryReads;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        projections.forEach(CatalogProjection::beginRebuild);
+        // Sur la base principale : une modification qu'une réplique n'a pas encore rejouée ne serait jamais rattrapée
+        long count = primaryReads.call(() -> catalogSnapshot.warmStart(this::load));
+        String source = "snapshot";
+        if (count < 0) {
+            long[] scanned = {0};
+            primaryReads.run(() -> bookService.streamAllBooks(book -> {
+                load(book);
+                scanned[0]++;
+            }));
+            count = scanned[0];
+            source = "database";
+            catalogSnapshot.writeAsync();
+        }
+        projections.forEach(CatalogProjection::endRebuild);
+        log.info("Loaded {} books from {} into {} in {} ms", count, source,
+                projections.stream().map(p -> p.getClass().getSimpleName()).toList(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void load(Book book) {
+        for (CatalogProjection projection : projections) {
+            projection.load(book);
+        }
+    }
+}
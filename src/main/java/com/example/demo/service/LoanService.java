@@ -0,0 +1,144 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.LoanPage;
+import com.example.demo.exception.LoanNotFoundException;
+import com.example.demo.model.Loan;
+import com.example.demo.repository.LoanRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Circulation : emprunts et retours d'exemplaires.
+ *
+ * Un emprunt retire le stock et crée l'emprunt dans la même transaction :
+ * la sortie de stock est un UPDATE conditionnel (jamais de lecture puis
+ * écriture), donc des centaines d'emprunts simultanés du même titre ne
+ * peuvent pas sortir plus d'exemplaires qu'il n'y en a.
+ */
+@Service
+@Transactional
+public class LoanService {
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${library.loans.period:14d}")
+    private Duration loanPeriod;
+
+    /**
+     * Emprunte un exemplaire de chacun des livres demandés, tout ou rien
+     * @param borrower Identifiant du lecteur
+     * @param bookIds Identifiants distincts des livres
+     * @return Les emprunts créés, dans l'ordre des livres demandés
+     */
+    public List<Loan> checkout(String borrower, List<Long> bookIds) {
+        if (borrower == null || borrower.isBlank()) {
+            throw new IllegalArgumentException("Borrower is required");
+        }
+        if (bookIds == null || bookIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one book id is required");
+        }
+        if (bookIds.size() == 1) {
+            bookService.decrementQuantity(bookIds.get(0), 1);
+        } else {
+            // Un seul aller-retour pour tout le stock, quel que soit le nombre de livres
+            bookService.decrementEach(bookIds);
+        }
+        Instant now = Instant.now();
+        LocalDate dueDate = LocalDate.ofInstant(now, ZoneId.systemDefault()).plusDays(loanPeriod.toDays());
+        List<Loan> loans = new ArrayList<>(bookIds.size());
+        for (Long bookId : bookIds) {
+            Loan loan = new Loan();
+            loan.setBookId(bookId);
+            loan.setBorrower(borrower);
+            loan.setCheckedOutAt(now);
+            loan.setDueDate(dueDate);
+            loans.add(loan);
+        }
+        entityManager.unwrap(Session.class).setJdbcBatchSize(loans.size());
+        return loanRepository.saveAll(loans);
+    }
+
+    /**
+     * Rend un emprunt et remet l'exemplaire en stock
+     * @param id Identifiant de l'emprunt
+     * @return L'emprunt clôturé
+     */
+    public Loan returnLoan(Long id) {
+        Loan loan = loanRepository.findById(id).orElseThrow(() -> new LoanNotFoundException(id));
+        if (loanRepository.markReturned(id, Instant.now()) == 0) {
+            throw new IllegalStateException("Loan already returned: " + id);
+        }
+        bookService.incrementQuantity(loan.getBookId(), 1);
+        return loanRepository.findById(id).orElseThrow(() -> new LoanNotFoundException(id));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Loan> findById(Long id) {
+        return loanRepository.findById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Loan> findActiveLoans(String borrower) {
+        return loanRepository.findByBorrowerAndStatus(borrower, Loan.Status.ACTIVE);
+    }
+
+    /**
+     * Retourne une page des emprunts en retard par curseur sur l'identifiant
+     * @param afterId Dernier identifiant reçu (null pour la première page)
+     * @param size Taille demandée, bornée à BookService.MAX_PAGE_SIZE
+     * @return La page et le curseur de la page suivante
+     */
+    @Transactional(readOnly = true)
+    public LoanPage findOverdueLoans(Long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, BookService.MAX_PAGE_SIZE));
+        List<Loan> loans = loanRepository.findOverdue(LocalDate.now(), afterId == null ? 0L : afterId,
+                Limit.of(pageSize + 1));
+        if (loans.size() <= pageSize) {
+            return new LoanPage(loans, null);
+        }
+        List<Loan> content = loans.subList(0, pageSize);
+        return new LoanPage(content, content.get(pageSize - 1).getId());
+    }
+}
+
+/*
+Explication détaillée du code :
+
+   checkout :
+   - Un livre : BookService.decrementQuantity (UPDATE conditionnel sur la quantité)
+   - Plusieurs livres : BookService.decrementEach, un seul UPDATE ... WHERE id IN
+   - Puis insertion des emprunts en un lot JDBC (séquence loan_seq)
+   - Livre absent ou épuisé : exception, la transaction est annulée en entier
+
+   returnLoan :
+   - Clôture conditionnelle (status = ACTIVE) : un double retour échoue
+     avec IllegalStateException au lieu de remettre deux exemplaires en stock
+   - L'exemplaire est remis en stock dans la même transaction
+
+   findOverdueLoans :
+   - Emprunts en cours dont l'échéance est dépassée, index (status, due_date)
+   - Pagination par curseur comme le catalogue
+
+   La durée d'emprunt est configurable (library.loans.period, 14 jours par défaut).
+*/
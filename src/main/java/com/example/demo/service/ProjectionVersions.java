@@ -0,0 +1,54 @@
+package com.example.demo.service;
+
+import com.example.demo.isbn.LongLongHashMap;
+import com.example.demo.model.Book;
+
+/**
+ * Version (Book.version) du dernier état appliqué de chaque livre par une projection.
+ *
+ * Les événements après commit de deux transactions sur le même livre sont
+ * livrés par les threads de ces transactions et peuvent arriver dans le
+ * désordre : un état n'est appliqué que s'il est plus récent que le dernier
+ * appliqué. Un livre supprimé garde une version maximale ; les identifiants
+ * n'étant jamais réutilisés, tout état reçu après sa suppression est ignoré.
+ *
+ * Une ligne lue pendant un chargement complet passe par le même contrôle :
+ * une modification déjà reçue reste prioritaire sur une lecture plus ancienne.
+ * Les appels se font sous le verrou de la projection.
+ */
+public class ProjectionVersions {
+
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final LongLongHashMap versions = new LongLongHashMap(1024);
+
+    /**
+     * @param book État reçu d'un livre
+     * @return true si cet état est plus récent que le dernier appliqué, et devient le dernier appliqué
+     */
+    public boolean advance(Book book) {
+        long applied = versions.get(book.getId());
+        if (applied != LongLongHashMap.NO_VALUE && applied >= book.getVersion()) {
+            return false;
+        }
+        versions.put(book.getId(), book.getVersion());
+        return true;
+    }
+
+    /**
+     * Marque un livre supprimé
+     * @param bookId Identifiant du livre
+     */
+    public void delete(Long bookId) {
+        versions.put(bookId, DELETED);
+    }
+
+    public void clear() {
+        versions.clear();
+    }
+
+    /** @return La taille de la table en octets */
+    public long memoryBytes() {
+        return versions.memoryBytes();
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.demo.snapshot;
+
+import com.example.demo.dto.SnapshotInfo;
+import com.example.demo.model.Book;
+import com.example.demo.repository.BookRepository;
+import com.example.demo.service.BookService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Instantanés binaires du catalogue (voir SnapshotFile), écrits dans
+ * library.snapshot.directory après un chargement complet puis toutes les
+ * library.snapshot.interval, et servis par GET /api/books/snapshot.
+ *
+ * Démarrage à chaud : au lieu de relire toute la table, CatalogWarmup charge
+ * les projections depuis le dernier instantané valide, complété par les livres
+ * modifiés depuis (updated_at postérieur à sa date, moins deltaMargin pour les
+ * transactions validées pendant son écriture) et privé des livres supprimés
+ * (identifiants absents de la table, lus par un parcours d'index).
+ *
+ * Chaque instantané est écrit dans un fichier temporaire puis renommé
+ * atomiquement ; les keep plus récents sont conservés, de sorte qu'un export
+ * en cours n'est jamais coupé par l'écriture du suivant.
+ */
+@Component
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    static final String PREFIX = "catalog-";
+    static final String SUFFIX = ".snap";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final Duration maxAge;
+    private final Duration deltaMargin;
+    private final int keep;
+    private final BookService bookService;
+    private final BookRepository bookRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ScheduledExecutorService executor;
+
+    public CatalogSnapshot(@Value("${library.snapshot.enabled:false}") boolean enabled,
+                           @Value("${library.snapshot.directory:snapshots}") Path directory,
+                           @Value("${library.snapshot.interval:1h}") Duration interval,
+                           @Value("${library.snapshot.max-age:24h}") Duration maxAge,
+                           @Value("${library.snapshot.delta-margin:1m}") Duration deltaMargin,
+                           @Value("${library.snapshot.keep:2}") int keep,
+                           BookService bookService,
+                           BookRepository bookRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.maxAge = maxAge;
+        this.deltaMargin = deltaMargin;
+        this.keep = Math.max(1, keep);
+        this.bookService = bookService;
+        this.bookRepository = bookRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled && !interval.isZero()) {
+            executor.scheduleWithFixedDelay(this::writeQuietly, interval.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Charge le catalogue depuis le dernier instantané valide et assez récent
+     * @param sink Reçoit chaque livre du catalogue courant, une seule fois
+     * @return Le nombre de livres transmis, ou -1 sans instantané utilisable (rien n'a été transmis)
+     */
+    public long warmStart(Consumer<Book> sink) {
+        if (!enabled) {
+            return -1;
+        }
+        for (Path path : snapshots()) {
+            try {
+                SnapshotFile.Header header = SnapshotFile.readHeader(path);
+                if (header.takenAt().isBefore(Instant.now().minus(maxAge))) {
+                    log.info("Latest usable snapshot {} is older than {}, loading from the database", path, maxAge);
+                    return -1;
+                }
+                return readOnlyTransaction.execute(status -> load(path, header, sink));
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("Ignoring unusable snapshot {}: {}", path, e.getMessage());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Écrit un nouvel instantané du catalogue
+     * @return Sa description
+     */
+    public synchronized SnapshotInfo write() throws IOException {
+        Files.createDirectories(directory);
+        Instant takenAt = Instant.now();
+        Path target = directory.resolve(PREFIX + takenAt.toEpochMilli() + SUFFIX);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        long start = System.nanoTime();
+        SnapshotFile.Header header;
+        try (SnapshotFile.Writer writer = new SnapshotFile.Writer(temporary, takenAt)) {
+            bookService.streamAllBooks(book -> {
+                try {
+                    writer.append(book);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            header = writer.finish();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        prune();
+        log.info("Wrote snapshot {}: {} books, {} KB in {} ms", target, header.count(), header.fileSize() >> 10,
+                (System.nanoTime() - start) / 1_000_000);
+        return info(target, header);
+    }
+
+    /** Écrit un instantané en arrière-plan, sans attendre */
+    public void writeAsync() {
+        if (enabled) {
+            executor.execute(this::writeQuietly);
+        }
+    }
+
+    /**
+     * @return Le dernier instantané écrit, s'il y en a un
+     */
+    public Optional<SnapshotInfo> latest() {
+        for (Path path : snapshots()) {
+            try {
+                return Optional.of(info(path, SnapshotFile.readHeader(path)));
+            } catch (IOException e) {
+                log.warn("Ignoring unusable snapshot {}: {}", path, e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private long load(Path path, SnapshotFile.Header header, Consumer<Book> sink) {
+        long start = System.nanoTime();
+        Map<Long, Book> changed = new HashMap<>();
+        for (Book book : bookRepository.findByUpdatedAtGreaterThanEqual(header.takenAt().minus(deltaMargin))) {
+            changed.put(book.getId(), book);
+        }
+        long[] ids;
+        try (Stream<Long> stream = bookRepository.streamIds()) {
+            ids = stream.mapToLong(Long::longValue).toArray();
+        }
+        long[] counts = new long[2];
+        try {
+            SnapshotFile.read(path, book -> {
+                Book current = changed.remove(book.getId());
+                if (current != null) {
+                    sink.accept(current);
+                } else if (Arrays.binarySearch(ids, book.getId()) >= 0) {
+                    sink.accept(book);
+                } else {
+                    counts[1]++;
+                }
+                counts[0]++;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Livres créés depuis l'instantané
+        changed.values().forEach(sink);
+        long loaded = counts[0] - counts[1] + changed.size();
+        log.info("Warm start from snapshot {} taken at {}: {} books, {} created, {} deleted since, in {} ms",
+                path.getFileName(), header.takenAt(), loaded, changed.size(), counts[1],
+                (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Catalog snapshot failed: {}", e.toString());
+        }
+    }
+
+    /** @return Les instantanés du dossier, du plus récent au plus ancien */
+    private List<Path> snapshots() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed())
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Cannot list snapshots in {}: {}", directory, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void prune() throws IOException {
+        List<Path> snapshots = snapshots();
+        for (Path old : snapshots.subList(Math.min(keep, snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    private static SnapshotInfo info(Path path, SnapshotFile.Header header) {
+        return new SnapshotInfo(path.getFileName().toString(), header.takenAt(), header.count(), header.fileSize(),
+                path.toAbsolutePath());
+    }
+}
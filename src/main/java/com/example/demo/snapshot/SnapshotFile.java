@@ -0,0 +1,231 @@
+package com.example.demo.snapshot;
+
+import com.example.demo.model.Book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Format binaire des instantanés du catalogue.
+ *
+ * En-tête de HEADER_SIZE octets : MAGIC, FORMAT_VERSION, date de l'instantané
+ * (millisecondes), nombre de livres, longueur du corps et CRC32 du corps.
+ * Corps : un enregistrement par livre, préfixé par sa longueur, avec les champs
+ * numériques à taille fixe puis les chaînes en UTF-8 préfixées par leur longueur
+ * (-1 pour null). Tous les entiers sont gros-boutistes.
+ *
+ * La lecture projette le fichier en mémoire (MappedByteBuffer) et vérifie
+ * l'en-tête et la somme de contrôle avant de décoder le moindre livre.
+ */
+final class SnapshotFile {
+
+    /** "LBS1" */
+    static final int MAGIC = 0x4C425331;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 40;
+
+    /** Taille maximale d'un enregistrement : 5 chaînes de 255 caractères de 4 octets au plus */
+    private static final int MAX_RECORD_SIZE = 64 + 5 * (2 + 255 * 4);
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    /**
+     * En-tête d'un instantané
+     * @param takenAt Début de la lecture du catalogue : les modifications antérieures y figurent
+     * @param count Nombre de livres
+     * @param bodyLength Longueur du corps en octets
+     * @param crc CRC32 du corps
+     */
+    record Header(Instant takenAt, long count, long bodyLength, long crc) {
+
+        long fileSize() {
+            return HEADER_SIZE + bodyLength;
+        }
+    }
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Écriture séquentielle d'un instantané ; l'en-tête est écrit en dernier
+     */
+    static class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final Instant takenAt;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+        private final CRC32 crc = new CRC32();
+        private long count;
+        private long bodyLength;
+
+        Writer(Path path, Instant takenAt) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            this.takenAt = takenAt;
+            channel.position(HEADER_SIZE);
+        }
+
+        void append(Book book) throws IOException {
+            if (buffer.remaining() < MAX_RECORD_SIZE) {
+                drain();
+            }
+            int start = buffer.position();
+            buffer.putInt(0);
+            buffer.putLong(book.getId());
+            buffer.putLong(book.getVersion());
+            buffer.putInt(book.getQuantity());
+            buffer.put((byte) (book.isAvailable() ? 1 : 0));
+            buffer.putLong(book.getUpdatedAt() == null ? NO_DATE : book.getUpdatedAt().toEpochMilli());
+            buffer.putLong(book.getIsbn13() == null ? 0 : book.getIsbn13());
+            putString(book.getTitle());
+            putString(book.getAuthor());
+            putString(book.getAuthorKey());
+            putString(book.getIsbn());
+            putString(book.getDescription());
+            buffer.putInt(start, buffer.position() - start - 4);
+            count++;
+        }
+
+        /**
+         * Écrit l'en-tête et force l'écriture sur disque
+         * @return L'en-tête écrit
+         */
+        Header finish() throws IOException {
+            drain();
+            Header header = new Header(takenAt, count, bodyLength, crc.getValue());
+            ByteBuffer encoded = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(takenAt.toEpochMilli())
+                    .putLong(count)
+                    .putLong(bodyLength)
+                    .putLong(header.crc())
+                    .flip();
+            while (encoded.hasRemaining()) {
+                channel.write(encoded, encoded.position());
+            }
+            channel.force(true);
+            return header;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void putString(String value) {
+            if (value == null) {
+                buffer.putShort((short) -1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            bodyLength += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * @param path Fichier d'instantané
+     * @return Son en-tête, après contrôle du format et de la taille (pas de la somme de contrôle)
+     * @throws IOException si le fichier n'est pas un instantané lisible
+     */
+    static Header readHeader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer encoded = ByteBuffer.allocate(HEADER_SIZE);
+            while (encoded.hasRemaining()) {
+                if (channel.read(encoded) < 0) {
+                    break;
+                }
+            }
+            encoded.flip();
+            if (encoded.remaining() < HEADER_SIZE || encoded.getInt() != MAGIC) {
+                throw new IOException("Not a catalog snapshot: " + path);
+            }
+            int version = encoded.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format " + version + ": " + path);
+            }
+            Header header = new Header(Instant.ofEpochMilli(encoded.getLong()), encoded.getLong(),
+                    encoded.getLong(), encoded.getLong());
+            if (header.fileSize() != channel.size()) {
+                throw new IOException("Truncated snapshot (" + channel.size() + " of " + header.fileSize()
+                        + " bytes): " + path);
+            }
+            return header;
+        }
+    }
+
+    /**
+     * Vérifie puis décode un instantané projeté en mémoire
+     * @param path Fichier d'instantané
+     * @param consumer Reçoit chaque livre, dans l'ordre des identifiants
+     * @return L'en-tête du fichier
+     * @throws IOException si le fichier est invalide ou corrompu ; aucun livre n'a alors été transmis
+     */
+    static Header read(Path path, Consumer<Book> consumer) throws IOException {
+        Header header = readHeader(path);
+        if (header.fileSize() > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot too large to map: " + path);
+        }
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, header.fileSize());
+        }
+        ByteBuffer body = mapped.slice(HEADER_SIZE, (int) header.bodyLength());
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        if (crc.getValue() != header.crc()) {
+            throw new IOException("Snapshot checksum mismatch: " + path);
+        }
+        byte[] scratch = new byte[MAX_RECORD_SIZE];
+        for (long i = 0; i < header.count(); i++) {
+            int length = body.getInt();
+            int end = body.position() + length;
+            Book book = new Book();
+            book.setId(body.getLong());
+            book.setVersion(body.getLong());
+            book.setQuantity(body.getInt());
+            book.setAvailable(body.get() != 0);
+            long updatedAt = body.getLong();
+            book.setUpdatedAt(updatedAt == NO_DATE ? null : Instant.ofEpochMilli(updatedAt));
+            long isbn13 = body.getLong();
+            book.setIsbn13(isbn13 == 0 ? null : isbn13);
+            book.setTitle(getString(body, scratch));
+            book.setAuthor(getString(body, scratch));
+            book.setAuthorKey(getString(body, scratch));
+            book.setIsbn(getString(body, scratch));
+            book.setDescription(getString(body, scratch));
+            // Champs ajoutés en fin d'enregistrement sans changement de FORMAT_VERSION : ignorés
+            body.position(end);
+            consumer.accept(book);
+        }
+        return header;
+    }
+
+    private static String getString(ByteBuffer body, byte[] scratch) {
+        int length = body.getShort();
+        if (length < 0) {
+            return null;
+        }
+        body.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
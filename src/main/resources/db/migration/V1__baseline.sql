@@ -0,0 +1,47 @@
+-- Schéma de référence : tables, séquences et index des entités Book et Loan.
+-- Idempotent : s'applique aussi bien à une base vide qu'à une base déjà
+-- créée par l'ancien ddl-auto=update, dont il complète les colonnes et index manquants.
+
+CREATE SEQUENCE IF NOT EXISTS book_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS loan_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS book (
+    id bigint NOT NULL,
+    title varchar(255) NOT NULL,
+    author varchar(255) NOT NULL,
+    author_key varchar(255),
+    isbn varchar(255) NOT NULL,
+    description varchar(255),
+    quantity integer NOT NULL,
+    available boolean NOT NULL,
+    version bigint DEFAULT 0 NOT NULL,
+    updated_at timestamp(6) with time zone,
+    PRIMARY KEY (id)
+);
+
+-- Colonnes ajoutées après la création des premières bases
+ALTER TABLE book ADD COLUMN IF NOT EXISTS author_key varchar(255);
+ALTER TABLE book ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+ALTER TABLE book ADD COLUMN IF NOT EXISTS updated_at timestamp(6) with time zone;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_book_isbn ON book (isbn);
+CREATE INDEX IF NOT EXISTS ix_book_author_key ON book (author_key, id);
+
+CREATE TABLE IF NOT EXISTS loan (
+    id bigint NOT NULL,
+    book_id bigint NOT NULL,
+    borrower varchar(255) NOT NULL,
+    checked_out_at timestamp(6) with time zone NOT NULL,
+    due_date date NOT NULL,
+    returned_at timestamp(6) with time zone,
+    status varchar(16) NOT NULL CHECK (status IN ('ACTIVE', 'RETURNED')),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_loan_status_due_date ON loan (status, due_date);
+CREATE INDEX IF NOT EXISTS ix_loan_book ON loan (book_id);
+CREATE INDEX IF NOT EXISTS ix_loan_borrower_status ON loan (borrower, status);
+
+-- Séquences au-delà des identifiants existants (tables remplies avec IDENTITY ou par une autre instance)
+SELECT setval('book_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 1 FROM book), (SELECT last_value FROM book_seq)));
+SELECT setval('loan_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 1 FROM loan), (SELECT last_value FROM loan_seq)));
@@ -0,0 +1,7 @@
+-- ISBN-13 canonique (entier de 13 chiffres) de chaque livre, calculé à l'écriture
+-- par l'application. Les lignes existantes sont complétées au démarrage par IsbnBackfill ;
+-- les ISBN invalides restent NULL, ce que l'index unique autorise.
+
+ALTER TABLE book ADD COLUMN IF NOT EXISTS isbn13 bigint;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_book_isbn13 ON book (isbn13);
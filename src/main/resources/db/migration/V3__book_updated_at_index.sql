@@ -0,0 +1,4 @@
+-- Livres modifiés depuis une date : complément d'un instantané binaire du
+-- catalogue lors d'un démarrage à chaud (CatalogSnapshot).
+
+CREATE INDEX IF NOT EXISTS ix_book_updated_at ON book (updated_at);
@@ -0,0 +1,16 @@
+-- Copie en base du journal d'audit (library.audit.jdbc.enabled), insérée par lots
+-- par AuditLog. sequence est propre à chaque instance : la clé est id.
+
+CREATE TABLE IF NOT EXISTS audit_event (
+    id bigserial NOT NULL,
+    sequence bigint NOT NULL,
+    at timestamp(6) with time zone NOT NULL,
+    principal varchar(255) NOT NULL,
+    action varchar(32) NOT NULL,
+    book_id bigint NOT NULL,
+    quantity_before integer,
+    quantity_after integer,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_audit_event_book ON audit_event (book_id, at);
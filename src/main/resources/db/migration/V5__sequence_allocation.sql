@@ -0,0 +1,8 @@
+-- Réalignement des séquences sur la taille d'allocation (allocationSize = 50 dans Book et Loan).
+-- L'optimiseur "pooled" de Hibernate prend la valeur lue comme le haut de son bloc et distribue
+-- nextval-49 … nextval : la séquence doit donc être au moins à MAX(id) + 50, et non MAX(id) + 1
+-- comme le fixait V1__baseline, sans quoi les premiers INSERT réutilisent des identifiants existants.
+-- Sans effet sur une séquence déjà au-delà.
+
+SELECT setval('book_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 50 FROM book), (SELECT last_value FROM book_seq)));
+SELECT setval('loan_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 50 FROM loan), (SELECT last_value FROM loan_seq)));
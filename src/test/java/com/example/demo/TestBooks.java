@@ -0,0 +1,39 @@
+package com.example.demo;
+
+import com.example.demo.model.Book;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Livres de test, chacun avec un ISBN-13 valide distinct
+ */
+public final class TestBooks {
+
+    private static final AtomicLong NEXT = new AtomicLong(System.nanoTime() % 1_000_000_000L);
+
+    private TestBooks() {
+    }
+
+    public static Book book(String title, int quantity) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Marguerite Duras");
+        book.setIsbn(isbn(NEXT.getAndIncrement() % 1_000_000_000L));
+        book.setQuantity(quantity);
+        book.setAvailable(quantity > 0);
+        return book;
+    }
+
+    /**
+     * @param index Indice entre 0 et 999 999 999
+     * @return Un ISBN-13 valide (préfixe 978)
+     */
+    public static String isbn(long index) {
+        String body = "978" + String.format("%09d", index);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (body.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+}
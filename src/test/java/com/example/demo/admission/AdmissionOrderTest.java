@@ -0,0 +1,71 @@
+package com.example.demo.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Place des contrôles d'admission dans la chaîne de sécurité : la limite par
+ * adresse IP arrête les identifiants erronés avant l'authentification, la
+ * limite par utilisateur s'applique après l'autorisation.
+ */
+@SpringBootTest(properties = {
+        "library.admission.enabled=true",
+        "library.admission.address.permits=1",
+        "library.admission.address.period=1h",
+        "library.admission.address.burst=3",
+        "library.admission.rules[0].name=search",
+        "library.admission.rules[0].path=/api/books/search",
+        "library.admission.rules[0].permits=1",
+        "library.admission.rules[0].period=1h",
+        "library.admission.rules[0].burst=1"
+})
+@AutoConfigureMockMvc
+class AdmissionOrderTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void badCredentialsAreLimitedByAddressBeforeAuthentication() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(from("10.0.0.1", get("/api/loans/overdue")).with(httpBasic("user", "wrong-" + i)))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        // Refusée sans atteindre la vérification du mot de passe, qui répondrait 401
+        mockMvc.perform(from("10.0.0.1", get("/api/loans/overdue")).with(httpBasic("user", "wrong-3")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        mockMvc.perform(from("10.0.0.2", get("/api/loans/overdue")).with(httpBasic("user", "wrong-4")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void perUserLimitStillAppliesAfterAuthentication() throws Exception {
+        mockMvc.perform(from("10.0.1.1", get("/api/books/search").param("title", "Duras")).with(httpBasic("admin", "adminpass")))
+                .andExpect(status().isOk());
+
+        // Autre adresse, même utilisateur : la limite de la règle suit l'utilisateur
+        mockMvc.perform(from("10.0.1.2", get("/api/books/search").param("title", "Duras")).with(httpBasic("admin", "adminpass")))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(from("10.0.1.2", get("/api/books/search").param("title", "Duras")).with(httpBasic("user", "userpass")))
+                .andExpect(status().isOk());
+    }
+
+    private static MockHttpServletRequestBuilder from(String address, MockHttpServletRequestBuilder request) {
+        return request.with(servletRequest -> {
+            servletRequest.setRemoteAddr(address);
+            return servletRequest;
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Invalidation pendant un chargement et capacité du cache segmenté.
+ */
+class BoundedCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void invalidationDuringLoadOnlyDiscardsThatKey() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(1000, Duration.ofHours(1));
+
+        // Écriture concurrente sur une autre clé : le chargement reste en cache
+        cache.get(1L, key -> {
+            cache.invalidate(2L);
+            return load(key);
+        });
+        cache.get(1L, this::load);
+        assertThat(loads.get()).isEqualTo(1);
+
+        // Écriture concurrente sur la même clé : la valeur chargée peut être périmée
+        cache.get(2L, key -> {
+            cache.invalidate(2L);
+            return load(key);
+        });
+        cache.get(2L, this::load);
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void batchLoadKeepsKeysNotInvalidatedMeanwhile() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(1000, Duration.ofHours(1));
+        Function<Collection<Long>, Map<Long, String>> loader = keys -> {
+            loads.addAndGet(keys.size());
+            return keys.stream().collect(Collectors.toMap(key -> key, key -> "livre-" + key));
+        };
+
+        cache.getAll(List.of(1L, 2L, 3L), keys -> {
+            cache.invalidate(2L);
+            return loader.apply(keys);
+        });
+        Map<Long, Optional<String>> again = cache.getAll(List.of(1L, 2L, 3L), loader);
+
+        assertThat(again.get(2L)).contains("livre-2");
+        // Seule la clé invalidée a été relue
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void sizeNeverExceedsMaxEntries() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(1000, Duration.ofHours(1));
+        for (long key = 0; key < 5000; key++) {
+            cache.get(key, this::load);
+        }
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.size()).isLessThanOrEqualTo(1000);
+        assertThat(stats.size() + stats.evictions()).isEqualTo(5000);
+    }
+
+    @Test
+    void failedLoadLeavesNoToken() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10, Duration.ofHours(1));
+        try {
+            cache.get(1L, key -> {
+                throw new IllegalStateException("base indisponible");
+            });
+        } catch (IllegalStateException expected) {
+            // Attendu
+        }
+
+        assertThat(cache.stats().size()).isZero();
+        assertThat(cache.get(1L, this::load)).contains("livre-1");
+    }
+
+    private Optional<String> load(Long key) {
+        loads.incrementAndGet();
+        return Optional.of("livre-" + key);
+    }
+}
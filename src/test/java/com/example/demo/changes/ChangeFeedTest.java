@@ -0,0 +1,58 @@
+package com.example.demo.changes;
+
+import com.example.demo.TestBooks;
+import com.example.demo.event.BookChangedEvent;
+import com.example.demo.model.Book;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Événements après commit livrés dans le désordre : le flux ne numérote jamais
+ * un état plus ancien que celui déjà diffusé pour le même livre.
+ */
+class ChangeFeedTest {
+
+    private final ChangeFeed feed = new ChangeFeed(JsonMapper.builder().findAndAddModules().build(),
+            100, 100, 10, Duration.ofHours(1), 1);
+
+    @AfterEach
+    void shutdown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void olderStateArrivingLateIsNotSequenced() {
+        Book first = version(TestBooks.book("Le Marin de Gibraltar", 3), 1);
+        Book second = version(TestBooks.book("Le Marin de Gibraltar", 2), 2);
+        long start = feed.lastSequence();
+
+        feed.onBookChanged(BookChangedEvent.quantityChanged(second, 3));
+        feed.onBookChanged(BookChangedEvent.saved(first));
+
+        assertThat(feed.lastSequence()).isEqualTo(start + 1);
+        assertThat(feed.staleCount()).isEqualTo(1);
+    }
+
+    @Test
+    void stateArrivingAfterDeletionIsNotSequenced() {
+        Book book = version(TestBooks.book("Abahn Sabana David", 1), 4);
+        long start = feed.lastSequence();
+
+        feed.onBookChanged(BookChangedEvent.deleted(book.getId(), 1));
+        feed.onBookChanged(BookChangedEvent.quantityChanged(book, 2));
+
+        assertThat(feed.lastSequence()).isEqualTo(start + 1);
+        assertThat(feed.staleCount()).isEqualTo(1);
+    }
+
+    private static Book version(Book book, long version) {
+        book.setId(42L);
+        book.setVersion(version);
+        return book;
+    }
+}
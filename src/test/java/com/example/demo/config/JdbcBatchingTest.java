@@ -0,0 +1,208 @@
+package com.example.demo.config;
+
+import com.example.demo.TestBooks;
+import com.example.demo.importer.BookImportService;
+import com.example.demo.model.Book;
+import com.example.demo.repository.BookRepository;
+import com.example.demo.service.LoanService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Écritures de plusieurs lignes avec les réglages de batching du profil prod
+ * (application-prod.properties) : les allers-retours vers la base sont comptés
+ * par ordre SQL au niveau JDBC, un lot exécuté comptant pour un seul.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_versioned_data=true"
+})
+class JdbcBatchingTest {
+
+    private static final int ROWS = 120;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private StatementCounter statements;
+
+    @BeforeEach
+    void resetCounts() {
+        statements.clear();
+    }
+
+    @Test
+    void insertsAndVersionedUpdatesAreSentInBatches() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            books.add(TestBooks.book("Les Yeux bleus cheveux noirs " + i, 1));
+        }
+        transactionTemplate.executeWithoutResult(status -> bookRepository.saveAll(books));
+
+        // 120 lignes, lots de 50 : 3 exécutions
+        assertThat(statements.executions("insert book")).isEqualTo(3);
+
+        statements.clear();
+        List<Long> ids = books.stream().map(Book::getId).toList();
+        transactionTemplate.executeWithoutResult(status ->
+                bookRepository.findAllById(ids).forEach(book -> book.setQuantity(2)));
+
+        assertThat(statements.executions("update book")).isEqualTo(3);
+        assertThat(bookRepository.findAllById(ids)).allSatisfy(book -> {
+            assertThat(book.getQuantity()).isEqualTo(2);
+            assertThat(book.getVersion()).isEqualTo(1L);
+        });
+    }
+
+    @Test
+    void importBatchIsOneInsertRoundTrip() throws Exception {
+        StringBuilder csv = new StringBuilder("title,author,isbn,quantity,available\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("La Pute de la côte normande ").append(i).append(",Marguerite Duras,")
+                    .append(TestBooks.isbn(990_000_000L + i)).append(",1,true\n");
+        }
+
+        bookImportService.importBooks(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                BookImportService.Format.CSV, ROWS);
+
+        // La taille de lot de l'import remplace celle de la configuration
+        assertThat(statements.executions("insert book")).isEqualTo(1);
+    }
+
+    @Test
+    void multiBookCheckoutInsertsLoansInOneRoundTrip() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            books.add(TestBooks.book("Emily L. " + i, 1));
+        }
+        List<Long> ids = bookRepository.saveAll(books).stream().map(Book::getId).toList();
+        statements.clear();
+
+        loanService.checkout("reader", ids);
+
+        assertThat(statements.executions("update book")).isEqualTo(1);
+        assertThat(statements.executions("insert loan")).isEqualTo(1);
+    }
+
+    @TestConfiguration
+    static class CountingDataSource {
+
+        @Bean
+        StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? StatementCounter.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Exécutions JDBC par ordre, identifié par son verbe et sa table ("insert book") :
+     * executeBatch compte pour un aller-retour, quel que soit le nombre de lignes du lot
+     */
+    static class StatementCounter {
+
+        private static final Map<String, AtomicInteger> EXECUTIONS = new ConcurrentHashMap<>();
+
+        int executions(String statement) {
+            AtomicInteger count = EXECUTIONS.get(statement);
+            return count == null ? 0 : count.get();
+        }
+
+        void clear() {
+            EXECUTIONS.clear();
+        }
+
+        static DataSource wrap(DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (method, result, args) ->
+                    result instanceof Connection connection ? wrap(connection) : result);
+        }
+
+        private static Connection wrap(Connection connection) {
+            return proxy(Connection.class, connection, (method, result, args) ->
+                    method.equals("prepareStatement") && result instanceof PreparedStatement statement
+                            ? wrap(statement, key((String) args[0]))
+                            : result);
+        }
+
+        private static PreparedStatement wrap(PreparedStatement statement, String key) {
+            return proxy(PreparedStatement.class, statement, (method, result, args) -> {
+                if (key != null && (method.equals("executeBatch") || method.equals("executeUpdate")
+                        || method.equals("execute") && args == null)) {
+                    EXECUTIONS.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+                }
+                return result;
+            });
+        }
+
+        /** @return "insert table" ou "update table", null pour les autres ordres */
+        private static String key(String sql) {
+            String[] words = sql.trim().toLowerCase(Locale.ROOT).split("[\\s(]+", 4);
+            if (words.length >= 3 && words[0].equals("insert") && words[1].equals("into")) {
+                return "insert " + words[2];
+            }
+            if (words.length >= 2 && words[0].equals("update")) {
+                return "update " + words[1];
+            }
+            return null;
+        }
+
+        @FunctionalInterface
+        private interface AfterCall {
+            Object apply(String method, Object result, Object[] args);
+        }
+
+        private static <T> T proxy(Class<T> type, T target, AfterCall after) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                try {
+                    return after.apply(method.getName(), method.invoke(target, args), args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+    }
+}
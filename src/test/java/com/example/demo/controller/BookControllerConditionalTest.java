@@ -0,0 +1,162 @@
+package com.example.demo.controller;
+
+import com.example.demo.TestBooks;
+import com.example.demo.cache.BookCache;
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.dto.BookPage;
+import com.example.demo.dto.CatalogStats;
+import com.example.demo.importer.BookImportService;
+import com.example.demo.model.Book;
+import com.example.demo.replica.PrimaryReads;
+import com.example.demo.search.BookSearchService;
+import com.example.demo.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Lectures conditionnelles du catalogue : 304 sur If-None-Match ou If-Modified-Since
+ * sans exécuter la requête, validateurs et Vary: Accept sur chaque réponse.
+ * Seul le contrôleur est chargé ; les règles d'accès sont couvertes par SecurityConfig.
+ */
+@WebMvcTest
+@ContextConfiguration(classes = BookController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class BookControllerConditionalTest {
+
+    private static final Instant MODIFIED = Instant.parse("2026-03-01T10:15:30Z");
+    private static final CatalogVersion.Snapshot VERSION = new CatalogVersion.Snapshot(7, "W/\"test-7\"", MODIFIED);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BookService bookService;
+
+    @MockBean
+    private BookSearchService bookSearchService;
+
+    @MockBean
+    private BookCache bookCache;
+
+    @MockBean
+    private BookImportService bookImportService;
+
+    @MockBean
+    private CatalogVersion catalogVersion;
+
+    @MockBean
+    private PrimaryReads primaryReads;
+
+    @BeforeEach
+    void catalogState() {
+        when(catalogVersion.current()).thenReturn(VERSION);
+        when(primaryReads.call(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(bookService.getCatalogStats()).thenReturn(new CatalogStats(3, 12, 2));
+    }
+
+    @Test
+    void firstReadSendsValidatorsAndVary() throws Exception {
+        mockMvc.perform(get("/api/books/stats"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, VERSION.etag()))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, MODIFIED.toEpochMilli()))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andExpect(jsonPath("$.totalCopies").value(12));
+
+        verify(bookService).getCatalogStats();
+    }
+
+    @Test
+    void matchingIfNoneMatchAnswers304WithoutQuery() throws Exception {
+        mockMvc.perform(get("/api/books/stats").header(HttpHeaders.IF_NONE_MATCH, VERSION.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, VERSION.etag()))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andExpect(content().string(""));
+
+        verify(bookService, never()).getCatalogStats();
+        verify(primaryReads, never()).call(any());
+    }
+
+    @Test
+    void staleIfNoneMatchReturnsBody() throws Exception {
+        mockMvc.perform(get("/api/books/page")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"test-6\"")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(MODIFIED)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, VERSION.etag()));
+
+        // If-None-Match prime sur If-Modified-Since, même dans la même seconde
+        verify(bookService).findBooksPage(isNull(), anyInt());
+    }
+
+    @Test
+    void ifModifiedSinceAnswers304OnlyWhenUpToDate() throws Exception {
+        when(bookService.findAvailableBooksPage(isNull(), anyInt())).thenReturn(new BookPage(List.of(), null));
+
+        mockMvc.perform(get("/api/books/available").header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(MODIFIED)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, MODIFIED.toEpochMilli()));
+        verify(bookService, never()).findAvailableBooksPage(any(), anyInt());
+
+        mockMvc.perform(get("/api/books/available")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(MODIFIED.minusSeconds(1))))
+                .andExpect(status().isOk())
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, MODIFIED.toEpochMilli()));
+        verify(bookService).findAvailableBooksPage(isNull(), anyInt());
+    }
+
+    @Test
+    void bookReadIsConditionalOnVersionAndQuantity() throws Exception {
+        Book book = TestBooks.book("Le Navire Night", 4);
+        book.setId(5L);
+        book.setVersion(2L);
+        book.setUpdatedAt(MODIFIED);
+        when(bookService.findById(5L)).thenReturn(Optional.of(book));
+        String etag = "W/\"5-2-4\"";
+
+        mockMvc.perform(get("/api/books/5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, MODIFIED.toEpochMilli()));
+        mockMvc.perform(get("/api/books/5").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Quantité en attente d'écriture : même version, autre représentation
+        book.setQuantity(3);
+        mockMvc.perform(get("/api/books/5").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"5-2-3\""));
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atZone(ZoneOffset.UTC));
+    }
+}
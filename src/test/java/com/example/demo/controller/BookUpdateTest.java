@@ -0,0 +1,68 @@
+package com.example.demo.controller;
+
+import com.example.demo.TestBooks;
+import com.example.demo.model.Book;
+import com.example.demo.repository.BookRepository;
+import com.example.demo.service.BookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Remplacement complet d'un livre (PUT /api/books/{id}) : réservé aux administrateurs,
+ * comme les mises à jour de stock, et disponibilité toujours déduite de la quantité.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookUpdateTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void userCannotReplaceBook() throws Exception {
+        Book book = bookService.saveBook(TestBooks.book("Savannah Bay", 2));
+
+        mockMvc.perform(put("/api/books/" + book.getId()).with(httpBasic("user", "userpass"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(book, 40, true)))
+                .andExpect(status().isForbidden());
+
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    void availabilityFollowsQuantity() throws Exception {
+        Book book = bookService.saveBook(TestBooks.book("Agatha", 2));
+
+        mockMvc.perform(put("/api/books/" + book.getId()).with(httpBasic("admin", "adminpass"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(book, 0, true)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(false));
+
+        Book stored = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(stored.getQuantity()).isZero();
+        assertThat(stored.isAvailable()).isFalse();
+    }
+
+    private static String json(Book book, int quantity, boolean available) {
+        return "{\"title\":\"" + book.getTitle() + "\",\"author\":\"" + book.getAuthor() + "\",\"isbn\":\"" + book.getIsbn()
+                + "\",\"quantity\":" + quantity + ",\"available\":" + available + ",\"version\":" + book.getVersion() + "}";
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.inventory;
+
+import com.example.demo.TestBooks;
+import com.example.demo.exception.InsufficientStockException;
+import com.example.demo.model.Book;
+import com.example.demo.repository.BookRepository;
+import com.example.demo.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Mises à jour regroupées et écritures synchrones sur les mêmes livres : une
+ * quantité fixée en attente n'écrase jamais un retrait validé après elle.
+ * Le passage périodique est désactivé, les tests appellent flush eux-mêmes.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "library.quantity-coalescing.enabled=true",
+        "library.quantity-coalescing.flush-interval=1h"
+})
+class QuantityCoalescerTest {
+
+    private static final int ROUNDS = 200;
+
+    @Autowired
+    private QuantityCoalescer coalescer;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void startExecutor() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void decrementRacingFlushIsAppliedAfterBufferedQuantity() throws Exception {
+        Book book = bookService.saveBook(TestBooks.book("Le Marin de Gibraltar", 5));
+
+        for (int round = 0; round < ROUNDS; round++) {
+            bookService.bufferQuantity(book.getId(), 10);
+            CountDownLatch start = new CountDownLatch(1);
+            Future<Integer> flush = executor.submit(() -> {
+                start.await();
+                return coalescer.flush();
+            });
+            Future<Book> decrement = executor.submit(() -> {
+                start.await();
+                return bookService.decrementQuantity(book.getId(), 1);
+            });
+            start.countDown();
+            flush.get(30, TimeUnit.SECONDS);
+            decrement.get(30, TimeUnit.SECONDS);
+            coalescer.flush();
+
+            assertThat(bookRepository.findById(book.getId()).orElseThrow().getQuantity())
+                    .as("round %d", round)
+                    .isEqualTo(9);
+        }
+        assertThat(coalescer.pendingCount()).isZero();
+        assertThat(coalescer.inFlightCount()).isZero();
+    }
+
+    @Test
+    void pendingQuantityReturnsToBufferWhenSynchronousWriteRollsBack() {
+        Book buffered = bookService.saveBook(TestBooks.book("Les Petits Chevaux de Tarquinia", 2));
+        Book empty = bookService.saveBook(TestBooks.book("Le Square", 0));
+        bookService.bufferQuantity(buffered.getId(), 7);
+
+        assertThatThrownBy(() -> bookService.decrementEach(List.of(buffered.getId(), empty.getId())))
+                .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(coalescer.pendingCount()).isEqualTo(1);
+        assertThat(coalescer.inFlightCount()).isZero();
+        assertThat(bookService.findById(buffered.getId()).orElseThrow().getQuantity()).isEqualTo(7);
+        assertThat(coalescer.flush()).isEqualTo(1);
+        assertThat(bookRepository.findById(buffered.getId()).orElseThrow().getQuantity()).isEqualTo(7);
+    }
+
+    @Test
+    void discardedQuantityIsNotAppliedAfterReplacement() {
+        Book book = bookService.saveBook(TestBooks.book("Détruire, dit-elle", 3));
+        bookService.bufferQuantity(book.getId(), 8);
+
+        Book replacement = bookRepository.findById(book.getId()).orElseThrow();
+        replacement.setQuantity(4);
+        bookService.updateBook(book.getId(), replacement);
+
+        assertThat(coalescer.flush()).isZero();
+        assertThat(bookService.findById(book.getId()).orElseThrow().getQuantity()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.demo.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Routage des transactions entre une base principale et une réplique, deux
+ * bases H2 en mémoire qui répondent chacune par leur nom. La réplique est
+ * servie par un serveur TCP H2 que les tests arrêtent et redémarrent.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration STICKY_WINDOW = Duration.ofMillis(500);
+
+    private final String name = UUID.randomUUID().toString();
+    private int replicaPort;
+    private Server replicaServer;
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private PrimaryReads primaryReads;
+
+    @BeforeEach
+    void startDatabases() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            replicaPort = socket.getLocalPort();
+        }
+        primary = pool("primary", "jdbc:h2:mem:primary-" + name + ";DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(primary).execute("CREATE TABLE origin AS SELECT 'primary' AS name");
+        replica = pool("replica", "jdbc:h2:tcp://localhost:" + replicaPort + "/mem:replica-" + name + ";DB_CLOSE_DELAY=-1");
+        replica.setConnectionTimeout(500);
+        replica.setInitializationFailTimeout(-1);
+
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), new ReadYourWrites(STICKY_WINDOW), Duration.ZERO);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(routing);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("routing", routing));
+        primaryReads = new PrimaryReads(beans.getBeanProvider(ReplicaRoutingDataSource.class), transactionManager);
+    }
+
+    @AfterEach
+    void stopDatabases() {
+        SecurityContextHolder.clearContext();
+        routing.close();
+        if (replicaServer != null) {
+            replicaServer.stop();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() throws SQLException {
+        startReplica();
+
+        assertThat(readOnlyOrigin()).isEqualTo("replica");
+        assertThat(readWriteOrigin()).isEqualTo("primary");
+        assertThat(routing.replicaReads()).isEqualTo(1);
+        assertThat(routing.primaryReads()).isZero();
+    }
+
+    @Test
+    void replicaRefusingConnectionsFallsBackToPrimaryUntilHealthCheckSucceeds() throws SQLException {
+        assertThat(readOnlyOrigin()).isEqualTo("primary");
+        assertThat(routing.healthyReplicas()).isZero();
+        assertThat(routing.primaryReads()).isEqualTo(1);
+
+        // Écartée : plus aucune tentative de connexion avant le prochain contrôle
+        startReplica();
+        assertThat(readOnlyOrigin()).isEqualTo("primary");
+
+        routing.checkHealth();
+        assertThat(routing.healthyReplicas()).isEqualTo(1);
+        assertThat(readOnlyOrigin()).isEqualTo("replica");
+
+        replicaServer.stop();
+        replica.getHikariPoolMXBean().softEvictConnections();
+        routing.checkHealth();
+        assertThat(routing.healthyReplicas()).isZero();
+        assertThat(readOnlyOrigin()).isEqualTo("primary");
+    }
+
+    @Test
+    void writerReadsFromPrimaryDuringStickyWindow() throws Exception {
+        startReplica();
+        authenticate("alice");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE origin SET name = name"));
+
+        assertThat(readOnlyOrigin()).isEqualTo("primary");
+        authenticate("bob");
+        assertThat(readOnlyOrigin()).isEqualTo("replica");
+
+        authenticate("alice");
+        Thread.sleep(STICKY_WINDOW.toMillis() + 100);
+        assertThat(readOnlyOrigin()).isEqualTo("replica");
+    }
+
+    @Test
+    void writeRolledBackDoesNotPinUser() throws SQLException {
+        startReplica();
+        authenticate("alice");
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE origin SET name = name");
+            status.setRollbackOnly();
+        });
+
+        assertThat(readOnlyOrigin()).isEqualTo("replica");
+    }
+
+    @Test
+    void primaryReadsStayOnPrimaryWithoutPinningUser() throws SQLException {
+        startReplica();
+        authenticate("alice");
+
+        assertThat(primaryReads.call(this::origin)).isEqualTo("primary");
+        String nested = readOnly.execute(status -> primaryReads.call(this::origin));
+        assertThat(nested).isEqualTo("primary");
+        assertThat(readOnlyOrigin()).isEqualTo("replica");
+    }
+
+    @Test
+    void perCallCredentialsAreRefusedAsUnsupportedFeature() {
+        // Comme HikariDataSource : une SQLException que les appelants JDBC savent traiter
+        assertThatThrownBy(() -> routing.getConnection("sa", ""))
+                .isInstanceOf(SQLFeatureNotSupportedException.class);
+    }
+
+    private String readOnlyOrigin() {
+        return readOnly.execute(status -> origin());
+    }
+
+    private String readWriteOrigin() {
+        return readWrite.execute(status -> origin());
+    }
+
+    private String origin() {
+        return jdbcTemplate.queryForObject("SELECT name FROM origin", String.class);
+    }
+
+    private void startReplica() throws SQLException {
+        replicaServer = Server.createTcpServer("-tcpPort", String.valueOf(replicaPort), "-ifNotExists").start();
+        try (Connection connection = DriverManager.getConnection(replica.getJdbcUrl(), "sa", "")) {
+            connection.createStatement().execute("CREATE TABLE IF NOT EXISTS origin AS SELECT 'replica' AS name");
+        }
+    }
+
+    private static void authenticate(String user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, List.of()));
+    }
+
+    private static HikariDataSource pool(String poolName, String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(poolName + "-test");
+        pool.setJdbcUrl(url);
+        pool.setUsername("sa");
+        pool.setPassword("");
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+}
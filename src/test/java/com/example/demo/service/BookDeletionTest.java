@@ -0,0 +1,58 @@
+package com.example.demo.service;
+
+import com.example.demo.TestBooks;
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.changes.ChangeFeed;
+import com.example.demo.model.Book;
+import com.example.demo.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Suppression d'un livre : seul un livre effectivement supprimé publie un événement,
+ * un identifiant inconnu ne fait évoluer ni l'ETag du catalogue ni le flux des modifications.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class BookDeletionTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Test
+    void unknownIdPublishesNothing() {
+        long version = catalogVersion.current().counter();
+        long sequence = changeFeed.lastSequence();
+
+        for (long id = 1_000_000; id < 1_000_100; id++) {
+            bookService.deleteBook(id);
+        }
+
+        assertThat(catalogVersion.current().counter()).isEqualTo(version);
+        assertThat(changeFeed.lastSequence()).isEqualTo(sequence);
+    }
+
+    @Test
+    void deletionPublishesOnce() {
+        Book book = bookService.saveBook(TestBooks.book("Le Shaga", 1));
+        long version = catalogVersion.current().counter();
+
+        bookService.deleteBook(book.getId());
+        bookService.deleteBook(book.getId());
+
+        assertThat(bookRepository.existsById(book.getId())).isFalse();
+        assertThat(catalogVersion.current().counter()).isEqualTo(version + 1);
+        assertThat(bookService.findById(book.getId())).isEmpty();
+    }
+}
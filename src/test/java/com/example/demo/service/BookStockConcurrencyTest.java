@@ -0,0 +1,176 @@
+package com.example.demo.service;
+
+import com.example.demo.TestBooks;
+import com.example.demo.exception.InsufficientStockException;
+import com.example.demo.model.Book;
+import com.example.demo.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Variations de stock concurrentes sur une même ligne (BookRepository.adjustQuantity,
+ * setQuantity et decrementEach, via BookService) : aucune mise à jour perdue, jamais de stock négatif.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class BookStockConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 100;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void startExecutor() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIncrementsAndDecrementsKeepExactCount() throws Exception {
+        int initial = THREADS * OPERATIONS_PER_THREAD;
+        Book book = bookService.saveBook(TestBooks.book("Le Ravissement de Lol V. Stein", initial));
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                if (thread % 2 == 0) {
+                    bookService.incrementQuantity(book.getId(), 1);
+                } else {
+                    bookService.decrementQuantity(book.getId(), 1);
+                }
+            }
+            return null;
+        });
+
+        Book updated = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(updated.getQuantity()).isEqualTo(initial);
+        assertThat(updated.getVersion()).isEqualTo(book.getVersion() + THREADS * OPERATIONS_PER_THREAD);
+        assertThat(updated.isAvailable()).isTrue();
+    }
+
+    @Test
+    void concurrentDecrementsStopAtZero() throws Exception {
+        int stock = 50;
+        Book book = bookService.saveBook(TestBooks.book("L'Amant", stock));
+        AtomicInteger removed = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD / 4; i++) {
+                try {
+                    bookService.decrementQuantity(book.getId(), 1);
+                    removed.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    refused.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        Book updated = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(removed.get()).isEqualTo(stock);
+        assertThat(refused.get()).isEqualTo(THREADS * OPERATIONS_PER_THREAD / 4 - stock);
+        assertThat(updated.getQuantity()).isZero();
+        assertThat(updated.isAvailable()).isFalse();
+    }
+
+    @Test
+    void concurrentDecrementEachIsAllOrNothing() throws Exception {
+        Book plenty = bookService.saveBook(TestBooks.book("Moderato cantabile", 100));
+        Book scarce = bookService.saveBook(TestBooks.book("Un barrage contre le Pacifique", 10));
+        AtomicInteger removed = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD / 4; i++) {
+                try {
+                    bookService.decrementEach(List.of(plenty.getId(), scarce.getId()));
+                    removed.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    refused.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertThat(removed.get()).isEqualTo(10);
+        assertThat(refused.get()).isEqualTo(THREADS * OPERATIONS_PER_THREAD / 4 - 10);
+        assertThat(bookRepository.findById(scarce.getId()).orElseThrow().getQuantity()).isZero();
+        // Les tentatives refusées n'ont rien retiré du livre encore en stock
+        assertThat(bookRepository.findById(plenty.getId()).orElseThrow().getQuantity()).isEqualTo(90);
+    }
+
+    @Test
+    void concurrentQuantitySetsNeverConflict() throws Exception {
+        Book book = bookService.saveBook(TestBooks.book("Le Camion", 3));
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD / 4; i++) {
+                bookService.updateBookQuantity(book.getId(), thread);
+            }
+            return null;
+        });
+
+        Book updated = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(updated.getQuantity()).isBetween(0, THREADS - 1);
+        assertThat(updated.isAvailable()).isEqualTo(updated.getQuantity() > 0);
+        assertThat(updated.getVersion()).isEqualTo(book.getVersion() + THREADS * OPERATIONS_PER_THREAD / 4);
+    }
+
+    @Test
+    void negativeQuantityIsRejected() {
+        Book book = bookService.saveBook(TestBooks.book("Aurélia Steiner", 3));
+
+        assertThatThrownBy(() -> bookService.updateBookQuantity(book.getId(), -1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getQuantity()).isEqualTo(3);
+    }
+
+    /** Lance la tâche sur THREADS threads en même temps et attend leur fin */
+    private void runConcurrently(ThreadTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            Callable<Void> worker = () -> {
+                start.await();
+                return task.run(thread);
+            };
+            futures.add(executor.submit(worker));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        Void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.service;
+
+import com.example.demo.TestBooks;
+import com.example.demo.exception.InsufficientStockException;
+import com.example.demo.model.Book;
+import com.example.demo.model.Loan;
+import com.example.demo.repository.BookRepository;
+import com.example.demo.repository.LoanRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Emprunts et retours simultanés (LoanService) : jamais plus d'emprunts que
+ * d'exemplaires, un emprunt de plusieurs livres est tout ou rien, et un même
+ * emprunt n'est rendu qu'une fois.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class LoanCheckoutConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int CHECKOUTS_PER_THREAD = 10;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void startExecutor() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        int stock = 25;
+        Book book = bookService.saveBook(TestBooks.book("La Douleur", stock));
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < CHECKOUTS_PER_THREAD; i++) {
+                try {
+                    loanService.checkout("reader-" + thread, List.of(book.getId()));
+                    succeeded.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    refused.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        Book updated = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(succeeded.get()).isEqualTo(stock);
+        assertThat(refused.get()).isEqualTo(THREADS * CHECKOUTS_PER_THREAD - stock);
+        assertThat(updated.getQuantity()).isZero();
+        assertThat(updated.isAvailable()).isFalse();
+        assertThat(loansOf(book)).hasSize(stock);
+    }
+
+    @Test
+    void concurrentMultiBookCheckoutsAreAllOrNothing() throws Exception {
+        Book plenty = bookService.saveBook(TestBooks.book("Le Vice-consul", 200));
+        Book scarce = bookService.saveBook(TestBooks.book("India Song", 12));
+        AtomicInteger succeeded = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < CHECKOUTS_PER_THREAD; i++) {
+                try {
+                    loanService.checkout("reader-" + thread, List.of(plenty.getId(), scarce.getId()));
+                    succeeded.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    // Attendu une fois le titre rare épuisé
+                }
+            }
+            return null;
+        });
+
+        assertThat(succeeded.get()).isEqualTo(12);
+        assertThat(bookRepository.findById(scarce.getId()).orElseThrow().getQuantity()).isZero();
+        // Les emprunts refusés n'ont ni retiré de stock ni laissé d'emprunt sur l'autre livre
+        assertThat(bookRepository.findById(plenty.getId()).orElseThrow().getQuantity()).isEqualTo(188);
+        assertThat(loansOf(plenty)).hasSize(12);
+        assertThat(loansOf(scarce)).hasSize(12);
+    }
+
+    @Test
+    void concurrentReturnsOfSameLoanRestockOnce() throws Exception {
+        Book book = bookService.saveBook(TestBooks.book("L'Après-midi de monsieur Andesmas", 3));
+        Loan loan = loanService.checkout("reader", List.of(book.getId())).get(0);
+        AtomicInteger returned = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            try {
+                loanService.returnLoan(loan.getId());
+                returned.incrementAndGet();
+            } catch (IllegalStateException e) {
+                rejected.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertThat(returned.get()).isEqualTo(1);
+        assertThat(rejected.get()).isEqualTo(THREADS - 1);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getQuantity()).isEqualTo(3);
+        assertThat(loanRepository.findById(loan.getId()).orElseThrow().getStatus()).isEqualTo(Loan.Status.RETURNED);
+    }
+
+    private List<Loan> loansOf(Book book) {
+        return loanRepository.findAll().stream()
+                .filter(loan -> loan.getBookId().equals(book.getId()))
+                .toList();
+    }
+
+    /** Lance la tâche sur THREADS threads en même temps et attend leur fin */
+    private void runConcurrently(ThreadTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            Callable<Void> worker = () -> {
+                start.await();
+                return task.run(thread);
+            };
+            futures.add(executor.submit(worker));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        Void run(int thread) throws Exception;
+    }
+}
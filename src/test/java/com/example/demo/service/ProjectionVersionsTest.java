@@ -0,0 +1,112 @@
+package com.example.demo.service;
+
+import com.example.demo.TestBooks;
+import com.example.demo.author.AuthorIndex;
+import com.example.demo.dto.CatalogStats;
+import com.example.demo.event.BookChangedEvent;
+import com.example.demo.inventory.AvailabilityIndex;
+import com.example.demo.isbn.Isbn;
+import com.example.demo.isbn.IsbnIndex;
+import com.example.demo.model.Book;
+import com.example.demo.search.BookSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Événements après commit livrés dans le désordre : chaque projection garde
+ * l'état de la version la plus récente et ne ressuscite pas un livre supprimé.
+ */
+class ProjectionVersionsTest {
+
+    private static final long BOOK_ID = 42L;
+
+    private final AvailabilityIndex availability = new AvailabilityIndex();
+    private final BookSearchIndex search = new BookSearchIndex();
+    private final AuthorIndex authors = new AuthorIndex();
+    private final IsbnIndex isbns = new IsbnIndex();
+    private final List<CatalogProjection> projections = List.of(availability, search, authors, isbns);
+
+    @BeforeEach
+    void emptyCatalog() {
+        projections.forEach(CatalogProjection::beginRebuild);
+        projections.forEach(CatalogProjection::endRebuild);
+    }
+
+    @Test
+    void olderStateArrivingLateIsIgnored() {
+        Book first = version(TestBooks.book("Moderato cantabile", 3), 1);
+        Book second = copy(first, 2);
+        second.setTitle("Le Vice-consul");
+        second.setAuthor("Duras Marguerite");
+        second.setIsbn(TestBooks.isbn(424242));
+        second.setQuantity(0);
+        second.setAvailable(false);
+
+        publish(BookChangedEvent.saved(second, 3));
+        publish(BookChangedEvent.saved(first));
+
+        assertThat(availability.stats()).isEqualTo(new CatalogStats(1, 0, 0));
+        assertThat(search.search("cantabile", 10, false)).isEmpty();
+        assertThat(search.search("vice", 10, false)).extracting(BookSearchIndex.Hit::bookId).containsExactly(BOOK_ID);
+        assertThat(authors.complete("duras", 10)).extracting(summary -> summary.name()).containsExactly("Duras Marguerite");
+        assertThat(authors.complete("marguerite", 10)).isEmpty();
+        assertThat(isbns.findId(Isbn.parse(first.getIsbn()))).isNull();
+        assertThat(isbns.findId(Isbn.parse(second.getIsbn()))).isEqualTo(BOOK_ID);
+    }
+
+    @Test
+    void stateArrivingAfterDeletionIsIgnored() {
+        Book book = version(TestBooks.book("Hiroshima mon amour", 2), 4);
+
+        publish(BookChangedEvent.deleted(BOOK_ID, 2));
+        publish(BookChangedEvent.quantityChanged(book, 1));
+
+        assertThat(availability.stats()).isEqualTo(new CatalogStats(0, 0, 0));
+        assertThat(search.size()).isZero();
+        assertThat(authors.size()).isZero();
+        assertThat(isbns.size()).isZero();
+    }
+
+    @Test
+    void rowsLoadedDuringRebuildDoNotOverrideNewerEvents() {
+        Book stored = version(TestBooks.book("Un barrage contre le Pacifique", 5), 7);
+        Book updated = copy(stored, 8);
+        updated.setQuantity(0);
+        updated.setAvailable(false);
+        projections.forEach(CatalogProjection::beginRebuild);
+
+        publish(BookChangedEvent.quantityChanged(updated, 5));
+        projections.forEach(projection -> projection.load(stored));
+        projections.forEach(CatalogProjection::endRebuild);
+
+        assertThat(availability.stats()).isEqualTo(new CatalogStats(1, 0, 0));
+        assertThat(search.search("barrage", 10, true)).isEmpty();
+    }
+
+    private void publish(BookChangedEvent event) {
+        availability.onBookChanged(event);
+        search.onBookChanged(event);
+        authors.onBookChanged(event);
+        isbns.onBookChanged(event);
+    }
+
+    private static Book version(Book book, long version) {
+        book.setId(BOOK_ID);
+        book.setVersion(version);
+        return book;
+    }
+
+    private static Book copy(Book source, long version) {
+        Book book = new Book();
+        book.setTitle(source.getTitle());
+        book.setAuthor(source.getAuthor());
+        book.setIsbn(source.getIsbn());
+        book.setQuantity(source.getQuantity());
+        book.setAvailable(source.isAvailable());
+        return version(book, version);
+    }
+}